@@ -0,0 +1,171 @@
+package com.demo.web.application.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.dto.User;
+import com.demo.web.application.repository.TenantRepository;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.RequireTenantResource;
+import com.demo.web.application.security.RequireTenantResourceAspect;
+import com.demo.web.application.security.TenantAuthenticationToken;
+import com.demo.web.application.security.TenantRequestMetrics;
+import com.demo.web.application.security.TenantResourceRequirementRegistry;
+import com.demo.web.application.service.TenantCacheProperties;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+import com.demo.web.application.service.invalidation.InProcessTenantInvalidationBus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Baseline for each step of the X-Tenant-ID request path, against synthetic tenants with varying
+ * role/resource fan-out. Run with {@code -prof gc} to get allocation rate (gc.alloc.rate.norm = B/op).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationHotPathBenchmark {
+
+    @Param({"10000"})
+    public int tenantCount;
+
+    @Param({"1", "4"})
+    public int rolesPerTenant;
+
+    @Param({"4", "32"})
+    public int resourcesPerRole;
+
+    /**
+     * true = demand-loaded Caffeine cache (tenant.cache.lazy-load), warmed before measuring.
+     */
+    @Param({"false"})
+    public boolean lazyLoad;
+
+    private TenantCacheService tenantCacheService;
+    private Tenant tenant;
+    private TenantSnapshot snapshot;
+    private User user;
+    private OrdersEndpoint securedEndpoint;
+    private String[] headerValues;
+    private String[] unknownHeaderValues;
+    private int next;
+
+    /**
+     * Stand-in for TenantApiController#getOrders, proxied with the real aspect.
+     */
+    public static class OrdersEndpoint {
+        @RequireTenantResource(name = "ORDERS", roles = {"ADMIN", "EDITOR", "USER"})
+        public String getOrders() {
+            return "orders";
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        List<Role> roles = SyntheticTenants.roles(rolesPerTenant, resourcesPerRole);
+        List<Tenant> tenants = SyntheticTenants.tenants(tenantCount, roles);
+
+        TenantRepository repository = mock(TenantRepository.class);
+        when(repository.findAllWithRolesAndResources()).thenReturn(tenants);
+        Map<String, Tenant> byCode = tenants.stream().collect(Collectors.toMap(t -> t.getCode().toLowerCase(), t -> t));
+        when(repository.findAllCodes()).thenReturn(List.copyOf(byCode.keySet()));
+        when(repository.findByCodeIn(anyCollection())).thenAnswer(call -> call.<Collection<String>>getArgument(0)
+                .stream().map(byCode::get).filter(Objects::nonNull).toList());
+        AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+        tenantCacheService = new TenantCacheService(repository, authorityRegistry, new InProcessTenantInvalidationBus(),
+                TenantCacheProperties.defaults().withLazyLoad(lazyLoad));
+        tenantCacheService.loadCache();
+
+        tenant = tenants.get(0);
+        snapshot = tenantCacheService.getSnapshotByCode(tenant.getCode());
+        user = SyntheticTenants.user(roles);
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new OrdersEndpoint());
+        proxyFactory.setProxyTargetClass(true);
+        TenantRequestMetrics metrics = new TenantRequestMetrics(new SimpleMeterRegistry(), tenantCacheService, 20, 15, 200);
+        proxyFactory.addAspect(new RequireTenantResourceAspect(new TenantResourceRequirementRegistry(authorityRegistry, metrics)));
+        securedEndpoint = proxyFactory.getProxy();
+        SecurityContextHolder.getContext().setAuthentication(new TenantAuthenticationToken(snapshot));
+
+        // Header values as they arrive: mixed case and padded, cycling across tenants
+        headerValues = new String[1024];
+        for (int i = 0; i < headerValues.length; i++) {
+            headerValues[i] = " Tenant" + (i * 7919 % tenantCount) + " ";
+            tenantCacheService.getSnapshotByCode(headerValues[i]);
+        }
+        unknownHeaderValues = new String[1024];
+        for (int i = 0; i < unknownHeaderValues.length; i++) {
+            unknownHeaderValues[i] = "Unknown-" + Integer.toHexString(i * 0x9E3779B9);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public TenantSnapshot tenantCacheLookup() {
+        return tenantCacheService.getSnapshotByCode(headerValues[next++ & (headerValues.length - 1)]);
+    }
+
+    @Benchmark
+    public TenantSnapshot unknownTenantLookup() {
+        return tenantCacheService.getSnapshotByCode(unknownHeaderValues[next++ & (unknownHeaderValues.length - 1)]);
+    }
+
+    @Benchmark
+    public TenantAuthenticationToken tokenFromEntity() {
+        return new TenantAuthenticationToken(tenant);
+    }
+
+    @Benchmark
+    public TenantAuthenticationToken tokenFromSnapshot() {
+        return new TenantAuthenticationToken(snapshot);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> tenantEntityAuthorities() {
+        return tenant.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> userAuthorities() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public String requireTenantResourceCheck() {
+        return securedEndpoint.getOrders();
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.web.application.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.web.application.Application;
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.Taco;
+import com.demo.web.application.service.OrderService;
+
+/**
+ * Orders per second through OrderService against in-memory H2. batchSize=1 is row-by-row inserts;
+ * 50 is the configured JDBC batch. H2 has no network round trip, so the gap here is a lower bound of
+ * what batching (and rewriteBatchedStatements) buys against MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderPersistenceBenchmark {
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    @Param({"3", "20"})
+    public int tacosPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:orders;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        Order order = new Order();
+        order.setName("Bench");
+        order.setStreet("1 Main St");
+        order.setCity("Springfield");
+        order.setState("IL");
+        order.setZip("62701");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/30");
+        order.setCcCVV("123");
+        for (int i = 0; i < tacosPerOrder; i++) {
+            Taco taco = new Taco();
+            taco.setName("Taco " + i);
+            taco.setIngredients(List.of("FLTO", "GRBF", "CHED", "SLSA"));
+            order.addTaco(taco);
+        }
+        return orderService.placeOrder(order, null);
+    }
+}
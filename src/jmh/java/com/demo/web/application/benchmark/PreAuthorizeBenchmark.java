@@ -0,0 +1,107 @@
+package com.demo.web.application.benchmark;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.repository.TenantRepository;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.TenantAuthenticationToken;
+import com.demo.web.application.security.TenantMethodAuthorizationManager;
+import com.demo.web.application.service.TenantCacheProperties;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+import com.demo.web.application.service.invalidation.InProcessTenantInvalidationBus;
+
+/**
+ * @PreAuthorize decision for a tenant request: Spring's SpEL manager vs. TenantMethodAuthorizationManager
+ * (compiled mask check for hasAuthority, memoized decision for a compound expression).
+ * Run with -prof gc for allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreAuthorizeBenchmark {
+
+    private PreAuthorizeAuthorizationManager spel;
+    private TenantMethodAuthorizationManager tenant;
+    private Supplier<Authentication> authentication;
+    private MethodInvocation simple;
+    private MethodInvocation compound;
+
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public void simpleEndpoint() {
+    }
+
+    @PreAuthorize("hasRole('ADMIN') and hasAuthority('READ_ORDERS')")
+    public void compoundEndpoint() {
+    }
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+        List<Role> roles = SyntheticTenants.roles(4, 8);
+        Tenant entity = SyntheticTenants.tenants(1, roles).get(0);
+        Role admin = new Role("ADMIN");
+        admin.addResource(new Resource("READ_ORDERS"));
+        entity.addRole(admin);
+        TenantSnapshot snapshot = TenantSnapshot.compile(entity, authorityRegistry);
+        Authentication token = new TenantAuthenticationToken(snapshot);
+        authentication = () -> token;
+
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        spel = new PreAuthorizeAuthorizationManager();
+        spel.setExpressionHandler(expressionHandler);
+        TenantCacheService cache = new TenantCacheService(mock(TenantRepository.class), authorityRegistry,
+                new InProcessTenantInvalidationBus(), TenantCacheProperties.defaults());
+        tenant = new TenantMethodAuthorizationManager(() -> authorityRegistry, () -> cache, expressionHandler);
+        simple = new SimpleMethodInvocation(this, getClass().getMethod("simpleEndpoint"));
+        compound = new SimpleMethodInvocation(this, getClass().getMethod("compoundEndpoint"));
+    }
+
+    @Benchmark
+    public AuthorizationDecision simpleSpel() {
+        return spel.check(authentication, simple);
+    }
+
+    @Benchmark
+    public AuthorizationDecision simpleCompiled() {
+        return tenant.check(authentication, simple);
+    }
+
+    @Benchmark
+    public AuthorizationDecision compoundSpel() {
+        return spel.check(authentication, compound);
+    }
+
+    @Benchmark
+    public AuthorizationDecision compoundMemoized() {
+        return tenant.check(authentication, compound);
+    }
+}
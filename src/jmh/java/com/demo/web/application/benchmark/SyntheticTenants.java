@@ -0,0 +1,54 @@
+package com.demo.web.application.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.dto.User;
+
+/**
+ * Builds tenant/user graphs with a chosen role and resource fan-out. Roles are shared across
+ * tenants like in the real data (a handful of roles, many tenants).
+ */
+final class SyntheticTenants {
+
+    private SyntheticTenants() {
+    }
+
+    /**
+     * Roles named ROLE0..ROLE(n-2) plus USER last, so "USER" is always granted.
+     */
+    static List<Role> roles(int roleCount, int resourcesPerRole) {
+        List<Role> roles = new ArrayList<>(roleCount);
+        for (int r = 0; r < roleCount; r++) {
+            Role role = new Role(r == roleCount - 1 ? "USER" : "ROLE" + r);
+            for (int i = 0; i < resourcesPerRole; i++) {
+                role.addResource(new Resource("RESOURCE_" + r + "_" + i));
+            }
+            roles.add(role);
+        }
+        return roles;
+    }
+
+    static Tenant tenant(String code, List<Role> roles) {
+        Tenant tenant = new Tenant(code, "Tenant " + code);
+        roles.forEach(tenant::addRole);
+        return tenant;
+    }
+
+    static List<Tenant> tenants(int tenantCount, List<Role> roles) {
+        List<Tenant> tenants = new ArrayList<>(tenantCount);
+        for (int i = 0; i < tenantCount; i++) {
+            tenants.add(tenant("tenant" + i, roles));
+        }
+        return tenants;
+    }
+
+    static User user(List<Role> roles) {
+        User user = new User("bench", "{noop}bench", "Bench User", "Street", "City", "ST", "12345", "555");
+        roles.forEach(user::addRole);
+        return user;
+    }
+}
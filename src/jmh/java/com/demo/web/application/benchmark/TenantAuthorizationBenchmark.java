@@ -0,0 +1,93 @@
+package com.demo.web.application.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.RequireTenantResource;
+import com.demo.web.application.security.TenantAuthenticationToken;
+import com.demo.web.application.security.TenantRequestMetrics;
+import com.demo.web.application.security.TenantResourceRequirementRegistry;
+import com.demo.web.application.service.TenantSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compares the per-request tenant authorization work before and after precompiled snapshots:
+ * building the token from a Tenant entity + string-set role check vs. snapshot token + bit test.
+ * Run with -prof gc to see allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantAuthorizationBenchmark {
+
+    private static final String[] REQUIRED_ROLES = {"ADMIN", "EDITOR", "USER"};
+
+    @Param({"1", "4"})
+    public int roleCount;
+
+    @Param({"8", "32"})
+    public int resourcesPerRole;
+
+    private Tenant tenant;
+    private TenantSnapshot snapshot;
+    private TenantResourceRequirementRegistry requirementRegistry;
+    private Method annotatedMethod;
+    private RequireTenantResource annotation;
+
+    @RequireTenantResource(name = "ORDERS", roles = {"ADMIN", "EDITOR", "USER"})
+    public void annotatedEndpoint() {
+    }
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        tenant = SyntheticTenants.tenant("bench", SyntheticTenants.roles(roleCount, resourcesPerRole));
+        AuthorityRegistry registry = new AuthorityRegistry();
+        snapshot = TenantSnapshot.compile(tenant, registry);
+        requirementRegistry = new TenantResourceRequirementRegistry(registry,
+                new TenantRequestMetrics(new SimpleMeterRegistry(), null, 20, 15, 200));
+        annotatedMethod = TenantAuthorizationBenchmark.class.getMethod("annotatedEndpoint");
+        annotation = annotatedMethod.getAnnotation(RequireTenantResource.class);
+    }
+
+    @Benchmark
+    public boolean legacyTokenAndSetCheck() {
+        TenantAuthenticationToken token = new TenantAuthenticationToken(tenant);
+        Set<String> required = java.util.Arrays.stream(REQUIRED_ROLES)
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .collect(Collectors.toSet());
+        Collection<? extends GrantedAuthority> authorities = token.getAuthorities();
+        Set<String> tenantAuthorities = authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        return required.stream().anyMatch(tenantAuthorities::contains);
+    }
+
+    @Benchmark
+    public boolean snapshotTokenAndMaskCheck() {
+        TenantAuthenticationToken token = new TenantAuthenticationToken(snapshot);
+        return requirementRegistry.getRequirement(annotatedMethod, annotation)
+                .isSatisfiedBy(token.getSnapshot().getAuthorityMask());
+    }
+}
@@ -0,0 +1,94 @@
+package com.demo.web.application.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.TenantQuota;
+import com.demo.web.application.security.TenantRateLimiter;
+import com.demo.web.application.service.TenantSnapshot;
+
+/**
+ * Cost the tenant quota adds to TenantHeaderFilter: quota lookup, in-flight slot, token and release.
+ * tenantCount=1 puts every thread on the same bucket (worst-case CAS contention). Limits are set high
+ * enough that every request is admitted, so this measures the common path. The baseline includes the
+ * clock read the filter already does for its resolution timer. Run with {@code -prof gc} to confirm
+ * nothing is allocated; on a machine with few cores use {@code -t 1} to get the uncontended cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class TenantQuotaBenchmark {
+
+    @Param({"1", "1000"})
+    public int tenantCount;
+
+    private TenantRateLimiter unlimited;
+    private TenantRateLimiter limited;
+    private TenantSnapshot[] snapshots;
+
+    @Setup
+    public void setUp() {
+        List<Role> roles = SyntheticTenants.roles(1, 4);
+        AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+        snapshots = new TenantSnapshot[tenantCount];
+        int i = 0;
+        for (Tenant tenant : SyntheticTenants.tenants(tenantCount, roles)) {
+            snapshots[i++] = TenantSnapshot.compile(tenant, authorityRegistry);
+        }
+        unlimited = new TenantRateLimiter(0, 0, 0, 100_000, 600);
+        limited = new TenantRateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 100_000, 600);
+    }
+
+    @Benchmark
+    public long baseline() {
+        return System.nanoTime() + pick().getCode().length();
+    }
+
+    @Benchmark
+    public long admitUnlimited() {
+        return admit(unlimited, pick(), System.nanoTime());
+    }
+
+    @Benchmark
+    public long admitLimited() {
+        return admit(limited, pick(), System.nanoTime());
+    }
+
+    private TenantSnapshot pick() {
+        return snapshots[ThreadLocalRandom.current().nextInt(snapshots.length)];
+    }
+
+    /**
+     * Same sequence as TenantHeaderFilter for an admitted request.
+     */
+    private static long admit(TenantRateLimiter rateLimiter, TenantSnapshot snapshot, long nowNanos) {
+        TenantQuota quota = rateLimiter.quotaFor(snapshot);
+        if (!quota.tryEnter()) {
+            return -1;
+        }
+        long waitNanos = quota.tryAcquire(nowNanos);
+        quota.exit();
+        return waitNanos;
+    }
+}
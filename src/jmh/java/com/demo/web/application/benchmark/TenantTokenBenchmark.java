@@ -0,0 +1,120 @@
+package com.demo.web.application.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.repository.TenantRepository;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.TenantAuthenticationToken;
+import com.demo.web.application.security.TenantQuota;
+import com.demo.web.application.security.TenantRateLimiter;
+import com.demo.web.application.security.TenantTokenClaims;
+import com.demo.web.application.security.TenantTokenProperties;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.service.TenantCacheProperties;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+import com.demo.web.application.service.invalidation.InProcessTenantInvalidationBus;
+
+/**
+ * Per-request tenant resolution: X-Tenant-ID through the tenant cache vs. a signed tenant token
+ * (HMAC check + decode, then claims without a cache lookup). Both variants end with the tenant's
+ * quota and an authentication token, as in TenantHeaderFilter. Run with -prof gc for allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantTokenBenchmark {
+
+    @Param({"10000"})
+    public int tenantCount;
+
+    /**
+     * true = demand-loaded Caffeine cache (tenant.cache.lazy-load), warmed before measuring.
+     */
+    @Param({"false", "true"})
+    public boolean lazyLoad;
+
+    private TenantCacheService tenantCacheService;
+    private TenantRateLimiter rateLimiter;
+    private TenantTokenService tokenService;
+    private String[] headerValues;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Role> roles = SyntheticTenants.roles(4, 8);
+        List<Tenant> tenants = SyntheticTenants.tenants(tenantCount, roles);
+
+        TenantRepository repository = mock(TenantRepository.class);
+        when(repository.findAllWithRolesAndResources()).thenReturn(tenants);
+        Map<String, Tenant> byCode = tenants.stream().collect(Collectors.toMap(t -> t.getCode().toLowerCase(), t -> t));
+        when(repository.findAllCodes()).thenReturn(List.copyOf(byCode.keySet()));
+        when(repository.findByCodeIn(anyCollection())).thenAnswer(call -> call.<Collection<String>>getArgument(0)
+                .stream().map(byCode::get).filter(Objects::nonNull).toList());
+        AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+        tenantCacheService = new TenantCacheService(repository, authorityRegistry, new InProcessTenantInvalidationBus(),
+                TenantCacheProperties.defaults().withLazyLoad(lazyLoad));
+        tenantCacheService.loadCache();
+        rateLimiter = new TenantRateLimiter(0, 0, 0, 100_000, 600);
+        tokenService = new TenantTokenService(
+                TenantTokenProperties.defaults().withEnabled(Base64.getEncoder().encodeToString(new byte[32])),
+                tenantCacheService, authorityRegistry, rateLimiter);
+
+        // Same tenants both ways; every tenant already has a quota, as after its first request
+        headerValues = new String[1024];
+        tokens = new String[headerValues.length];
+        for (int i = 0; i < headerValues.length; i++) {
+            headerValues[i] = "tenant" + (i * 7919 % tenantCount);
+            TenantSnapshot snapshot = tenantCacheService.getSnapshotByCode(headerValues[i]);
+            rateLimiter.quotaFor(snapshot);
+            tokens[i] = tokenService.issue(snapshot).token();
+        }
+    }
+
+    @Benchmark
+    public TenantAuthenticationToken headerLookup() {
+        TenantSnapshot snapshot = tenantCacheService.getSnapshotByCode(headerValues[next++ & (headerValues.length - 1)]);
+        rateLimiter.quotaFor(snapshot);
+        return new TenantAuthenticationToken(snapshot);
+    }
+
+    @Benchmark
+    public TenantTokenClaims tokenVerify() {
+        return tokenService.verify(tokens[next++ & (tokens.length - 1)]);
+    }
+
+    @Benchmark
+    public TenantAuthenticationToken tokenResolution() {
+        TenantTokenClaims claims = tokenService.verify(tokens[next++ & (tokens.length - 1)]);
+        TenantQuota quota = tokenService.currentQuota(claims);
+        return quota != null ? tokenService.authenticate(claims) : null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.demo.web.application.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.web.application.Application;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantProvisioningService;
+import com.demo.web.application.service.TenantProvisioningService.RoleSpec;
+import com.demo.web.application.service.TenantProvisioningService.TenantSpec;
+
+/**
+ * Load comparison for the virtual-threads profile: a burst of concurrent HTTP requests to
+ * GET /api/orders on the running application (Tomcat, security chain, tenant resolution,
+ * @RequireTenantResource), with Tomcat on its 200-thread pool or on virtual threads. Score is the time
+ * to drain the whole burst.
+ * <p>
+ * The tenant cache runs in lazy mode. With cacheMisses=true every request names a different tenant
+ * and the cache holds only a few, so requests block on a JDBC load; with false they all hit the cache.
+ * The database is in-memory H2 with no network round trip, so the blocking per request is much shorter
+ * than against MySQL and the gap between the thread models is a lower bound. The JDBC pool is 50 in
+ * both runs so only the thread model changes. The HTTP client runs in the same JVM and shares its
+ * cores; run on a machine with several.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int TENANTS = 5000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"200", "1000"})
+    public int inFlightRequests;
+
+    @Param({"false", "true"})
+    public boolean cacheMisses;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientThreads;
+    private HttpClient client;
+    private URI ordersUri;
+    private int nextTenant;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:threads;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.datasource.hikari.maximum-pool-size=50",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--tenant.cache.lazy-load=true",
+                        "--tenant.cache.max-size=64",
+                        "--server.port=0",
+                        // Room for the whole burst to connect (default backlog 100) and keep its connections
+                        "--server.tomcat.accept-count=2000",
+                        "--server.tomcat.max-keep-alive-requests=-1",
+                        "--logging.level.root=WARN");
+        seedTenants();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        ordersUri = URI.create("http://localhost:" + port + "/api/orders");
+        // The client side must not be the bottleneck: one virtual thread per in-flight request
+        clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientThreads)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientThreads.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(inFlightRequests);
+        for (int i = 0; i < inFlightRequests; i++) {
+            HttpRequest request = HttpRequest.newBuilder(ordersUri)
+                    .header("X-Tenant-ID", cacheMisses ? "bench-" + (nextTenant++ % TENANTS) : "gamma")
+                    .GET()
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != inFlightRequests) {
+            throw new IllegalStateException((inFlightRequests - ok) + " of " + inFlightRequests + " requests failed");
+        }
+        return ok;
+    }
+
+    private void seedTenants() {
+        List<TenantSpec> tenants = IntStream.range(0, TENANTS)
+                .mapToObj(i -> new TenantSpec("bench-" + i, null, List.of(RoleSpec.named("USER")), null, null, null))
+                .toList();
+        TenantProvisioningService.Result result = context.getBean(TenantProvisioningService.class).provision(tenants);
+        // The provisioning invalidation makes the new codes known to the lazy cache before provision returns
+        if (result.created() != TENANTS
+                || context.getBean(TenantCacheService.class).getSnapshotByCode("bench-" + (TENANTS - 1)) == null) {
+            throw new IllegalStateException("Benchmark tenants were not provisioned: " + result);
+        }
+    }
+}
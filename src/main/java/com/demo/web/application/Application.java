@@ -2,6 +2,7 @@ package com.demo.web.application;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -10,6 +11,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class Application implements WebMvcConfigurer {
 
 	public static void main(String[] args) throws URISyntaxException {
@@ -0,0 +1,45 @@
+package com.demo.web.application.config;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Removes card data that earlier versions stored in plain text. ddl-auto=update adds cc_last4 but never
+ * drops columns, so here cc_last4 is filled from cc_number, then cc_number and cc_cvv (a verification
+ * code must not be kept at all) are dropped. Idempotent: once the columns are gone the statements fail
+ * and are skipped.
+ */
+@Slf4j
+@Component
+public class CardDataMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CardDataMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void run() {
+        try {
+            int masked = jdbcTemplate.update("update taco_order set cc_last4 = right(cc_number, 4)"
+                    + " where cc_last4 is null and cc_number is not null");
+            log.info("Kept the last four digits of {} stored card numbers", masked);
+        } catch (DataAccessException e) {
+            log.debug("No cc_number column left to mask");
+        }
+        dropColumn("cc_number");
+        dropColumn("cc_cvv");
+    }
+
+    private void dropColumn(String column) {
+        try {
+            jdbcTemplate.execute("alter table taco_order drop column " + column);
+            log.warn("Dropped plain-text card column taco_order.{}", column);
+        } catch (DataAccessException e) {
+            log.debug("taco_order.{} already dropped", column);
+        }
+    }
+}
@@ -1,124 +1,123 @@
 package com.demo.web.application.config;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.demo.web.application.dto.Resource;
-import com.demo.web.application.dto.Role;
-import com.demo.web.application.dto.Tenant;
-import com.demo.web.application.repository.ResourceRepository;
-import com.demo.web.application.repository.RoleRepository;
-import com.demo.web.application.repository.TenantRepository;
-import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.dto.Ingredient;
+import com.demo.web.application.repository.IngredientRepository;
+import com.demo.web.application.service.IngredientCatalog;
+import com.demo.web.application.service.TenantProvisioningService;
+import com.demo.web.application.service.TenantProvisioningService.Result;
+import com.demo.web.application.service.TenantProvisioningService.RoleSpec;
+import com.demo.web.application.service.TenantProvisioningService.TenantSpec;
+
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Seeds roles, resources, sample tenants and taco ingredients on startup. Idempotent: only missing
+ * rows are written. Tenants go through {@link TenantProvisioningService} (a few batched statements
+ * instead of a lookup and a save per row, and a cache invalidation only if something was created);
+ * ingredients are seeded at the same time on a second thread. The tenant cache loads itself.
+ */
+@Slf4j
 @Component
 public class DataInitializer implements CommandLineRunner {
 
-    private final RoleRepository roleRepository;
-    private final ResourceRepository resourceRepository;
-    private final TenantRepository tenantRepository;
-    private final TenantCacheService tenantCacheService;
+    private static final List<String> USER_RESOURCES = List.of("READ_ORDERS", "WRITE_ORDERS", "READ_DESIGN",
+            "WRITE_DESIGN");
+    private static final List<String> ADMIN_RESOURCES = List.of("READ_ORDERS", "WRITE_ORDERS", "DELETE_ORDERS",
+            "READ_USERS", "WRITE_USERS", "DELETE_USERS", "READ_DESIGN", "WRITE_DESIGN");
+    private static final List<String> EDITOR_RESOURCES = List.of("READ_ORDERS", "WRITE_ORDERS", "READ_DESIGN",
+            "WRITE_DESIGN", "READ_USERS");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NaturalKeyMigration naturalKeyMigration;
+    private final CardDataMigration cardDataMigration;
+    private final TenantProvisioningService provisioningService;
+    private final IngredientRepository ingredientRepository;
+    private final IngredientCatalog ingredientCatalog;
 
-    public DataInitializer(RoleRepository roleRepository, ResourceRepository resourceRepository,
-                           TenantRepository tenantRepository, TenantCacheService tenantCacheService) {
-        this.roleRepository = roleRepository;
-        this.resourceRepository = resourceRepository;
-        this.tenantRepository = tenantRepository;
-        this.tenantCacheService = tenantCacheService;
+    public DataInitializer(JdbcTemplate jdbcTemplate, NaturalKeyMigration naturalKeyMigration,
+                           CardDataMigration cardDataMigration, TenantProvisioningService provisioningService,
+                           IngredientRepository ingredientRepository, IngredientCatalog ingredientCatalog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.naturalKeyMigration = naturalKeyMigration;
+        this.cardDataMigration = cardDataMigration;
+        this.provisioningService = provisioningService;
+        this.ingredientRepository = ingredientRepository;
+        this.ingredientCatalog = ingredientCatalog;
     }
 
     @Override
-    @Transactional
     public void run(String... args) {
-        // Migrate existing roles: store without ROLE_ prefix in DB
-        roleRepository.findByName("ROLE_USER").ifPresent(r -> { r.setName("USER"); roleRepository.save(r); });
-        roleRepository.findByName("ROLE_ADMIN").ifPresent(r -> { r.setName("ADMIN"); roleRepository.save(r); });
-        roleRepository.findByName("ROLE_EDITOR").ifPresent(r -> { r.setName("EDITOR"); roleRepository.save(r); });
-
-        // Create resources (permissions) if they don't exist
-        Resource readOrders = getOrCreateResource("READ_ORDERS");
-        Resource writeOrders = getOrCreateResource("WRITE_ORDERS");
-        Resource deleteOrders = getOrCreateResource("DELETE_ORDERS");
-        
-        Resource readUsers = getOrCreateResource("READ_USERS");
-        Resource writeUsers = getOrCreateResource("WRITE_USERS");
-        Resource deleteUsers = getOrCreateResource("DELETE_USERS");
-        
-        Resource readDesign = getOrCreateResource("READ_DESIGN");
-        Resource writeDesign = getOrCreateResource("WRITE_DESIGN");
-
-        // Create USER role with basic permissions (stored without ROLE_ prefix)
-        Role userRole = roleRepository.findByName("USER").orElseGet(() -> {
-            Role role = new Role("USER");
-            role.addResource(readOrders);
-            role.addResource(writeOrders);
-            role.addResource(readDesign);
-            role.addResource(writeDesign);
-            return roleRepository.save(role);
-        });
-
-        // Create ADMIN role with all permissions
-        Role adminRole = roleRepository.findByName("ADMIN").orElseGet(() -> {
-            Role role = new Role("ADMIN");
-            role.addResource(readOrders);
-            role.addResource(writeOrders);
-            role.addResource(deleteOrders);
-            role.addResource(readUsers);
-            role.addResource(writeUsers);
-            role.addResource(deleteUsers);
-            role.addResource(readDesign);
-            role.addResource(writeDesign);
-            return roleRepository.save(role);
-        });
-
-        // Create EDITOR role with limited permissions
-        Role editorRole = roleRepository.findByName("EDITOR").orElseGet(() -> {
-            Role role = new Role("EDITOR");
-            role.addResource(readOrders);
-            role.addResource(writeOrders);
-            role.addResource(readDesign);
-            role.addResource(writeDesign);
-            role.addResource(readUsers);
-            return roleRepository.save(role);
-        });
-
-        // Create tenants with roles (for API X-Tenant-ID header)
-        Tenant tenantAcme = tenantRepository.findByCode("acme").orElseGet(() -> {
-            Tenant t = new Tenant("acme", "Acme Corp");
-            t.addRole(adminRole);
-            return tenantRepository.save(t);
-        });
-        Tenant tenantBeta = tenantRepository.findByCode("beta").orElseGet(() -> {
-            Tenant t = new Tenant("beta", "Beta Inc");
-            t.addRole(editorRole);
-            return tenantRepository.save(t);
-        });
-        Tenant tenantGamma = tenantRepository.findByCode("gamma").orElseGet(() -> {
-            Tenant t = new Tenant("gamma", "Gamma LLC");
-            t.addRole(userRole);
-            return tenantRepository.save(t);
-        });
-
-        Tenant tenantDemo = tenantRepository.findByCode("demo").orElseGet(() -> {
-            Tenant t = new Tenant("demo", "Demo Tenant");
-            t.addRole(userRole);
-            return tenantRepository.save(t);
-        });
+        long startNanos = System.nanoTime();
+        cardDataMigration.run();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Void> ingredients = CompletableFuture.runAsync(this::seedIngredients, executor);
+            seedTenants();
+            ingredients.join();
+        }
+        log.info("Seed data checked in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
 
-        System.out.println("=== Roles and Resources initialized ===");
-        System.out.println("USER resources: " + userRole.getResources());
-        System.out.println("ADMIN resources: " + adminRole.getResources());
-        System.out.println("EDITOR resources: " + editorRole.getResources());
-        System.out.println("=== Tenants (use X-Tenant-ID header) ===");
-        System.out.println("acme -> ADMIN, beta -> EDITOR, gamma -> USER, demo -> USER");
+    private void seedTenants() {
+        // Migrate existing roles: store without ROLE_ prefix in DB. Names are unique once the migration
+        // below has run, so a prefixed row is only renamed if the plain name is free
+        jdbcTemplate.batchUpdate("update roles set name = ? where name = ?"
+                + " and not exists (select 1 from (select name from roles) r where r.name = ?)", List.of(
+                new Object[] {"USER", "ROLE_USER", "USER"},
+                new Object[] {"ADMIN", "ROLE_ADMIN", "ADMIN"},
+                new Object[] {"EDITOR", "ROLE_EDITOR", "EDITOR"}));
+        // Before seeding, so provisioning resolves roles and resources by a name that is unique
+        naturalKeyMigration.run();
+        // Rows from before updated_at existed; the incremental cache refresh compares against it
+        jdbcTemplate.batchUpdate(
+                "update tenants set updated_at = current_timestamp where updated_at is null",
+                "update roles set updated_at = current_timestamp where updated_at is null",
+                "update resources set updated_at = current_timestamp where updated_at is null");
 
-        // Load tenant cache so no DB hit on every API request
-        tenantCacheService.refreshCache();
+        // Roles with their resources (stored without ROLE_ prefix); tenants for the X-Tenant-ID header
+        RoleSpec user = new RoleSpec("USER", USER_RESOURCES);
+        RoleSpec admin = new RoleSpec("ADMIN", ADMIN_RESOURCES);
+        RoleSpec editor = new RoleSpec("EDITOR", EDITOR_RESOURCES);
+        Result result = provisioningService.provision(List.of(
+                new TenantSpec("acme", "Acme Corp", List.of(admin), null, null, null),
+                new TenantSpec("beta", "Beta Inc", List.of(editor), null, null, null),
+                new TenantSpec("gamma", "Gamma LLC", List.of(user), null, null, null),
+                // Low quota so throttling (429) is easy to try
+                new TenantSpec("demo", "Demo Tenant", List.of(user), 5, 10, 2)));
+        if (result.error() != null) {
+            throw new IllegalStateException("Seeding tenants failed: " + result.error());
+        }
+        log.info("Seed tenants: {} created, {} existing, {} roles and {} resources created "
+                        + "(acme -> ADMIN, beta -> EDITOR, gamma -> USER, demo -> USER; use the X-Tenant-ID header)",
+                result.created(), result.existing(), result.rolesCreated(), result.resourcesCreated());
     }
 
-    private Resource getOrCreateResource(String name) {
-        return resourceRepository.findByName(name)
-                .orElseGet(() -> resourceRepository.save(new Resource(name)));
+    /**
+     * The taco ingredients (same rows as data-mysql.sql), on an empty table only.
+     */
+    private void seedIngredients() {
+        if (ingredientRepository.count() == 0) {
+            ingredientRepository.saveAll(List.of(
+                    new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+                    new Ingredient("COTO", "Corn Tortilla", Ingredient.Type.WRAP),
+                    new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN),
+                    new Ingredient("CARN", "Carnitas", Ingredient.Type.PROTEIN),
+                    new Ingredient("TMTO", "Diced Tomatoes", Ingredient.Type.VEGGIES),
+                    new Ingredient("LETC", "Lettuce", Ingredient.Type.VEGGIES),
+                    new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE),
+                    new Ingredient("JACK", "Monterrey Jack", Ingredient.Type.CHEESE),
+                    new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE),
+                    new Ingredient("SRCR", "Sour Cream", Ingredient.Type.SAUCE)));
+            ingredientCatalog.refresh();
+        }
     }
 }
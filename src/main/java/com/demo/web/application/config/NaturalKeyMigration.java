@@ -0,0 +1,88 @@
+package com.demo.web.application.config;
+
+import java.util.List;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brings databases created before tenant codes, role and resource names and usernames were unique up
+ * to the entity mappings. ddl-auto=update cannot add a unique constraint while duplicates exist, so
+ * duplicate roles and resources are merged first (links move to the oldest row, the others are
+ * deleted) and the constraints are added here. Duplicate tenant codes and usernames are different
+ * tenants and users and cannot be merged automatically: they are logged and their constraint stays
+ * missing until resolved by hand. Idempotent; on an up-to-date schema it only runs a few counts.
+ */
+@Slf4j
+@Component
+public class NaturalKeyMigration {
+
+    /**
+     * A join table row: keyColumn points at the table being merged, ownerColumn at the other side.
+     */
+    private record Link(String table, String ownerColumn, String keyColumn) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NaturalKeyMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void run() {
+        mergeDuplicates("roles", "name", List.of(
+                new Link("tenant_roles", "tenant_id", "role_id"),
+                new Link("user_roles", "user_id", "role_id"),
+                new Link("role_resources", "resource_id", "role_id")));
+        mergeDuplicates("resources", "name", List.of(new Link("role_resources", "role_id", "resource_id")));
+        addUniqueKey("tenants", "code", "uk_tenants_code");
+        addUniqueKey("roles", "name", "uk_roles_name");
+        addUniqueKey("resources", "name", "uk_resources_name");
+        addUniqueKey("users", "username", "uk_users_username");
+    }
+
+    private void mergeDuplicates(String table, String column, List<Link> links) {
+        if (duplicates(table, column) == 0) {
+            return;
+        }
+        // Rows whose name an older row already has; the derived table lets MySQL delete from the same table
+        String duplicateIds = "select id from (select t.id from " + table + " t join " + table + " k on k." + column
+                + " = t." + column + " and k.id < t.id) dup";
+        for (Link link : links) {
+            jdbcTemplate.update("insert into " + link.table() + " (" + link.ownerColumn() + ", " + link.keyColumn() + ")"
+                    + " select distinct l." + link.ownerColumn() + ", k.keep_id from " + link.table() + " l"
+                    + " join " + table + " t on t.id = l." + link.keyColumn()
+                    + " join (select " + column + " as name, min(id) as keep_id from " + table + " group by " + column
+                    + ") k on k.name = t." + column
+                    + " where t.id <> k.keep_id and not exists (select 1 from " + link.table() + " x where x."
+                    + link.ownerColumn() + " = l." + link.ownerColumn() + " and x." + link.keyColumn() + " = k.keep_id)");
+            jdbcTemplate.update("delete from " + link.table() + " where " + link.keyColumn() + " in (" + duplicateIds + ")");
+        }
+        int deleted = jdbcTemplate.update("delete from " + table + " where id in (" + duplicateIds + ")");
+        log.warn("Merged {} duplicate {} into the oldest row of each {}", deleted, table, column);
+    }
+
+    private void addUniqueKey(String table, String column, String constraint) {
+        int duplicates = duplicates(table, column);
+        if (duplicates > 0) {
+            log.error("{} {}.{} values are used by more than one row; {} is not added until they are resolved",
+                    duplicates, table, column, constraint);
+            return;
+        }
+        try {
+            jdbcTemplate.execute("alter table " + table + " add constraint " + constraint + " unique (" + column + ")");
+            log.info("Added unique constraint {} on {}.{}", constraint, table, column);
+        } catch (DataAccessException e) {
+            log.debug("Unique constraint {} already present", constraint);
+        }
+    }
+
+    private int duplicates(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from (select " + column + " from " + table
+                + " where " + column + " is not null group by " + column + " having count(*) > 1) d", Integer.class);
+        return count != null ? count : 0;
+    }
+}
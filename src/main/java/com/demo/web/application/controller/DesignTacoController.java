@@ -1,30 +1,31 @@
 package com.demo.web.application.controller;
 
-import com.demo.web.application.dto.Ingredient;
-import com.demo.web.application.dto.Order;
 import com.demo.web.application.dto.Taco;
-import com.demo.web.application.dto.User;
+import com.demo.web.application.security.UserPrincipal;
+import com.demo.web.application.service.DraftOrderStore;
+import com.demo.web.application.service.IngredientCatalog;
+import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Controller
 @RequestMapping("/design")
 @Slf4j
-@SessionAttributes("order")
 public class DesignTacoController {
 
+    private final IngredientCatalog ingredientCatalog;
+    private final DraftOrderStore draftOrders;
 
-    @ModelAttribute(name = "order")
-    public Order order() {
-        return new Order();
+    public DesignTacoController(IngredientCatalog ingredientCatalog, DraftOrderStore draftOrders) {
+        this.ingredientCatalog = ingredientCatalog;
+        this.draftOrders = draftOrders;
     }
+
     @ModelAttribute(name = "taco")
     public Taco taco() {
         return new Taco();
@@ -32,42 +33,20 @@ public class DesignTacoController {
 
     @GetMapping
     public String showDesignForm(Model model) {
-        List<Ingredient> ingredients = Arrays.asList(
-                new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
-                new Ingredient("COTO", "Corn Tortilla", Ingredient.Type.WRAP),
-                new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN),
-                new Ingredient("CARN", "Carnitas", Ingredient.Type.PROTEIN),
-                new Ingredient("TMTO", "Diced Tomatoes", Ingredient.Type.VEGGIES),
-                new Ingredient("LETC", "Lettuce", Ingredient.Type.VEGGIES),
-                new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE),
-                new Ingredient("JACK", "Monterrey Jack", Ingredient.Type.CHEESE),
-                new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE),
-                new Ingredient("SRCR", "Sour Cream", Ingredient.Type.SAUCE)
-        );
-        Ingredient.Type[] types = Ingredient.Type.values();
-        for (Ingredient.Type type : types) {
-            model.addAttribute(type.toString().toLowerCase(),
-                    filterByType(ingredients, type));
-        }
+        // prebuilt per catalog load: one immutable list per ingredient type
+        model.addAllAttributes(ingredientCatalog.designModel());
         model.addAttribute("design", taco());
         return "design";
     }
 
 
     @PostMapping
-    public String processDesign(Taco taco, @AuthenticationPrincipal User user,@ModelAttribute Order order) {
-        // Save the taco design...
-        // We'll do this in chapter 3
+    public String processDesign(Taco taco, @AuthenticationPrincipal UserPrincipal user, HttpSession session) {
         log.info("User: {}",user);
         log.info("Processing design: " + taco);
-        order.addTaco(taco);
-        log.info("Order: {}",order);
+        // the draft order lives server-side; the session only holds its id
+        draftOrders.addTaco(session, taco);
         return "redirect:/orders/current";
     }
 
-
-    private List<Ingredient> filterByType(List<Ingredient> ingredients, Ingredient.Type type) {
-       return ingredients.stream().filter(i-> i.getType().equals(type)).collect(Collectors.toList());
-    }
-
 }
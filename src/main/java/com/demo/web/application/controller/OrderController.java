@@ -1,29 +1,61 @@
 package com.demo.web.application.controller;
 
 import com.demo.web.application.dto.Order;
+import com.demo.web.application.security.UserPrincipal;
+import com.demo.web.application.service.DraftOrderStore;
+import com.demo.web.application.service.OrderIngestionService;
+import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.bind.support.SessionStatus;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Controller
 @Slf4j
 @RequestMapping("/orders")
-@SessionAttributes("order")
 public class OrderController {
 
+    private static final String[] ORDER_FORM_FIELDS = {
+            "name", "street", "city", "state", "zip", "ccNumber", "ccExpiration", "ccCVV"};
+
+    private final OrderIngestionService orderIngestion;
+    private final DraftOrderStore draftOrders;
+
+    public OrderController(OrderIngestionService orderIngestion, DraftOrderStore draftOrders) {
+        this.orderIngestion = orderIngestion;
+        this.draftOrders = draftOrders;
+    }
+
+    /**
+     * The order form fills in delivery and card details only; id, last four digits, timestamps and
+     * tacos are never taken from the request.
+     */
+    @InitBinder("order")
+    void allowOrderFormFields(WebDataBinder binder) {
+        binder.setAllowedFields(ORDER_FORM_FIELDS);
+    }
 
     @GetMapping("/current")
-    public String orderForm(Model model, @ModelAttribute Order order) {
-        model.addAttribute("order", order);
+    public String orderForm(Model model, HttpSession session) {
+        model.addAttribute("order", draftOrders.get(session));
         return "orderForm";
     }
 
     @PostMapping
-    public String processOrder(Order order, SessionStatus sessionStatus){
-       log.info("Order : {}",order);
-       sessionStatus.setComplete();
+    public String processOrder(Order order, @AuthenticationPrincipal UserPrincipal user, HttpSession session){
+       // the form carries delivery and card details; the tacos come from the server-side draft
+       Order draft = draftOrders.get(session);
+       if (draft.getTacos().isEmpty()) {
+           return "redirect:/design";
+       }
+       order.setTacos(draft.getTacos());
+       boolean persisted = orderIngestion.submit(order, user != null ? user.toReference() : null);
+       log.info("Order with {} tacos {}", order.getTacos().size(), persisted ? "placed" : "accepted for write-behind");
+       draftOrders.remove(session);
         return "redirect:/";
     }
 
@@ -0,0 +1,134 @@
+package com.demo.web.application.controller;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.demo.web.application.security.RequireTenantResource;
+import com.demo.web.application.security.TenantAuthenticationToken;
+import com.demo.web.application.security.TenantPrincipal;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.security.TenantTokenService.IssuedToken;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux version of {@link TenantApiController} for the "reactive" profile: same paths, same
+ * responses, same @RequireTenantResource / @PreAuthorize rules. The principal (snapshot or signed
+ * token claims) is taken from the Reactor context.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/api")
+public class ReactiveTenantApiController {
+
+    private final TenantCacheService tenantCacheService;
+    private final TenantTokenService tokenService;
+
+    public ReactiveTenantApiController(TenantCacheService tenantCacheService, TenantTokenService tokenService) {
+        this.tenantCacheService = tenantCacheService;
+        this.tokenService = tokenService;
+    }
+
+    @GetMapping("/orders")
+    @RequireTenantResource(name = "ORDERS", roles = {"ADMIN", "EDITOR", "USER"})
+    public Mono<ResponseEntity<Map<String, Object>>> getOrders(@AuthenticationPrincipal TenantPrincipal tenant) {
+        return Mono.just(ResponseEntity.ok(Map.of(
+            "resource", "orders",
+            "tenant", tenant != null ? tenant.getCode() : "unknown",
+            "message", "Orders list (tenant has required role)"
+        )));
+    }
+
+    @GetMapping("/admin/users")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public Mono<ResponseEntity<Map<String, Object>>> getUsers(@AuthenticationPrincipal TenantPrincipal tenant) {
+        return Mono.just(ResponseEntity.ok(Map.of(
+            "resource", "users",
+            "tenant", tenant != null ? tenant.getCode() : "unknown",
+            "message", "Admin users (tenant has ROLE_ADMIN)"
+        )));
+    }
+
+    @GetMapping("/orders/read")
+    @PreAuthorize("hasAuthority('READ_ORDERS')")
+    public Mono<ResponseEntity<Map<String, Object>>> readOrders(@AuthenticationPrincipal TenantPrincipal tenant) {
+        return Mono.just(ResponseEntity.ok(Map.of(
+            "resource", "orders.read",
+            "tenant", tenant != null ? tenant.getCode() : "unknown",
+            "message", "Read orders (tenant has READ_ORDERS)"
+        )));
+    }
+
+    /**
+     * Current tenant from the Reactor context; reads the snapshot directly (no entity copy).
+     */
+    @GetMapping("/me")
+    public Mono<ResponseEntity<Map<String, Object>>> currentTenant() {
+        return currentSnapshot()
+                .map(tenant -> ResponseEntity.ok(Map.<String, Object>of(
+                    "code", tenant.getCode(),
+                    "displayName", tenant.getDisplayName(),
+                    "roles", tenant.getRoles().stream().map(role -> role.name()).toList()
+                )))
+                .defaultIfEmpty(ResponseEntity.status(403).body(Map.of(
+                    "error", "Provide X-Tenant-ID header"
+                )));
+    }
+
+    /**
+     * Issues a signed tenant token for the current tenant (tenant.token.enabled, else 404). With
+     * tenant.token.required the tenant's client secret must be sent as well.
+     */
+    @PostMapping("/token")
+    public Mono<ResponseEntity<Map<String, Object>>> issueToken(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TenantTokenService.CLIENT_SECRET_HEADER, required = false) String clientSecret) {
+        if (!tokenService.isEnabled()) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return currentSnapshot()
+                .map(tenant -> {
+                    if (!tokenService.mayIssue(tenant, authorization, clientSecret)) {
+                        return ResponseEntity.status(403).body(Map.<String, Object>of(
+                            "error", "Provide the tenant's client secret in " + TenantTokenService.CLIENT_SECRET_HEADER
+                        ));
+                    }
+                    IssuedToken issued = tokenService.issue(tenant);
+                    return ResponseEntity.ok(Map.<String, Object>of(
+                        "token", issued.token(),
+                        "tokenType", "Bearer",
+                        "expiresAt", issued.expiresAt()
+                    ));
+                })
+                .defaultIfEmpty(ResponseEntity.status(403).body(Map.of(
+                    "error", "Provide X-Tenant-ID header"
+                )));
+    }
+
+    /**
+     * The current tenant's snapshot; tokens resolved from signed claims carry none, so it is looked up.
+     */
+    private Mono<TenantSnapshot> currentSnapshot() {
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(SecurityContext::getAuthentication)
+                .filter(TenantAuthenticationToken.class::isInstance)
+                .cast(TenantAuthenticationToken.class)
+                .flatMap(token -> token.getSnapshot() != null
+                        ? Mono.just(token.getSnapshot())
+                        : Mono.fromFuture(tenantCacheService.getSnapshotByCodeAsync(token.getTenantCode())));
+    }
+}
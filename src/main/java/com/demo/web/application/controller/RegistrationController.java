@@ -1,6 +1,7 @@
 package com.demo.web.application.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,7 +13,9 @@ import com.demo.web.application.dto.Role;
 import com.demo.web.application.dto.User;
 import com.demo.web.application.repository.RoleRepository;
 import com.demo.web.application.repository.UserRepository;
+import com.demo.web.application.service.UserDetailsCache;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Controller
 @RequestMapping("/register")
 public class RegistrationController {
@@ -26,6 +29,9 @@ public class RegistrationController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     @GetMapping
     public String registerForm() {
         return "registration";
@@ -41,6 +47,7 @@ public class RegistrationController {
         
         user.addRole(userRole);
         userRepository.save(user);
+        userDetailsCache.evict(user.getUsername());
         
         return "redirect:/";
     }
@@ -2,31 +2,51 @@ package com.demo.web.application.controller;
 
 import java.util.Map;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.demo.web.application.dto.Tenant;
 import com.demo.web.application.security.RequireTenantResource;
 import com.demo.web.application.security.TenantAuthenticationToken;
+import com.demo.web.application.security.TenantPrincipal;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.security.TenantTokenService.IssuedToken;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
 
 /**
  * Sample API that uses tenant from X-Tenant-ID header.
  * Use @RequireTenantResource or @PreAuthorize to validate tenant roles.
+ * The principal is the cached {@link TenantSnapshot}, or the claims of a signed tenant token
+ * (both are a {@link TenantPrincipal}).
  */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/api")
 public class TenantApiController {
 
+    private final TenantCacheService tenantCacheService;
+    private final TenantTokenService tokenService;
+
+    public TenantApiController(TenantCacheService tenantCacheService, TenantTokenService tokenService) {
+        this.tenantCacheService = tenantCacheService;
+        this.tokenService = tokenService;
+    }
+
     /**
      * Uses custom @RequireTenantResource: tenant must have ADMIN, EDITOR, or USER (prefix added at validation).
      */
     @GetMapping("/orders")
     @RequireTenantResource(name = "ORDERS", roles = {"ADMIN", "EDITOR", "USER"})
-    public ResponseEntity<Map<String, Object>> getOrders(@AuthenticationPrincipal Tenant tenant) {
+    public ResponseEntity<Map<String, Object>> getOrders(@AuthenticationPrincipal TenantPrincipal tenant) {
         return ResponseEntity.ok(Map.of(
             "resource", "orders",
             "tenant", tenant != null ? tenant.getCode() : "unknown",
@@ -40,7 +60,7 @@ public class TenantApiController {
      */
     @GetMapping("/admin/users")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<Map<String, Object>> getUsers(@AuthenticationPrincipal Tenant tenant) {
+    public ResponseEntity<Map<String, Object>> getUsers(@AuthenticationPrincipal TenantPrincipal tenant) {
         return ResponseEntity.ok(Map.of(
             "resource", "users",
             "tenant", tenant != null ? tenant.getCode() : "unknown",
@@ -53,7 +73,7 @@ public class TenantApiController {
      */
     @GetMapping("/orders/read")
     @PreAuthorize("hasAuthority('READ_ORDERS')")
-    public ResponseEntity<Map<String, Object>> readOrders(@AuthenticationPrincipal Tenant tenant) {
+    public ResponseEntity<Map<String, Object>> readOrders(@AuthenticationPrincipal TenantPrincipal tenant) {
         return ResponseEntity.ok(Map.of(
             "resource", "orders.read",
             "tenant", tenant != null ? tenant.getCode() : "unknown",
@@ -62,21 +82,62 @@ public class TenantApiController {
     }
 
     /**
-     * Returns current tenant from security context (from X-Tenant-ID header).
+     * Returns current tenant from security context (from X-Tenant-ID header or a signed token).
      */
     @GetMapping("/me")
     public ResponseEntity<Map<String, Object>> currentTenant() {
-        if (!(org.springframework.security.core.context.SecurityContextHolder
-                .getContext().getAuthentication() instanceof TenantAuthenticationToken token)) {
+        TenantSnapshot tenant = currentSnapshot();
+        if (tenant == null) {
             return ResponseEntity.status(403).body(Map.of(
                 "error", "Provide X-Tenant-ID header"
             ));
         }
-        Tenant tenant = token.getTenant();
         return ResponseEntity.ok(Map.of(
             "code", tenant.getCode(),
             "displayName", tenant.getDisplayName(),
-            "roles", tenant.getRoles().stream().map(r -> r.getName()).toList()
+            "roles", tenant.getRoles().stream().map(role -> role.name()).toList()
+        ));
+    }
+
+    /**
+     * Issues a signed tenant token for the current tenant (tenant.token.enabled, else 404). With
+     * tenant.token.required the tenant's client secret must be sent as well.
+     */
+    @PostMapping("/token")
+    public ResponseEntity<Map<String, Object>> issueToken(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = TenantTokenService.CLIENT_SECRET_HEADER, required = false) String clientSecret) {
+        if (!tokenService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        TenantSnapshot tenant = currentSnapshot();
+        if (tenant == null) {
+            return ResponseEntity.status(403).body(Map.of(
+                "error", "Provide X-Tenant-ID header"
+            ));
+        }
+        if (!tokenService.mayIssue(tenant, authorization, clientSecret)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "error", "Provide the tenant's client secret in " + TenantTokenService.CLIENT_SECRET_HEADER
+            ));
+        }
+        IssuedToken issued = tokenService.issue(tenant);
+        return ResponseEntity.ok(Map.of(
+            "token", issued.token(),
+            "tokenType", "Bearer",
+            "expiresAt", issued.expiresAt()
         ));
     }
+
+    /**
+     * The current tenant's snapshot; tokens resolved from signed claims carry none, so it is looked up.
+     */
+    private TenantSnapshot currentSnapshot() {
+        if (!(SecurityContextHolder.getContext().getAuthentication() instanceof TenantAuthenticationToken token)) {
+            return null;
+        }
+        return token.getSnapshot() != null
+                ? token.getSnapshot()
+                : tenantCacheService.getSnapshotByCode(token.getTenantCode());
+    }
 }
@@ -0,0 +1,65 @@
+package com.demo.web.application.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.demo.web.application.security.TenantClientSecrets;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.service.TenantProvisioningService;
+import com.demo.web.application.service.TenantProvisioningService.Result;
+
+/**
+ * Tenant onboarding and client secrets for administrators: a form-login user with the ADMIN role over
+ * HTTP Basic (see SecurityConfig's admin chain), not a tenant header. The bulk body is streamed into
+ * {@link TenantProvisioningService} (JSON array or NDJSON), so its size is not limited by memory.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RestController
+@RequestMapping("/api/admin")
+public class TenantProvisioningController {
+
+    private final TenantProvisioningService provisioningService;
+
+    public TenantProvisioningController(TenantProvisioningService provisioningService) {
+        this.provisioningService = provisioningService;
+    }
+
+    /**
+     * 200 with the counts when the whole body was processed, 400 (same body) if it stopped early;
+     * tenants written before that are kept.
+     */
+    @PostMapping(value = "/tenants/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Result> provision(InputStream body) throws IOException {
+        Result result = provisioningService.provision(body);
+        return result.error() == null ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+    }
+
+    /**
+     * Issues a new client secret for the tenant (needed at /api/token with tenant.token.required),
+     * replacing any previous one. The secret is returned once; only its hash is stored. 404 for an
+     * unknown tenant.
+     */
+    @PostMapping("/tenants/{code}/client-secret")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, String>> issueClientSecret(@PathVariable String code) {
+        String secret = TenantClientSecrets.generate();
+        if (!provisioningService.setClientSecretHash(code, TenantClientSecrets.hash(secret))) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(Map.of("clientSecret", secret, "header", TenantTokenService.CLIENT_SECRET_HEADER));
+    }
+}
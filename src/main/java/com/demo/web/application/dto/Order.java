@@ -1,32 +1,122 @@
 package com.demo.web.application.dto;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToOne;
-import lombok.Data;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
-@Data
+/**
+ * Ids come from a pooled sequence (50 per round trip) rather than IDENTITY, so Hibernate knows the
+ * ids before flushing and can send the order, its tacos and their ingredient links as JDBC batches.
+ * No natural key: equality is identity.
+ * <p>
+ * Card data from the form is not persisted: the number and CVV are transient, and only the last four
+ * digits of the number and the expiry date are stored.
+ */
+@Entity
+@Table(name = "Taco_Order")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
 public class Order {
 
-    @ManyToOne
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "taco_order_seq")
+    @SequenceGenerator(name = "taco_order_seq", sequenceName = "taco_order_seq", allocationSize = 50)
+    // bound from the order form: no setter, so a request cannot point the save at an existing row
+    @Setter(AccessLevel.NONE)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     private User user;
+    @Column(name = "deliveryName")
     private String name;
+    @Column(name = "deliveryStreet")
     private String street;
+    @Column(name = "deliveryCity")
     private String city;
+    @Column(name = "deliveryState")
     private String state;
+    @Column(name = "deliveryZip")
     private String zip;
+    /**
+     * Card number as entered on the form; never stored. Only its last four digits are ({@link #ccLast4}).
+     */
+    @Transient
+    @ToString.Exclude
     private String ccNumber;
+    @ToString.Exclude
     private String ccExpiration;
+    /**
+     * Form binding only: a card verification code must not be stored once the order is taken.
+     */
+    @Transient
+    @ToString.Exclude
     private String ccCVV;
-    private List<Taco> tacos = new ArrayList<>();
+    /**
+     * Last four digits of the card number, enough to show which card was used.
+     */
+    @Column(length = 4)
+    private String ccLast4;
+    private Instant placedAt;
 
-    public void addTaco(Taco taco){
-        this.tacos.add(taco);
-    }
+    /**
+     * Set for orders taken through the write-ahead log, so a replay after a crash can tell which
+     * entries already reached the database.
+     */
+    @Column(unique = true, length = 36)
+    private String ingestKey;
 
+    @OneToMany(cascade = CascadeType.ALL)
+    @JoinTable(
+        name = "Taco_Order_Tacos",
+        joinColumns = @JoinColumn(name = "tacoOrder"),
+        inverseJoinColumns = @JoinColumn(name = "taco")
+    )
+    private List<Taco> tacos = new ArrayList<>();
 
+    public void setCcNumber(String ccNumber) {
+        this.ccNumber = ccNumber;
+        this.ccLast4 = lastFourDigits(ccNumber);
+    }
 
+    /**
+     * Forgets any id, so saving inserts a new row instead of merging over an existing order.
+     */
+    public void clearId() {
+        this.id = null;
+    }
 
+    public void addTaco(Taco taco){
+        this.tacos.add(taco);
+    }
 
+    public static String lastFourDigits(String ccNumber) {
+        if (ccNumber == null) {
+            return null;
+        }
+        String digits = ccNumber.replaceAll("\\D", "");
+        return digits.length() >= 4 ? digits.substring(digits.length() - 4) : null;
+    }
 }
@@ -1,17 +1,22 @@
 package com.demo.web.application.dto;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "resources")
+@Table(name = "resources", uniqueConstraints = @UniqueConstraint(name = "uk_resources_name", columnNames = "name"))
 @Data
 @NoArgsConstructor
 public class Resource implements GrantedAuthority {
@@ -20,8 +25,15 @@ public class Resource implements GrantedAuthority {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(nullable = false)
     private String name;  // e.g., READ_ORDERS, WRITE_ORDERS, DELETE_USERS
 
+    /**
+     * Last modification time; a renamed resource reloads the tenants whose roles hold it.
+     */
+    @UpdateTimestamp
+    private Instant updatedAt;
+
     public Resource(String name) {
         this.name = name;
     }
@@ -30,4 +42,20 @@ public class Resource implements GrantedAuthority {
     public String getAuthority() {
         return name;
     }
+
+    /**
+     * Equal by name, which is also the authority string.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Resource other && name != null && name.equals(other.getName());
+    }
+
+    @Override
+    public int hashCode() {
+        return name != null ? name.hashCode() : 0;
+    }
 }
@@ -1,9 +1,13 @@
 package com.demo.web.application.dto;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.UpdateTimestamp;
+
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -13,11 +17,13 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "roles")
+@Table(name = "roles", uniqueConstraints = @UniqueConstraint(name = "uk_roles_name", columnNames = "name"))
 @Data
 @NoArgsConstructor
 public class Role {
@@ -26,14 +32,22 @@ public class Role {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(nullable = false)
     private String name;  // stored without prefix, e.g. ADMIN, USER, EDITOR
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    /**
+     * Last modification time; the tenant cache uses it to reload only changed tenants.
+     */
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
         name = "role_resources",
         joinColumns = @JoinColumn(name = "role_id"),
         inverseJoinColumns = @JoinColumn(name = "resource_id")
     )
+    @ToString.Exclude
     private Set<Resource> resources = new HashSet<>();
 
     public Role(String name) {
@@ -42,9 +56,34 @@ public class Role {
 
     public void addResource(Resource resource) {
         this.resources.add(resource);
+        touch();
     }
 
     public void removeResource(Resource resource) {
         this.resources.remove(resource);
+        touch();
+    }
+
+    /**
+     * role_resources changes touch the role; see {@link Tenant}.
+     */
+    private void touch() {
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * Equal by name; see {@link Tenant#equals(Object)}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Role other && name != null && name.equals(other.getName());
+    }
+
+    @Override
+    public int hashCode() {
+        return name != null ? name.hashCode() : 0;
     }
 }
@@ -1,11 +1,46 @@
 package com.demo.web.application.dto;
 
-import lombok.Data;
-
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
-@Data
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Ingredients are stored by id in Taco_Ingredients. Pooled sequence ids, see {@link Order}.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
 public class Taco {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "taco_seq")
+    @SequenceGenerator(name = "taco_seq", sequenceName = "taco_seq", allocationSize = 50)
+    @Setter(AccessLevel.NONE)
+    private Long id;
+
     private String name;
-    private List<String> ingredients;
+
+    private Instant createdAt;
+
+    @ElementCollection
+    @CollectionTable(name = "Taco_Ingredients", joinColumns = @JoinColumn(name = "taco"))
+    @Column(name = "ingredient", length = 4)
+    private List<String> ingredients = new ArrayList<>();
 }
@@ -1,13 +1,17 @@
 package com.demo.web.application.dto;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
+import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -17,11 +21,13 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "tenants")
+@Table(name = "tenants", uniqueConstraints = @UniqueConstraint(name = "uk_tenants_code", columnNames = "code"))
 @Data
 @NoArgsConstructor
 public class Tenant {
@@ -31,25 +37,66 @@ public class Tenant {
     private Long id;
 
     /**
-     * Unique tenant code - used in X-Tenant-ID header for API requests.
+     * Unique tenant code - used in X-Tenant-ID header for API requests. Stored normalized
+     * ({@link #normalizeCode(String)}), as lookups are.
      */
+    @Column(nullable = false)
     private String code;
 
     private String displayName;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    /**
+     * API quota; null uses the tenant.quota.* defaults, 0 means unlimited.
+     */
+    private Integer requestsPerSecond;
+
+    /**
+     * Requests that may be sent at once on top of the steady rate (token bucket size).
+     */
+    private Integer burstCapacity;
+
+    private Integer maxConcurrentRequests;
+
+    /**
+     * SHA-256 of the tenant's client secret, required at /api/token when tenant.token.required is on;
+     * null = none issued yet. See TenantClientSecrets.
+     */
+    @Column(length = 64)
+    @ToString.Exclude
+    private String clientSecretHash;
+
+    /**
+     * Last modification time; the tenant cache uses it to reload only changed tenants.
+     */
+    @UpdateTimestamp
+    private Instant updatedAt;
+
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
         name = "tenant_roles",
         joinColumns = @JoinColumn(name = "tenant_id"),
         inverseJoinColumns = @JoinColumn(name = "role_id")
     )
+    @ToString.Exclude
     private Set<Role> roles = new HashSet<>();
 
     public Tenant(String code, String displayName) {
-        this.code = code;
+        this.code = code != null ? normalizeCode(code) : null;
         this.displayName = displayName;
     }
 
+    /**
+     * Trimmed and lower case: "Acme", " acme " and "ACME" are the same tenant. Returns the argument
+     * itself when it is already normalized.
+     */
+    public static String normalizeCode(String code) {
+        return code.toLowerCase(Locale.ROOT).trim();
+    }
+
+    public void setCode(String code) {
+        this.code = code != null ? normalizeCode(code) : null;
+    }
+
     /**
      * Returns all authorities for this tenant: role names + all resources from each role.
      * Used for @PreAuthorize("hasAuthority('ROLE_ORDERS')") and similar checks.
@@ -67,9 +114,42 @@ public class Tenant {
 
     public void addRole(Role role) {
         this.roles.add(role);
+        touch();
     }
 
     public void removeRole(Role role) {
         this.roles.remove(role);
+        touch();
+    }
+
+    /**
+     * A tenant_roles change alone does not make the row dirty, so the incremental cache refresh would
+     * miss it; changing the timestamp does (@UpdateTimestamp then sets the value on flush).
+     */
+    private void touch() {
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * Tenants are equal by normalized code (the natural key, compared the way lookups compare it), not
+     * by @Data's field-by-field comparison: the result does not change when the id is assigned on
+     * persist or when roles or timestamps change, and hashing never walks the roles collection. Codes
+     * are normalized when set, but rows written before that are loaded as stored, so both sides are
+     * normalized here; for a normalized code that allocates nothing. A tenant without a code is only
+     * equal to itself.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        // instanceof + getter rather than getClass()/field so Hibernate proxies compare correctly
+        return o instanceof Tenant other && code != null && other.getCode() != null
+                && normalizeCode(code).equals(normalizeCode(other.getCode()));
+    }
+
+    @Override
+    public int hashCode() {
+        return code != null ? normalizeCode(code).hashCode() : 0;
     }
 }
@@ -0,0 +1,43 @@
+package com.demo.web.application.dto;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One tenant cache invalidation, written by the node that changed the data and polled by the others.
+ */
+@Entity
+@Table(name = "tenant_change_log", indexes = @Index(name = "idx_tenant_change_log_created", columnList = "createdAt"))
+@Data
+@NoArgsConstructor
+public class TenantChangeLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String origin;
+
+    /**
+     * Comma-separated tenant codes; empty means all tenants.
+     */
+    @Column(length = 4000)
+    private String tenantCodes;
+
+    private Instant createdAt;
+
+    public TenantChangeLog(String origin, String tenantCodes) {
+        this.origin = origin;
+        this.tenantCodes = tenantCodes;
+        this.createdAt = Instant.now();
+    }
+}
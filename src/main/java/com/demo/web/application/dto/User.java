@@ -1,6 +1,7 @@
 package com.demo.web.application.dto;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -9,6 +10,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -18,18 +20,25 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = "uk_users_username", columnNames = "username"))
 @Data
 @NoArgsConstructor
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    @Column(nullable = false)
     private String username;
+    @ToString.Exclude
     private String password;
     private String fullname;
     private String street;
@@ -38,14 +47,23 @@ public class User implements UserDetails {
     private String zip;
     private String phoneNumber;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
         inverseJoinColumns = @JoinColumn(name = "role_id")
     )
+    @ToString.Exclude
     private Set<Role> roles = new HashSet<>();
 
+    /**
+     * Authorities computed once from roles; reset whenever roles change.
+     */
+    @Transient
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private transient Set<GrantedAuthority> authorities;
+
     public User(String username, String password, String fullname, String street, String city, String state, String zip, String phone) {
         this.username = username;
         this.fullname = fullname;
@@ -59,6 +77,10 @@ public class User implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
+        Set<GrantedAuthority> cached = this.authorities;
+        if (cached != null) {
+            return cached;
+        }
         Set<GrantedAuthority> authorities = new HashSet<>();
         
         for (Role role : roles) {
@@ -70,15 +92,41 @@ public class User implements UserDetails {
             authorities.addAll(role.getResources());
         }
         
-        return authorities;
+        cached = Collections.unmodifiableSet(authorities);
+        this.authorities = cached;
+        return cached;
+    }
+
+    public void setRoles(Set<Role> roles) {
+        this.roles = roles;
+        this.authorities = null;
     }
 
     public void addRole(Role role) {
         this.roles.add(role);
+        this.authorities = null;
     }
 
     public void removeRole(Role role) {
         this.roles.remove(role);
+        this.authorities = null;
+    }
+
+    /**
+     * Equal by username (unique login name), so a user stays findable in a set across persist and
+     * profile edits.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof User other && username != null && username.equals(other.getUsername());
+    }
+
+    @Override
+    public int hashCode() {
+        return username != null ? username.hashCode() : 0;
     }
 
     @Override
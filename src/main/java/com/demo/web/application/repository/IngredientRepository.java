@@ -0,0 +1,10 @@
+package com.demo.web.application.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.demo.web.application.dto.Ingredient;
+
+@Repository
+public interface IngredientRepository extends JpaRepository<Ingredient, String> {
+}
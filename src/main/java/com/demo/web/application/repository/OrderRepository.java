@@ -0,0 +1,18 @@
+package com.demo.web.application.repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.demo.web.application.dto.Order;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    @Query("select o.ingestKey from Order o where o.ingestKey in :keys")
+    Set<String> findExistingIngestKeys(@Param("keys") Collection<String> keys);
+}
@@ -0,0 +1,27 @@
+package com.demo.web.application.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.demo.web.application.dto.TenantChangeLog;
+
+@Repository
+public interface TenantChangeLogRepository extends JpaRepository<TenantChangeLog, Long> {
+
+    List<TenantChangeLog> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("select coalesce(max(c.id), 0) from TenantChangeLog c")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("delete from TenantChangeLog c where c.createdAt < :before")
+    int deleteOlderThan(@Param("before") Instant before);
+}
@@ -1,13 +1,45 @@
 package com.demo.web.application.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.demo.web.application.dto.Tenant;
 
+/**
+ * Tenant.roles and Role.resources are LAZY; the cache queries below load the whole
+ * tenant -> role -> resource graph with one fetch-join select instead of N+1 selects.
+ */
 @Repository
 public interface TenantRepository extends JpaRepository<Tenant, Long> {
     Optional<Tenant> findByCode(String code);
+
+    @EntityGraph(attributePaths = {"roles", "roles.resources"})
+    @Query("select t from Tenant t")
+    List<Tenant> findAllWithRolesAndResources();
+
+    @EntityGraph(attributePaths = {"roles", "roles.resources"})
+    List<Tenant> findByCodeIn(Collection<String> codes);
+
+    /**
+     * Tenants whose row, or any of whose roles or their resources, changed at or after the given time.
+     * Role and resource link changes touch the owning row (see {@link Tenant#addRole}).
+     */
+    @EntityGraph(attributePaths = {"roles", "roles.resources"})
+    @Query("select distinct t from Tenant t left join t.roles r left join r.resources res "
+            + "where t.updatedAt >= :since or r.updatedAt >= :since or res.updatedAt >= :since")
+    List<Tenant> findChangedSince(@Param("since") Instant since);
+
+    /**
+     * Codes only - cheap way to detect deleted tenants without loading the graph.
+     */
+    @Query("select t.code from Tenant t")
+    List<String> findAllCodes();
 }
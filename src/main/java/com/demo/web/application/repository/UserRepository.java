@@ -1,6 +1,7 @@
 package com.demo.web.application.repository;
 
 import com.demo.web.application.dto.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,5 +9,9 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    /**
+     * Loads the user with roles and their resources in one select (associations are LAZY).
+     */
+    @EntityGraph(attributePaths = {"roles", "roles.resources"})
     Optional<User> findByUsername(String username);
 }
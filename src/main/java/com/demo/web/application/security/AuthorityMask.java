@@ -0,0 +1,106 @@
+package com.demo.web.application.security;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable bitset of authority ids from {@link AuthorityRegistry}.
+ * Membership and "has any of" checks are plain word ANDs - no allocation.
+ * Masks with the same bits are equal, so a mask can key a map.
+ */
+public final class AuthorityMask {
+
+    public static final AuthorityMask EMPTY = new AuthorityMask(new long[0]);
+
+    private final long[] words;
+
+    private AuthorityMask(long[] words) {
+        this.words = words;
+    }
+
+    public static AuthorityMask of(BitSet bits) {
+        return bits.isEmpty() ? EMPTY : new AuthorityMask(bits.toLongArray());
+    }
+
+    /**
+     * Wraps words as produced by {@link #words()} (no trailing zero words); the array is not copied.
+     */
+    static AuthorityMask ofWords(long[] words) {
+        return words.length == 0 ? EMPTY : new AuthorityMask(words);
+    }
+
+    public static AuthorityMask of(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            if (id >= 0) {
+                bits.set(id);
+            }
+        }
+        return of(bits);
+    }
+
+    public boolean contains(int id) {
+        int word = id >>> 6;
+        return id >= 0 && word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * True if this mask shares at least one authority with the other mask.
+     */
+    public boolean intersects(AuthorityMask other) {
+        long[] a = words;
+        long[] b = other.words;
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if every authority of the other mask is also in this mask.
+     */
+    public boolean containsAll(AuthorityMask other) {
+        long[] a = words;
+        long[] b = other.words;
+        for (int i = 0; i < b.length; i++) {
+            long mine = i < a.length ? a[i] : 0L;
+            if ((b[i] & ~mine) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    public BitSet toBitSet() {
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Backing words; do not modify.
+     */
+    long[] words() {
+        return words;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof AuthorityMask mask && Arrays.equals(words, mask.words));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return toBitSet().toString();
+    }
+}
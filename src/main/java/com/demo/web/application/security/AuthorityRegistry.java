@@ -0,0 +1,154 @@
+package com.demo.web.application.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Global authority dictionary: interns authority names (ROLE_ADMIN, READ_ORDERS, ...) into dense int ids.
+ * Each id maps to one shared GrantedAuthority instance, so cached tenants reuse the same authority
+ * objects and role checks become bitmask tests (see {@link AuthorityMask}).
+ * <p>
+ * Roles and role combinations are interned the same way ({@link InternedRole}, {@link RoleSet}), so
+ * thousands of tenants with the same USER/EDITOR/ADMIN roles share one immutable copy of them. A role
+ * whose resources change becomes a new entry; old entries are not removed (there are only as many
+ * as distinct role definitions ever seen).
+ */
+@Component
+public class AuthorityRegistry {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private final Map<String, Integer> idByName = new ConcurrentHashMap<>();
+
+    /**
+     * id -> shared authority. Replaced (never mutated in place for published ids) when it grows.
+     */
+    private volatile GrantedAuthority[] authorities = new GrantedAuthority[64];
+
+    private int size;
+
+    private final Map<RoleKey, InternedRole> roles = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRoleId = new AtomicInteger();
+    private final Map<BitSet, RoleSet> roleSets = new ConcurrentHashMap<>();
+    private final Map<AuthorityMask, List<GrantedAuthority>> authorityLists = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the id for the authority name, assigning a new one on first sight.
+     */
+    public int register(String authority) {
+        Integer id = idByName.get(authority);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = idByName.get(authority);
+            if (id != null) {
+                return id;
+            }
+            int next = size;
+            GrantedAuthority[] current = authorities;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, next * 2);
+            }
+            current[next] = new SimpleGrantedAuthority(authority);
+            authorities = current;
+            size = next + 1;
+            idByName.put(authority, next);
+            return next;
+        }
+    }
+
+    /**
+     * Returns the id for an already registered authority name, or -1 if it was never registered.
+     */
+    public int idOf(String authority) {
+        Integer id = idByName.get(authority);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the shared authority instance for a registered id.
+     */
+    public GrantedAuthority authority(int id) {
+        return authorities[id];
+    }
+
+    public int size() {
+        return idByName.size();
+    }
+
+    /**
+     * Returns the shared role for this name and set of resource names.
+     */
+    public InternedRole internRole(String name, Collection<String> resourceNames) {
+        BitSet resourceIds = new BitSet();
+        for (String resourceName : resourceNames) {
+            if (resourceName != null) {
+                resourceIds.set(register(resourceName));
+            }
+        }
+        return roles.computeIfAbsent(new RoleKey(name, resourceIds), key -> {
+            List<GrantedAuthority> resources = new ArrayList<>(resourceIds.cardinality());
+            resourceIds.stream().forEach(id -> resources.add(authority(id)));
+            return new InternedRole(nextRoleId.getAndIncrement(), name, Collections.unmodifiableList(resources));
+        });
+    }
+
+    /**
+     * Returns the shared role set for these roles, with authorities (ROLE_ names + resources) and mask
+     * precomputed.
+     */
+    public RoleSet internRoleSet(Collection<InternedRole> roleList) {
+        BitSet roleIds = new BitSet();
+        roleList.forEach(role -> roleIds.set(role.id()));
+        return roleSets.computeIfAbsent(roleIds, key -> {
+            BitSet authorityIds = new BitSet();
+            List<InternedRole> sorted = new ArrayList<>(roleList);
+            sorted.sort((a, b) -> Integer.compare(a.id(), b.id()));
+            for (InternedRole role : sorted) {
+                if (role.name() != null) {
+                    authorityIds.set(register(roleAuthority(role.name())));
+                }
+                role.resources().forEach(resource -> authorityIds.set(idOf(resource.getAuthority())));
+            }
+            List<GrantedAuthority> authorityList = new ArrayList<>(authorityIds.cardinality());
+            authorityIds.stream().forEach(id -> authorityList.add(authority(id)));
+            return new RoleSet(roleIds.stream().toArray(), Collections.unmodifiableList(sorted),
+                    Collections.unmodifiableList(authorityList), AuthorityMask.of(authorityIds));
+        });
+    }
+
+    /**
+     * Shared, unmodifiable authority list for a mask of registered ids (e.g. from a signed tenant token),
+     * built once per distinct mask.
+     */
+    public List<GrantedAuthority> authoritiesOf(AuthorityMask mask) {
+        return authorityLists.computeIfAbsent(mask, key -> {
+            BitSet ids = key.toBitSet();
+            List<GrantedAuthority> list = new ArrayList<>(ids.cardinality());
+            ids.stream().forEach(id -> list.add(authority(id)));
+            return Collections.unmodifiableList(list);
+        });
+    }
+
+    /**
+     * DB role names are stored without prefix (ADMIN, USER); Spring Security expects ROLE_ADMIN.
+     */
+    public static String roleAuthority(String roleName) {
+        return roleName.startsWith(ROLE_PREFIX) ? roleName : ROLE_PREFIX + roleName;
+    }
+
+    private record RoleKey(String name, BitSet resourceIds) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.demo.web.application.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt encoder that runs encode/matches on a dedicated pool (one thread per core by default) with a
+ * bounded queue. When the queue is full the call fails fast with {@link PasswordHashingUnavailableException}
+ * (503) instead of letting a login burst occupy every request thread.
+ * <p>
+ * The calling thread still waits for its hash (the PasswordEncoder API is synchronous), but at most
+ * the configured timeout. A caller that times out or is interrupted cancels its task: a queued task
+ * is removed from the queue and never run; one already hashing finishes (BCrypt does not check for interrupts) but its
+ * result is dropped.
+ * <p>
+ * {@link #upgradeEncoding(String)} reports hashes with a lower cost than configured, so Spring Security
+ * rehashes them on the next successful login via UserDetailsPasswordService.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        this(new BCryptPasswordEncoder(strength), threads, queueCapacity, timeoutMillis);
+    }
+
+    BoundedPasswordEncoder(BCryptPasswordEncoder delegate, int threads, int queueCapacity, long timeoutMillis) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Cheap: only parses the cost from the hash prefix
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingUnavailableException("Password hashing is saturated, retry later", e);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            cancel(future);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for password hashing", e);
+        } catch (TimeoutException e) {
+            cancel(future);
+            throw new PasswordHashingUnavailableException("Password hashing is too slow, retry later", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void cancel(Future<?> future) {
+        future.cancel(true);
+        // Frees the queue slot now instead of when a worker reaches the cancelled task
+        if (future instanceof Runnable queued) {
+            executor.remove(queued);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.demo.web.application.security;
+
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Detached, immutable role as held by the tenant cache: one instance per distinct role definition
+ * (name + resources), shared by every tenant that has it. See {@link AuthorityRegistry#internRole}.
+ *
+ * @param id        dense id within the registry
+ * @param name      role name as stored (USER, ADMIN, ...), may be null for legacy rows
+ * @param resources shared resource authorities of this role
+ */
+public record InternedRole(int id, String name, List<GrantedAuthority> resources) {
+}
@@ -0,0 +1,26 @@
+package com.demo.web.application.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * The password encoder shared by the servlet and reactive security configurations, so both hash with
+ * security.password.bcrypt-strength on the same bounded pool.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    /**
+     * BCrypt on a dedicated bounded pool; see {@link BoundedPasswordEncoder}.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength,
+                                           @Value("${security.password.hashing-threads:0}") int threads,
+                                           @Value("${security.password.hashing-queue:64}") int queueCapacity,
+                                           @Value("${security.password.hashing-timeout-ms:5000}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, timeoutMillis);
+    }
+}
@@ -0,0 +1,156 @@
+package com.demo.web.application.security;
+
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authorization.method.AuthorizationManagerAfterReactiveMethodInterceptor;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeReactiveMethodInterceptor;
+import org.springframework.security.authorization.method.PostAuthorizeReactiveAuthorizationManager;
+import org.springframework.security.authorization.method.PostFilterAuthorizationReactiveMethodInterceptor;
+import org.springframework.security.authorization.method.PreFilterAuthorizationReactiveMethodInterceptor;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.util.function.SingletonSupplier;
+
+import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.TenantCacheService;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Security for the reactive deployment mode (profile "reactive", which sets
+ * spring.main.web-application-type=reactive). Only the tenant API is served: the same stateless
+ * rules as the servlet API chain in {@link SecurityConfig}, with {@link TenantHeaderWebFilter} in
+ * place of {@link TenantHeaderFilter}. @PreAuthorize is enforced by {@link TenantMethodAuthorizationManager}
+ * through the reactive method interceptors published here (in place of @EnableReactiveMethodSecurity),
+ * @RequireTenantResource by {@link RequireTenantResourceAspect}.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import(PasswordEncoderConfig.class)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    @Order(1)
+    public SecurityWebFilterChain apiSecurityWebFilterChain(ServerHttpSecurity http,
+                                                            TenantCacheService tenantCacheService,
+                                                            TenantRequestMetrics metrics,
+                                                            TenantRateLimiter rateLimiter,
+                                                            TenantTokenService tokenService) {
+        http
+            .securityMatcher(ServerWebExchangeMatchers.pathMatchers("/api/**"))
+            .authorizeExchange(exchanges -> exchanges
+                .anyExchange().permitAll()
+            )
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN))
+            )
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .requestCache(ServerHttpSecurity.RequestCacheSpec::disable)
+            .anonymous(ServerHttpSecurity.AnonymousSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .logout(ServerHttpSecurity.LogoutSpec::disable)
+            .addFilterAt(new TenantHeaderWebFilter(tenantCacheService, metrics, rateLimiter, tokenService),
+                    SecurityWebFiltersOrder.AUTHENTICATION);
+
+        return http.build();
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeReactiveMethodInterceptor(ObjectProvider<AuthorityRegistry> authorityRegistry,
+                                                         ObjectProvider<TenantCacheService> tenantCacheService,
+                                                         ApplicationContext context) {
+        return AuthorizationManagerBeforeReactiveMethodInterceptor.preAuthorize(new TenantMethodAuthorizationManager(
+                SingletonSupplier.of(authorityRegistry::getObject), SingletonSupplier.of(tenantCacheService::getObject),
+                TenantMethodAuthorizationManager.expressionHandler(context)));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postAuthorizeReactiveMethodInterceptor(ApplicationContext context) {
+        return AuthorizationManagerAfterReactiveMethodInterceptor.postAuthorize(
+                new PostAuthorizeReactiveAuthorizationManager(TenantMethodAuthorizationManager.expressionHandler(context)));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preFilterReactiveMethodInterceptor(ApplicationContext context) {
+        return new PreFilterAuthorizationReactiveMethodInterceptor(TenantMethodAuthorizationManager.expressionHandler(context));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postFilterReactiveMethodInterceptor(ApplicationContext context) {
+        return new PostFilterAuthorizationReactiveMethodInterceptor(TenantMethodAuthorizationManager.expressionHandler(context));
+    }
+
+    /**
+     * Actuator, as in the servlet mode: health is open, the rest needs a user with the ADMIN role over
+     * HTTP Basic. Users come from the same tables as the servlet form login.
+     */
+    @Bean
+    @Order(2)
+    public SecurityWebFilterChain actuatorSecurityWebFilterChain(ServerHttpSecurity http,
+                                                                 CustomUserDetailsService userDetailsService,
+                                                                 PasswordEncoder passwordEncoder) {
+        // JPA lookup is blocking: keep it off the event loop. The manager checks the password on
+        // boundedElastic, where the bounded encoder waits for its hashing pool.
+        ReactiveUserDetailsService users = username -> Mono
+                .fromCallable(() -> userDetailsService.loadUserByUsername(username))
+                .subscribeOn(Schedulers.boundedElastic());
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(users);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        http
+            .securityMatcher(ServerWebExchangeMatchers.pathMatchers("/actuator/**"))
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .anyExchange().hasRole("ADMIN")
+            )
+            .httpBasic(basic -> basic.authenticationManager(authenticationManager))
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .requestCache(ServerHttpSecurity.RequestCacheSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .logout(ServerHttpSecurity.LogoutSpec::disable);
+
+        return http.build();
+    }
+
+    /**
+     * Everything else is open, as in the servlet mode's default chain; there is no login.
+     */
+    @Bean
+    @Order(3)
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        http
+            .authorizeExchange(exchanges -> exchanges
+                .anyExchange().permitAll()
+            )
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable);
+
+        return http.build();
+    }
+}
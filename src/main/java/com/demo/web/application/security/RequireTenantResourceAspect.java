@@ -1,60 +1,110 @@
 package com.demo.web.application.security;
 
-import java.util.Arrays;
-import java.util.Collection;
+import java.lang.reflect.Method;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import reactor.core.publisher.Mono;
+
 /**
  * Enforces @RequireTenantResource: validates that the current tenant (from X-Tenant-ID header)
- * has at least one of the required roles.
+ * has at least one of the required roles. Methods returning {@link Mono} (the reactive API) are
+ * checked against the Reactor context when the result is subscribed to.
+ * The annotation is compiled once per method by {@link TenantResourceRequirementRegistry}; on a class
+ * it applies to every method that does not carry its own.
  */
 @Aspect
 @Component
 public class RequireTenantResourceAspect {
 
+    private final TenantResourceRequirementRegistry requirementRegistry;
+
+    public RequireTenantResourceAspect(TenantResourceRequirementRegistry requirementRegistry) {
+        this.requirementRegistry = requirementRegistry;
+    }
+
     @Around("@annotation(requireTenantResource)")
     public Object checkTenantResource(ProceedingJoinPoint joinPoint, RequireTenantResource requireTenantResource)
             throws Throwable {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return check(joinPoint, requireTenantResource);
+    }
+
+    @Around("execution(* *(..)) && @within(requireTenantResource) "
+            + "&& !@annotation(com.demo.web.application.security.RequireTenantResource)")
+    public Object checkClassTenantResource(ProceedingJoinPoint joinPoint, RequireTenantResource requireTenantResource)
+            throws Throwable {
+        return check(joinPoint, requireTenantResource);
+    }
+
+    private Object check(ProceedingJoinPoint joinPoint, RequireTenantResource requireTenantResource)
+            throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        TenantResourceRequirement requirement = requirementRegistry.getRequirement(method, requireTenantResource);
 
+        if (Mono.class.isAssignableFrom(method.getReturnType())) {
+            // Reactive controllers: the tenant is in the Reactor context, checked on subscription
+            return ReactiveSecurityContextHolder.getContext()
+                    .map(context -> Optional.ofNullable(context.getAuthentication()))
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(auth -> {
+                        check(auth.orElse(null), requirement);
+                        return proceed(joinPoint);
+                    });
+        }
+
+        check(SecurityContextHolder.getContext().getAuthentication(), requirement);
+        return joinPoint.proceed();
+    }
+
+    private void check(Authentication auth, TenantResourceRequirement requirement) {
         if (auth == null || !auth.isAuthenticated()) {
             throw new TenantAccessDeniedException("No tenant context. Provide X-Tenant-ID header.");
         }
 
-        if (!(auth instanceof TenantAuthenticationToken)) {
+        if (!(auth instanceof TenantAuthenticationToken token)) {
             throw new TenantAccessDeniedException("Tenant context required. Provide X-Tenant-ID header.");
         }
 
-        // Normalize: annotation uses DB role names (ADMIN, USER); add ROLE_ prefix for comparison
-        Set<String> requiredAuthorities = Arrays.stream(requireTenantResource.roles())
-                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
-                .collect(Collectors.toSet());
-
-        Collection<? extends GrantedAuthority> authorities = auth.getAuthorities();
-        Set<String> tenantAuthorities = authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toSet());
-
-        boolean hasRole = requiredAuthorities.stream().anyMatch(tenantAuthorities::contains);
+        AuthorityMask mask = token.getAuthorityMask();
+        boolean hasRole = mask != null
+                ? requirement.isSatisfiedBy(mask)
+                : requirement.isSatisfiedBy(auth.getAuthorities());
+        requirement.recordDecision(hasRole);
 
         if (!hasRole) {
-            String resourceName = requireTenantResource.name().isEmpty()
-                    ? joinPoint.getSignature().toShortString()
-                    : requireTenantResource.name();
-            throw new TenantAccessDeniedException(
-                    "Tenant does not have required role for resource '" + resourceName + "'. " +
-                    "Required one of: " + requiredAuthorities + ", tenant has: " + tenantAuthorities);
+            throw denied(requirement, auth);
         }
+    }
 
-        return joinPoint.proceed();
+    @SuppressWarnings("unchecked")
+    private static Mono<Object> proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return (Mono<Object>) joinPoint.proceed();
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+
+    /**
+     * Builds the descriptive message - only runs on denial.
+     */
+    private TenantAccessDeniedException denied(TenantResourceRequirement requirement, Authentication auth) {
+        Set<String> tenantAuthorities = auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        return new TenantAccessDeniedException(
+                "Tenant does not have required role for resource '" + requirement.getResourceName() + "'. " +
+                "Required one of: " + requirement + ", tenant has: " + tenantAuthorities);
     }
 }
@@ -0,0 +1,48 @@
+package com.demo.web.application.security;
+
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Immutable, interned combination of roles with everything a request needs precomputed: the flattened
+ * authority list (ROLE_ names + resources) and its {@link AuthorityMask}. Tenants with the same roles
+ * share one instance (see {@link AuthorityRegistry#internRoleSet}), so a cached tenant carries a
+ * single reference instead of its own role/resource graph.
+ */
+public final class RoleSet {
+
+    private final int[] roleIds;
+    private final List<InternedRole> roles;
+    private final List<GrantedAuthority> authorities;
+    private final AuthorityMask authorityMask;
+
+    RoleSet(int[] roleIds, List<InternedRole> roles, List<GrantedAuthority> authorities, AuthorityMask authorityMask) {
+        this.roleIds = roleIds;
+        this.roles = roles;
+        this.authorities = authorities;
+        this.authorityMask = authorityMask;
+    }
+
+    /**
+     * Sorted role ids; do not modify.
+     */
+    public int[] getRoleIds() {
+        return roleIds;
+    }
+
+    public List<InternedRole> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Shared, unmodifiable authority list.
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public AuthorityMask getAuthorityMask() {
+        return authorityMask;
+    }
+}
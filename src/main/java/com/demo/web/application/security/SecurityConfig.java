@@ -1,22 +1,45 @@
 package com.demo.web.application.security;
 
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.method.AuthorizationManagerAfterMethodInterceptor;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.PostAuthorizeAuthorizationManager;
+import org.springframework.security.authorization.method.PostFilterAuthorizationMethodInterceptor;
+import org.springframework.security.authorization.method.PreFilterAuthorizationMethodInterceptor;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.context.NullSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.util.function.SingletonSupplier;
 
 import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.TenantCacheService;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity(prePostEnabled = true)
+@EnableMethodSecurity(prePostEnabled = false)
+@Import(PasswordEncoderConfig.class)
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
@@ -27,29 +50,171 @@ public class SecurityConfig {
         this.tenantHeaderFilter = tenantHeaderFilter;
     }
 
+    /**
+     * Tenant administration (/api/admin/tenants/**, provisioning): needs a form-login user with the
+     * ADMIN role, sent with HTTP Basic. The tenant header filter does not run here - X-Tenant-ID is not
+     * a credential, so an admin tenant header alone gets 403.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain tenantAdminSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/api/admin/tenants/**")
+            .authorizeHttpRequests(auth -> auth
+                .anyRequest().hasRole("ADMIN")
+            )
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new Http403ForbiddenEntryPoint())
+            )
+            .csrf(AbstractHttpConfigurer::disable)
+            .requestCache(AbstractHttpConfigurer::disable)
+            .anonymous(AbstractHttpConfigurer::disable)
+            .logout(AbstractHttpConfigurer::disable);
+
+        return http.build();
+    }
+
+    /**
+     * Stateless chain for /api/**: tenant comes from X-Tenant-ID on every request, so there is no
+     * HttpSession, no context persistence, no CSRF/request cache/form login. Authorization is done by
+     * @RequireTenantResource and @PreAuthorize on the controller methods.
+     */
+    @Bean
+    @Order(2)
+    public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/api/**")
+            .authorizeHttpRequests(auth -> auth
+                .anyRequest().permitAll()
+            )
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .securityContext(context -> context
+                .securityContextRepository(new NullSecurityContextRepository())
+            )
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new Http403ForbiddenEntryPoint())
+            )
+            .csrf(AbstractHttpConfigurer::disable)
+            .requestCache(AbstractHttpConfigurer::disable)
+            .anonymous(AbstractHttpConfigurer::disable)
+            .logout(AbstractHttpConfigurer::disable)
+            .addFilterAfter(tenantHeaderFilter, SecurityContextHolderFilter.class);
+
+        return http.build();
+    }
+
+    /**
+     * Actuator: health (liveness/readiness probes) stays open; metrics and prometheus expose tenant
+     * traffic and need a form-login user with the ADMIN role, sent with HTTP Basic by the scraper.
+     */
+    @Bean
+    @Order(3)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/actuator/**")
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .anyRequest().hasRole("ADMIN")
+            )
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .csrf(AbstractHttpConfigurer::disable)
+            .requestCache(AbstractHttpConfigurer::disable)
+            .logout(AbstractHttpConfigurer::disable);
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(4)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/orders", "/design").hasRole("USER")
-                .requestMatchers("/api/**").permitAll()
                 .requestMatchers("/", "/**").permitAll()
             )
             .formLogin(form -> form
                 .loginPage("/login")
+                .failureHandler(loginFailureHandler())
                 .permitAll()
             )
             .logout(logout -> logout
                 .logoutSuccessUrl("/")
-            )
-            .addFilterBefore(tenantHeaderFilter, UsernamePasswordAuthenticationFilter.class);
+            );
 
         return http.build();
     }
 
+    /**
+     * @PreAuthorize through {@link TenantMethodAuthorizationManager}. prePostEnabled is off so Spring
+     * does not register its own SpEL-only interceptors; the pre/post interceptors are published here.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeMethodInterceptor(ObjectProvider<AuthorityRegistry> authorityRegistry,
+                                                 ObjectProvider<TenantCacheService> tenantCacheService,
+                                                 ApplicationContext context) {
+        return AuthorizationManagerBeforeMethodInterceptor.preAuthorize(new TenantMethodAuthorizationManager(
+                SingletonSupplier.of(authorityRegistry::getObject), SingletonSupplier.of(tenantCacheService::getObject),
+                TenantMethodAuthorizationManager.expressionHandler(context)));
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postAuthorizeMethodInterceptor(ApplicationContext context) {
+        PostAuthorizeAuthorizationManager manager = new PostAuthorizeAuthorizationManager();
+        manager.setExpressionHandler(TenantMethodAuthorizationManager.expressionHandler(context));
+        return AuthorizationManagerAfterMethodInterceptor.postAuthorize(manager);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preFilterMethodInterceptor(ApplicationContext context) {
+        PreFilterAuthorizationMethodInterceptor interceptor = new PreFilterAuthorizationMethodInterceptor();
+        interceptor.setExpressionHandler(TenantMethodAuthorizationManager.expressionHandler(context));
+        return interceptor;
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postFilterMethodInterceptor(ApplicationContext context) {
+        PostFilterAuthorizationMethodInterceptor interceptor = new PostFilterAuthorizationMethodInterceptor();
+        interceptor.setExpressionHandler(TenantMethodAuthorizationManager.expressionHandler(context));
+        return interceptor;
+    }
+
+    /**
+     * TenantHeaderFilter is a bean, so Boot would also register it as a plain servlet filter for every
+     * request; it must only run inside the API security chain.
+     */
+    @Bean
+    public FilterRegistrationBean<TenantHeaderFilter> tenantHeaderFilterRegistration() {
+        FilterRegistrationBean<TenantHeaderFilter> registration = new FilterRegistrationBean<>(tenantHeaderFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Saturated hashing pool -> 503 with Retry-After; bad credentials -> back to the login page.
+     */
+    private AuthenticationFailureHandler loginFailureHandler() {
+        AuthenticationFailureHandler defaultHandler = new SimpleUrlAuthenticationFailureHandler("/login?error");
+        return (request, response, exception) -> {
+            if (exception instanceof PasswordHashingUnavailableException) {
+                response.setHeader("Retry-After", "1");
+                response.sendError(503, exception.getMessage());
+                return;
+            }
+            defaultHandler.onAuthenticationFailure(request, response, exception);
+        };
     }
 
     @Bean
@@ -1,32 +1,76 @@
 package com.demo.web.application.security;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 
 import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.service.TenantSnapshot;
 
 /**
  * Authentication token holding the current tenant (from X-Tenant-ID header).
  * Used so @PreAuthorize("hasAuthority('ROLE_ORDERS')") evaluates against tenant's roles.
+ * When built from a {@link TenantSnapshot}, the snapshot's shared authority list is reused (no copy)
+ * and no entity is held; {@link #getTenant()} then builds a detached copy on demand.
+ * When built from the {@link TenantTokenClaims} of a signed token there is neither a snapshot nor an
+ * entity: the principal is the claims and the authorities are the registry's list for their mask.
  */
 public class TenantAuthenticationToken extends AbstractAuthenticationToken {
 
     private final Tenant tenant;
+    private final TenantSnapshot snapshot;
+    private final TenantTokenClaims claims;
+    private final List<GrantedAuthority> claimsAuthorities;
+
+    public TenantAuthenticationToken(TenantSnapshot snapshot) {
+        super(null);
+        this.tenant = null;
+        this.snapshot = snapshot;
+        this.claims = null;
+        this.claimsAuthorities = null;
+        setAuthenticated(true);
+    }
+
+    /**
+     * Token for verified claims; the shared authority list is used as is.
+     */
+    public TenantAuthenticationToken(TenantTokenClaims claims, List<GrantedAuthority> authorities) {
+        super(null);
+        this.tenant = null;
+        this.snapshot = null;
+        this.claims = claims;
+        this.claimsAuthorities = authorities;
+        setAuthenticated(true);
+    }
 
     public TenantAuthenticationToken(Tenant tenant) {
         super(tenant.getAuthorities());
         this.tenant = tenant;
+        this.snapshot = null;
+        this.claims = null;
+        this.claimsAuthorities = null;
         setAuthenticated(true);
     }
 
     public TenantAuthenticationToken(Tenant tenant, Collection<? extends GrantedAuthority> authorities) {
         super(authorities);
         this.tenant = tenant;
+        this.snapshot = null;
+        this.claims = null;
+        this.claimsAuthorities = null;
         setAuthenticated(true);
     }
 
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        if (snapshot != null) {
+            return snapshot.getAuthorities();
+        }
+        return claims != null ? claimsAuthorities : super.getAuthorities();
+    }
+
     @Override
     public Object getCredentials() {
         return null;
@@ -34,10 +78,56 @@ public class TenantAuthenticationToken extends AbstractAuthenticationToken {
 
     @Override
     public Object getPrincipal() {
-        return tenant;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        return claims != null ? claims : tenant;
+    }
+
+    @Override
+    public String getName() {
+        return getTenantCode();
     }
 
+    public String getTenantCode() {
+        if (snapshot != null) {
+            return snapshot.getCode();
+        }
+        return claims != null ? claims.tenantCode() : tenant.getCode();
+    }
+
+    /**
+     * The tenant entity; for snapshot tokens a new detached copy per call (see {@link TenantSnapshot#toTenant()}),
+     * null for claims tokens.
+     */
     public Tenant getTenant() {
-        return tenant;
+        if (tenant != null) {
+            return tenant;
+        }
+        return snapshot != null ? snapshot.toTenant() : null;
+    }
+
+    /**
+     * Precompiled snapshot, or null if the token was built from a bare Tenant.
+     */
+    public TenantSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Verified token claims, or null if the tenant was not resolved from a signed token's claims.
+     */
+    public TenantTokenClaims getClaims() {
+        return claims;
+    }
+
+    /**
+     * Precompiled authority mask (snapshot or claims), or null for bare-Tenant tokens.
+     */
+    public AuthorityMask getAuthorityMask() {
+        if (snapshot != null) {
+            return snapshot.getAuthorityMask();
+        }
+        return claims != null ? claims.authorities() : null;
     }
 }
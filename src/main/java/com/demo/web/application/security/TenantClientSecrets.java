@@ -0,0 +1,57 @@
+package com.demo.web.application.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Tenant client secrets: the credential a tenant presents at /api/token when tenant.token.required is
+ * on (see {@link TenantTokenService#mayIssue}). Secrets are 256 random bits generated here, never
+ * chosen by people, so a SHA-256 digest is enough to store them - unlike passwords they need no
+ * deliberately slow hash, and checking one costs microseconds on the request thread.
+ */
+public final class TenantClientSecrets {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private TenantClientSecrets() {
+    }
+
+    /**
+     * A new random secret, base64url (43 characters).
+     */
+    public static String generate() {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        return ENCODER.encodeToString(secret);
+    }
+
+    /**
+     * The value stored in tenants.client_secret_hash (base64url, 43 characters).
+     */
+    public static String hash(String secret) {
+        return ENCODER.encodeToString(digest(secret));
+    }
+
+    /**
+     * Constant-time comparison of a presented secret with a stored hash; false if either is missing.
+     */
+    public static boolean matches(String secret, String hash) {
+        if (secret == null || hash == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(hash.getBytes(StandardCharsets.US_ASCII),
+                ENCODER.encode(digest(secret)));
+    }
+
+    private static byte[] digest(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.demo.web.application.security;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -16,36 +22,117 @@ import jakarta.servlet.http.HttpServletResponse;
 /**
  * Extracts tenant from X-Tenant-ID header and sets tenant's authorities in SecurityContext.
  * Uses in-memory cache (loaded at startup) - no DB query per request.
+ * Runs only in the stateless API chain; the tenant context lives for exactly one request.
+ * Resolved tenants are admitted through their {@link TenantQuota}; over the limit the request
+ * gets 429 with Retry-After and never reaches the controller.
+ * <p>
+ * With tenant.token.enabled an "Authorization: Bearer" signed tenant token takes precedence over the
+ * header (see {@link TenantTokenService}); with tenant.token.required the header is only accepted at
+ * /api/token.
  */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Service
 public class TenantHeaderFilter extends OncePerRequestFilter {
 
     public static final String TENANT_HEADER = "X-Tenant-ID";
 
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
     private final TenantCacheService tenantCacheService;
+    private final TenantRequestMetrics metrics;
+    private final TenantRateLimiter rateLimiter;
+    private final TenantTokenService tokenService;
 
-    public TenantHeaderFilter(TenantCacheService tenantCacheService) {
+    public TenantHeaderFilter(TenantCacheService tenantCacheService, TenantRequestMetrics metrics,
+                              TenantRateLimiter rateLimiter, TenantTokenService tokenService) {
         this.tenantCacheService = tenantCacheService;
+        this.metrics = metrics;
+        this.rateLimiter = rateLimiter;
+        this.tokenService = tokenService;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        String tenantCode = request.getHeader(TENANT_HEADER);
-
-        if (tenantCode != null && !tenantCode.isBlank()) {
-            tenantCacheService.getTenantByCode(tenantCode.trim())
-                .ifPresent(tenant -> {
-                    TenantAuthenticationToken token = new TenantAuthenticationToken(tenant);
-                    SecurityContextHolder.getContext().setAuthentication(token);
-                });
+        long startNanos = System.nanoTime();
+        TenantAuthenticationToken authentication = null;
+        TenantQuota quota = null;
+        TenantSnapshot snapshot = null;
+
+        String bearer = tokenService.bearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (bearer != null) {
+            TenantTokenClaims claims = tokenService.verify(bearer);
+            quota = claims != null ? tokenService.currentQuota(claims) : null;
+            if (quota != null) {
+                // Current claims: authorities and quota without a tenant cache lookup
+                authentication = tokenService.authenticate(claims);
+                metrics.recordTokenResolution(startNanos);
+            } else {
+                // Invalid, expired or older than the cache: a valid token only names the tenant
+                if (claims != null) {
+                    snapshot = TenantTokenService.matching(claims, tenantCacheService.getSnapshotByCode(claims.tenantCode()));
+                }
+                metrics.recordResolution(snapshot, false, startNanos);
+            }
+        } else {
+            String tenantCode = request.getHeader(TENANT_HEADER);
+            if (tenantCode == null || tenantCode.isBlank() || !acceptsTenantHeader(request)) {
+                metrics.recordResolution(null, true, startNanos);
+            } else {
+                snapshot = tenantCacheService.getSnapshotByCode(tenantCode);
+                metrics.recordResolution(snapshot, false, startNanos);
+            }
+        }
+        if (snapshot != null) {
+            quota = rateLimiter.quotaFor(snapshot);
+            // Token reuses the snapshot's authorities
+            authentication = new TenantAuthenticationToken(snapshot);
+        }
+
+        if (quota != null) {
+            // In-flight slot first, so a request turned away by the cap does not burn a token
+            if (!quota.tryEnter()) {
+                metrics.recordThrottled(false);
+                reject(response, 0);
+                return;
+            }
+            // Reuses the resolution timestamp: the quota adds no clock read
+            long waitNanos = quota.tryAcquire(startNanos);
+            if (waitNanos > 0) {
+                quota.exit();
+                metrics.recordThrottled(true);
+                reject(response, waitNanos);
+                return;
+            }
+            // Fresh context (never a shared/session one)
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
         }
 
         try {
             filterChain.doFilter(request, response);
         } finally {
-            // Optional: clear tenant auth after request if you want API-only tenant context
-            // SecurityContextHolder.clearContext();
+            SecurityContextHolder.clearContext();
+            if (quota != null) {
+                quota.exit();
+            }
         }
     }
+
+    private boolean acceptsTenantHeader(HttpServletRequest request) {
+        return tokenService.acceptsTenantHeader(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    /**
+     * 429 with Retry-After in whole seconds (at least 1).
+     */
+    private static void reject(HttpServletResponse response, long waitNanos) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds(waitNanos)));
+    }
+
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
 }
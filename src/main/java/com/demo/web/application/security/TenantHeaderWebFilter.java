@@ -0,0 +1,130 @@
+package com.demo.web.application.security;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link TenantHeaderFilter}: resolves X-Tenant-ID from the tenant cache,
+ * admits the tenant through its {@link TenantQuota} and puts a {@link TenantAuthenticationToken} into
+ * the Reactor context ({@link ReactiveSecurityContextHolder}) for the rest of the exchange.
+ * Preloaded tenants resolve without leaving the event loop; a lazy-mode miss completes when its
+ * (shared) DB load does, without blocking the event loop. Signed tenant tokens are handled as in
+ * {@link TenantHeaderFilter}.
+ * <p>
+ * Not a bean: WebFlux would apply every WebFilter bean to all requests. It is added to the API
+ * security chain by {@link ReactiveSecurityConfig} only.
+ */
+public class TenantHeaderWebFilter implements WebFilter {
+
+    private final TenantCacheService tenantCacheService;
+    private final TenantRequestMetrics metrics;
+    private final TenantRateLimiter rateLimiter;
+    private final TenantTokenService tokenService;
+
+    public TenantHeaderWebFilter(TenantCacheService tenantCacheService, TenantRequestMetrics metrics,
+                                 TenantRateLimiter rateLimiter, TenantTokenService tokenService) {
+        this.tenantCacheService = tenantCacheService;
+        this.metrics = metrics;
+        this.rateLimiter = rateLimiter;
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long startNanos = System.nanoTime();
+        ServerHttpRequest request = exchange.getRequest();
+        String bearer = tokenService.bearerToken(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        TenantTokenClaims claims = null;
+        String tenantCode;
+        if (bearer != null) {
+            claims = tokenService.verify(bearer);
+            if (claims == null) {
+                metrics.recordResolution(null, false, startNanos);
+                return chain.filter(exchange);
+            }
+            TenantQuota quota = tokenService.currentQuota(claims);
+            if (quota != null) {
+                // Current claims: authorities and quota without a tenant cache lookup
+                metrics.recordTokenResolution(startNanos);
+                return admit(exchange, chain, quota, tokenService.authenticate(claims), startNanos);
+            }
+            // Older than the cache: the token only names the tenant
+            tenantCode = claims.tenantCode();
+        } else {
+            tenantCode = request.getHeaders().getFirst(TenantHeaderFilter.TENANT_HEADER);
+            if (tenantCode == null || tenantCode.isBlank()
+                    || !tokenService.acceptsTenantHeader(request.getPath().pathWithinApplication().value())) {
+                metrics.recordResolution(null, true, startNanos);
+                return chain.filter(exchange);
+            }
+        }
+        TenantTokenClaims verified = claims;
+        CompletableFuture<TenantSnapshot> lookup = tenantCacheService.getSnapshotByCodeAsync(tenantCode);
+        if (lookup.isDone()) {
+            return resolved(exchange, chain, matching(verified, lookup.join()), startNanos);
+        }
+        return Mono.fromFuture(lookup)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(snapshot -> resolved(exchange, chain, matching(verified, snapshot.orElse(null)), startNanos));
+    }
+
+    private Mono<Void> resolved(ServerWebExchange exchange, WebFilterChain chain, TenantSnapshot snapshot,
+                                long startNanos) {
+        metrics.recordResolution(snapshot, false, startNanos);
+        if (snapshot == null) {
+            return chain.filter(exchange);
+        }
+        return admit(exchange, chain, rateLimiter.quotaFor(snapshot), new TenantAuthenticationToken(snapshot),
+                startNanos);
+    }
+
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, TenantQuota quota,
+                             TenantAuthenticationToken authentication, long startNanos) {
+        // In-flight slot first, so a request turned away by the cap does not burn a token
+        if (!quota.tryEnter()) {
+            metrics.recordThrottled(false);
+            return reject(exchange.getResponse(), 0);
+        }
+        long waitNanos = quota.tryAcquire(startNanos);
+        if (waitNanos > 0) {
+            quota.exit();
+            metrics.recordThrottled(true);
+            return reject(exchange.getResponse(), waitNanos);
+        }
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication))
+                .doFinally(signal -> quota.exit());
+    }
+
+    /**
+     * Snapshot for a token's tenant only if it is still the tenant the token was issued for.
+     */
+    private static TenantSnapshot matching(TenantTokenClaims claims, TenantSnapshot snapshot) {
+        return claims != null ? TenantTokenService.matching(claims, snapshot) : snapshot;
+    }
+
+    /**
+     * 429 with Retry-After in whole seconds (at least 1).
+     */
+    private static Mono<Void> reject(ServerHttpResponse response, long waitNanos) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                Long.toString(TenantHeaderFilter.retryAfterSeconds(waitNanos)));
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,241 @@
+package com.demo.web.application.security;
+
+import java.lang.reflect.Method;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import com.demo.web.application.service.TenantCacheService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * @PreAuthorize for tenant requests without SpEL on the request path (servlet and reactive):
+ * <ul>
+ * <li>A single hasAuthority / hasAnyAuthority / hasRole / hasAnyRole with literal arguments is
+ * compiled once per method into an {@link AuthorityMask}; the check is a mask test.</li>
+ * <li>Other expressions that only depend on the caller's authorities (no #arguments, @beans,
+ * principal, ...) are evaluated by Spring once per method and tenant authority mask, and the decision
+ * is reused. Masks come from interned role sets, so tenants with the same roles share decisions and a
+ * tenant whose roles change gets a different mask. The decisions are dropped when
+ * {@link TenantCacheService} publishes a new version, so masks no tenant has any more do not pile up.</li>
+ * <li>Anything else, and callers that are not tenants, go to Spring's
+ * {@link PreAuthorizeAuthorizationManager} / {@link PreAuthorizeReactiveAuthorizationManager}.</li>
+ * </ul>
+ * Not a bean: the security configs create it for their @PreAuthorize interceptor, which is built
+ * before most beans exist, so the registry and cache are resolved on first use.
+ */
+public final class TenantMethodAuthorizationManager
+        implements AuthorizationManager<MethodInvocation>, ReactiveAuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private static final Pattern SIMPLE_EXPRESSION = Pattern.compile(
+            "\\s*(hasAuthority|hasAnyAuthority|hasRole|hasAnyRole)\\(\\s*('[^']*'(?:\\s*,\\s*'[^']*')*)\\s*\\)\\s*");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'([^']*)'");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Pattern AUTHORITY_ONLY_CHARACTERS = Pattern.compile("[A-Za-z0-9_\\s(),'!&|]*");
+    private static final Set<String> AUTHORITY_ONLY_NAMES = Set.of("hasAuthority", "hasAnyAuthority", "hasRole",
+            "hasAnyRole", "isAuthenticated", "isFullyAuthenticated", "isAnonymous", "isRememberMe", "permitAll",
+            "denyAll", "and", "or", "not", "true", "false");
+
+    private final Supplier<AuthorityRegistry> authorityRegistry;
+    private final Supplier<TenantCacheService> tenantCacheService;
+    private final PreAuthorizeAuthorizationManager delegate = new PreAuthorizeAuthorizationManager();
+    private final PreAuthorizeReactiveAuthorizationManager reactiveDelegate;
+
+    private final Map<Method, MethodRule> rules = new ConcurrentHashMap<>();
+    private volatile long cacheVersion = -1;
+
+    public TenantMethodAuthorizationManager(Supplier<AuthorityRegistry> authorityRegistry,
+                                            Supplier<TenantCacheService> tenantCacheService,
+                                            MethodSecurityExpressionHandler expressionHandler) {
+        this.authorityRegistry = authorityRegistry;
+        this.tenantCacheService = tenantCacheService;
+        this.delegate.setExpressionHandler(expressionHandler);
+        this.reactiveDelegate = new PreAuthorizeReactiveAuthorizationManager(expressionHandler);
+    }
+
+    /**
+     * The expression handler Spring's own method security would use: SpEL with @bean references.
+     */
+    public static MethodSecurityExpressionHandler expressionHandler(ApplicationContext context) {
+        DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+        handler.setApplicationContext(context);
+        return handler;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        MethodRule rule = rule(invocation);
+        if (rule.usesSpelOnly()) {
+            return delegate.check(authentication, invocation);
+        }
+        AuthorityMask mask = tenantMask(authentication.get());
+        if (mask == null) {
+            return delegate.check(authentication, invocation);
+        }
+        if (rule.required() != null) {
+            return decision(mask.intersects(rule.required()));
+        }
+        Map<AuthorityMask, AuthorizationDecision> decisions = decisions(rule);
+        AuthorizationDecision decision = decisions.get(mask);
+        if (decision == null) {
+            decision = decision(granted(delegate.check(authentication, invocation)));
+            decisions.put(mask, decision);
+        }
+        return decision;
+    }
+
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, MethodInvocation invocation) {
+        MethodRule rule = rule(invocation);
+        if (rule.usesSpelOnly()) {
+            return reactiveDelegate.check(authentication, invocation);
+        }
+        return authentication
+                .flatMap(auth -> {
+                    AuthorityMask mask = tenantMask(auth);
+                    if (mask == null) {
+                        return reactiveDelegate.check(Mono.just(auth), invocation);
+                    }
+                    if (rule.required() != null) {
+                        return Mono.just(decision(mask.intersects(rule.required())));
+                    }
+                    Map<AuthorityMask, AuthorizationDecision> decisions = decisions(rule);
+                    AuthorizationDecision decision = decisions.get(mask);
+                    if (decision != null) {
+                        return Mono.just(decision);
+                    }
+                    return reactiveDelegate.check(Mono.just(auth), invocation)
+                            .map(evaluated -> {
+                                AuthorizationDecision memoized = decision(granted(evaluated));
+                                decisions.put(mask, memoized);
+                                return memoized;
+                            });
+                })
+                .switchIfEmpty(Mono.defer(() -> reactiveDelegate.check(Mono.empty(), invocation)));
+    }
+
+    private MethodRule rule(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        MethodRule rule = rules.get(method);
+        if (rule == null) {
+            Class<?> targetClass = invocation.getThis() != null
+                    ? AopUtils.getTargetClass(invocation.getThis())
+                    : method.getDeclaringClass();
+            rule = rules.computeIfAbsent(method, key -> compile(AopUtils.getMostSpecificMethod(key, targetClass)));
+        }
+        return rule;
+    }
+
+    private MethodRule compile(Method method) {
+        PreAuthorize annotation = AnnotatedElementUtils.findMergedAnnotation(method, PreAuthorize.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), PreAuthorize.class);
+        }
+        if (annotation == null) {
+            return MethodRule.SPEL;
+        }
+        String expression = annotation.value();
+        Matcher simple = SIMPLE_EXPRESSION.matcher(expression);
+        if (simple.matches()) {
+            boolean roles = simple.group(1).endsWith("Role");
+            BitSet bits = new BitSet();
+            Matcher literal = STRING_LITERAL.matcher(simple.group(2));
+            while (literal.find()) {
+                String value = literal.group(1);
+                if (roles && value.startsWith(AuthorityRegistry.ROLE_PREFIX)) {
+                    // Spring rejects hasRole('ROLE_X'); keep its behavior
+                    return MethodRule.SPEL;
+                }
+                // Register (not just look up) so authorities no tenant has yet get a stable id
+                bits.set(authorityRegistry.get().register(roles ? AuthorityRegistry.ROLE_PREFIX + value : value));
+            }
+            return new MethodRule(AuthorityMask.of(bits), null);
+        }
+        return dependsOnlyOnAuthorities(expression)
+                ? new MethodRule(null, new ConcurrentHashMap<>())
+                : MethodRule.SPEL;
+    }
+
+    /**
+     * True if the expression is built only from authority/authentication-state functions, literals
+     * and boolean operators, so its result depends on nothing but the caller's authorities.
+     */
+    static boolean dependsOnlyOnAuthorities(String expression) {
+        String code = STRING_LITERAL.matcher(expression).replaceAll("''");
+        if (!AUTHORITY_ONLY_CHARACTERS.matcher(code).matches()) {
+            return false;
+        }
+        Matcher identifier = IDENTIFIER.matcher(code);
+        while (identifier.find()) {
+            if (!AUTHORITY_ONLY_NAMES.contains(identifier.group())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The rule's memoized decisions, after dropping all of them if the tenant cache has moved on.
+     */
+    private Map<AuthorityMask, AuthorizationDecision> decisions(MethodRule rule) {
+        long current = tenantCacheService.get().getVersion();
+        if (current != cacheVersion) {
+            cacheVersion = current;
+            rules.values().forEach(MethodRule::clear);
+        }
+        return rule.decisions();
+    }
+
+    private static AuthorityMask tenantMask(Authentication authentication) {
+        return authentication instanceof TenantAuthenticationToken token ? token.getAuthorityMask() : null;
+    }
+
+    private static boolean granted(AuthorizationDecision decision) {
+        return decision != null && decision.isGranted();
+    }
+
+    private static AuthorizationDecision decision(boolean granted) {
+        return granted ? GRANTED : DENIED;
+    }
+
+    /**
+     * Compiled @PreAuthorize of one method: a required mask (any of), or memoized decisions by tenant
+     * mask, or neither (always SpEL).
+     */
+    private record MethodRule(AuthorityMask required, Map<AuthorityMask, AuthorizationDecision> decisions) {
+
+        static final MethodRule SPEL = new MethodRule(null, null);
+
+        boolean usesSpelOnly() {
+            return required == null && decisions == null;
+        }
+
+        void clear() {
+            if (decisions != null) {
+                decisions.clear();
+            }
+        }
+    }
+}
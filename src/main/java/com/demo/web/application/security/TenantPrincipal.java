@@ -0,0 +1,12 @@
+package com.demo.web.application.security;
+
+/**
+ * Principal of a {@link TenantAuthenticationToken}: the cached
+ * {@link com.demo.web.application.service.TenantSnapshot} for X-Tenant-ID requests, or the verified
+ * {@link TenantTokenClaims} of a signed tenant token. Controllers that only need the tenant code take
+ * this type, so they work with both.
+ */
+public interface TenantPrincipal {
+
+    String getCode();
+}
@@ -0,0 +1,92 @@
+package com.demo.web.application.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission state of one tenant: a token bucket plus an in-flight counter.
+ * <p>
+ * The bucket is kept as a single timestamp (the time at which it will be full again), so taking a
+ * token is one CAS on an AtomicLong - no lock, no allocation. A limit of 0 or less disables that check.
+ */
+public final class TenantQuota {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int requestsPerSecond;
+    private final int burst;
+    private final int maxConcurrent;
+
+    /** Nanos needed to refill one token. */
+    private final long refillNanos;
+    /** Nanos needed to refill the whole bucket. */
+    private final long capacityNanos;
+
+    /** Time at which the bucket is full again; at or before now means full. */
+    private final AtomicLong fullAt;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public TenantQuota(int requestsPerSecond, int burst, int maxConcurrent) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = Math.max(burst, 1);
+        this.maxConcurrent = maxConcurrent;
+        this.refillNanos = requestsPerSecond > 0 ? Math.max(NANOS_PER_SECOND / requestsPerSecond, 1) : 0;
+        this.capacityNanos = refillNanos * this.burst;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 if admitted, otherwise nanos until the next token is available
+     */
+    public long tryAcquire(long nowNanos) {
+        if (refillNanos == 0) {
+            return 0;
+        }
+        while (true) {
+            long current = fullAt.get();
+            // A bucket that has been full for a while still holds only 'burst' tokens
+            long base = current - nowNanos < 0 ? nowNanos : current;
+            long next = base + refillNanos;
+            long deficit = next - nowNanos - capacityNanos;
+            if (deficit > 0) {
+                return deficit;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Reserves an in-flight slot; every successful call must be paired with {@link #exit()}.
+     */
+    public boolean tryEnter() {
+        if (maxConcurrent <= 0) {
+            return true;
+        }
+        if (inFlight.incrementAndGet() > maxConcurrent) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void exit() {
+        if (maxConcurrent > 0) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    boolean hasLimits(int requestsPerSecond, int burst, int maxConcurrent) {
+        return this.requestsPerSecond == requestsPerSecond
+                && this.burst == Math.max(burst, 1)
+                && this.maxConcurrent == maxConcurrent;
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.web.application.security;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.service.TenantSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Per-tenant quotas for the API chain. Limits come from the cached {@link Tenant} columns
+ * (requestsPerSecond, burstCapacity, maxConcurrentRequests); null columns fall back to
+ * tenant.quota.* defaults, and 0 means unlimited.
+ * <p>
+ * Quota state is keyed by tenant code and survives cache refreshes; it is only replaced when the
+ * tenant's limits change. Looking it up is a map get - nothing is allocated per request.
+ * <p>
+ * The map is a bounded Caffeine cache, so deleted tenants and lazy mode's long tail of rarely seen
+ * tenants do not accumulate: a quota idle for tenant.quota.idle-seconds (600) is dropped, and at most
+ * tenant.quota.max-tenants (100000) are kept. A dropped quota comes back as a full bucket, which it
+ * would have refilled to anyway while idle.
+ */
+@Component
+public class TenantRateLimiter {
+
+    private final int defaultRequestsPerSecond;
+    private final int defaultBurst;
+    private final int defaultMaxConcurrent;
+
+    private final Cache<String, TenantQuota> cache;
+    private final ConcurrentMap<String, TenantQuota> quotas;
+
+    @Autowired
+    public TenantRateLimiter(@Value("${tenant.quota.requests-per-second:0}") int defaultRequestsPerSecond,
+                             @Value("${tenant.quota.burst:0}") int defaultBurst,
+                             @Value("${tenant.quota.max-concurrent:0}") int defaultMaxConcurrent,
+                             @Value("${tenant.quota.max-tenants:100000}") long maxTenants,
+                             @Value("${tenant.quota.idle-seconds:600}") long idleSeconds) {
+        this(defaultRequestsPerSecond, defaultBurst, defaultMaxConcurrent, maxTenants, idleSeconds,
+                Ticker.systemTicker());
+    }
+
+    TenantRateLimiter(int defaultRequestsPerSecond, int defaultBurst, int defaultMaxConcurrent, long maxTenants,
+                      long idleSeconds, Ticker ticker) {
+        this.defaultRequestsPerSecond = defaultRequestsPerSecond;
+        this.defaultBurst = defaultBurst;
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterAccess(idleSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .build();
+        this.quotas = cache.asMap();
+    }
+
+    public TenantQuota quotaFor(TenantSnapshot snapshot) {
+        int requestsPerSecond = orDefault(snapshot.getRequestsPerSecond(), defaultRequestsPerSecond);
+        // Without an explicit burst a tenant may use one second's worth of requests at once
+        int burst = orDefault(snapshot.getBurstCapacity(), defaultBurst > 0 ? defaultBurst : requestsPerSecond);
+        int maxConcurrent = orDefault(snapshot.getMaxConcurrentRequests(), defaultMaxConcurrent);
+
+        String code = snapshot.getCode();
+        TenantQuota quota = quotas.get(code);
+        if (quota == null || !quota.hasLimits(requestsPerSecond, burst, maxConcurrent)) {
+            // First request or limits changed: start a fresh bucket. Requests already admitted
+            // still release their slot on the quota they entered.
+            quota = quotas.compute(code, (key, existing) ->
+                    existing != null && existing.hasLimits(requestsPerSecond, burst, maxConcurrent)
+                            ? existing
+                            : new TenantQuota(requestsPerSecond, burst, maxConcurrent));
+        }
+        return quota;
+    }
+
+    /**
+     * The quota already set up for this tenant code by {@link #quotaFor}, or null. For callers that
+     * have no snapshot (signed tenant tokens); they fall back to the snapshot when this is null.
+     */
+    public TenantQuota existingQuota(String code) {
+        return quotas.get(code);
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static int orDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,184 @@
+package com.demo.web.application.security;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.noop.NoopCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Request-path metrics for the tenant API. Meters are created up front, so recording is a plain
+ * counter/timer update with no tag lookup.
+ * <ul>
+ * <li>tenant.resolution{result=hit|miss|blank|token} - X-Tenant-ID resolution time; token = a signed
+ * tenant token accepted without a cache lookup</li>
+ * <li>tenant.authorization{resource, decision=allow|deny} - @RequireTenantResource decisions</li>
+ * <li>tenant.throttled{reason=rate|concurrency} - requests rejected with 429 by the tenant quota</li>
+ * <li>tenant.requests{tenant} - per-tenant requests, tagged with the tenant's database id (never the
+ * code, which is what grants API access). A tenant gets its own series the first time it is among the
+ * top N of a window and keeps it, so its counter never restarts; all other requests are counted as
+ * tenant="other". A MeterFilter caps the number of tenant series; once it is reached, newly busy
+ * tenants are counted as "other" too (config: tenant.metrics.top-tenants,
+ * tenant.metrics.window-seconds, tenant.metrics.max-tenant-series)</li>
+ * </ul>
+ */
+@Component
+public class TenantRequestMetrics {
+
+    public static final String OTHER_TENANTS = "other";
+
+    private final MeterRegistry registry;
+    private final TenantCacheService tenantCacheService;
+    private final int topTenants;
+    private final long windowSeconds;
+
+    private final Timer resolvedHit;
+    private final Timer resolvedMiss;
+    private final Timer resolvedBlank;
+    private final Timer resolvedToken;
+    private final Counter throttledRate;
+    private final Counter throttledConcurrency;
+    private final Counter otherTenants;
+
+    /**
+     * Tenant id -> its tenant.requests series; empty once the MeterFilter has refused a series.
+     */
+    private final Map<Long, Optional<Counter>> tenantCounters = new HashMap<>();
+
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "tenant-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TenantRequestMetrics(MeterRegistry registry, TenantCacheService tenantCacheService,
+                                @Value("${tenant.metrics.top-tenants:20}") int topTenants,
+                                @Value("${tenant.metrics.window-seconds:15}") long windowSeconds,
+                                @Value("${tenant.metrics.max-tenant-series:200}") int maxTenantSeries) {
+        this.registry = registry;
+        this.tenantCacheService = tenantCacheService;
+        this.topTenants = topTenants;
+        this.windowSeconds = windowSeconds;
+        this.resolvedHit = resolutionTimer("hit");
+        this.resolvedMiss = resolutionTimer("miss");
+        this.resolvedBlank = resolutionTimer("blank");
+        this.resolvedToken = resolutionTimer("token");
+        this.throttledRate = throttledCounter("rate");
+        this.throttledConcurrency = throttledCounter("concurrency");
+        // Registered first so the cap below never refuses it
+        registry.config().meterFilter(MeterFilter.maximumAllowableTags("tenant.requests", "tenant",
+                maxTenantSeries + 1, MeterFilter.deny()));
+        this.otherTenants = Counter.builder("tenant.requests").tag("tenant", OTHER_TENANTS).register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        publisher.scheduleWithFixedDelay(this::publishTenantCounts, windowSeconds, windowSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdownNow();
+    }
+
+    /**
+     * Records one X-Tenant-ID resolution. snapshot is null on miss; blank means no usable header.
+     */
+    public void recordResolution(TenantSnapshot snapshot, boolean blank, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (blank) {
+            resolvedBlank.record(elapsed, TimeUnit.NANOSECONDS);
+        } else if (snapshot == null) {
+            resolvedMiss.record(elapsed, TimeUnit.NANOSECONDS);
+        } else {
+            snapshot.recordRequest();
+            resolvedHit.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records a tenant taken from the claims of a current signed token (no snapshot, so it is not
+     * counted in tenant.requests).
+     */
+    public void recordTokenResolution(long startNanos) {
+        resolvedToken.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a request rejected by the tenant quota; rateLimited false means the in-flight cap.
+     */
+    public void recordThrottled(boolean rateLimited) {
+        (rateLimited ? throttledRate : throttledConcurrency).increment();
+    }
+
+    /**
+     * Decision counter for a resource; called once per requirement when it is compiled.
+     */
+    public Counter authorizationCounter(String resource, boolean allowed) {
+        return Counter.builder("tenant.authorization")
+                .tag("resource", resource)
+                .tag("decision", allowed ? "allow" : "deny")
+                .register(registry);
+    }
+
+    /**
+     * Moves the per-snapshot request counts of the last window into tenant.requests. Tenants that
+     * already have a series keep counting into it; the busiest others get one if the filter allows.
+     */
+    synchronized void publishTenantCounts() {
+        List<Map.Entry<TenantSnapshot, Long>> counts = new ArrayList<>();
+        for (TenantSnapshot snapshot : tenantCacheService.snapshots()) {
+            long count = snapshot.drainRequestCount();
+            if (count > 0) {
+                counts.add(Map.entry(snapshot, count));
+            }
+        }
+        counts.sort(Map.Entry.<TenantSnapshot, Long>comparingByValue(Comparator.reverseOrder()));
+
+        long other = 0;
+        for (int i = 0; i < counts.size(); i++) {
+            TenantSnapshot snapshot = counts.get(i).getKey();
+            long count = counts.get(i).getValue();
+            Optional<Counter> counter = snapshot.getId() == null ? Optional.empty()
+                    : i < topTenants ? tenantCounters.computeIfAbsent(snapshot.getId(), this::tenantCounter)
+                    : tenantCounters.getOrDefault(snapshot.getId(), Optional.empty());
+            if (counter.isPresent()) {
+                counter.get().increment(count);
+            } else {
+                other += count;
+            }
+        }
+        otherTenants.increment(other);
+    }
+
+    private Optional<Counter> tenantCounter(Long tenantId) {
+        Counter counter = Counter.builder("tenant.requests").tag("tenant", tenantId.toString()).register(registry);
+        return counter instanceof NoopCounter ? Optional.empty() : Optional.of(counter);
+    }
+
+    private Timer resolutionTimer(String result) {
+        return Timer.builder("tenant.resolution").tag("result", result).register(registry);
+    }
+
+    private Counter throttledCounter(String reason) {
+        return Counter.builder("tenant.throttled").tag("reason", reason).register(registry);
+    }
+}
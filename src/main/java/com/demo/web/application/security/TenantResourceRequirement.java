@@ -0,0 +1,71 @@
+package com.demo.web.application.security;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Precompiled form of one {@link RequireTenantResource} usage: the ROLE_-prefixed authorities and
+ * their bitmask are resolved once per annotated method, so the per-call check is a mask test.
+ */
+public final class TenantResourceRequirement {
+
+    private final String resourceName;
+    private final String[] requiredAuthorities;
+    private final AuthorityMask requiredMask;
+    private final Counter allowed;
+    private final Counter denied;
+
+    TenantResourceRequirement(String resourceName, String[] requiredAuthorities, AuthorityMask requiredMask,
+                              Counter allowed, Counter denied) {
+        this.resourceName = resourceName;
+        this.requiredAuthorities = requiredAuthorities;
+        this.requiredMask = requiredMask;
+        this.allowed = allowed;
+        this.denied = denied;
+    }
+
+    /**
+     * Tenant must have at least one of the required roles.
+     */
+    public boolean isSatisfiedBy(AuthorityMask tenantMask) {
+        return tenantMask.intersects(requiredMask);
+    }
+
+    /**
+     * Fallback for tokens that carry plain authorities instead of a snapshot mask.
+     */
+    public boolean isSatisfiedBy(Collection<? extends GrantedAuthority> authorities) {
+        for (GrantedAuthority authority : authorities) {
+            for (String required : requiredAuthorities) {
+                if (required.equals(authority.getAuthority())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the decision under tenant.authorization{resource, decision}.
+     */
+    public void recordDecision(boolean granted) {
+        (granted ? allowed : denied).increment();
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public AuthorityMask getRequiredMask() {
+        return requiredMask;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(requiredAuthorities);
+    }
+}
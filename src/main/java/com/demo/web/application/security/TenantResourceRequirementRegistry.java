@@ -0,0 +1,52 @@
+package com.demo.web.application.security;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves each @RequireTenantResource-annotated method once (on first call) into a
+ * {@link TenantResourceRequirement}. Later calls are a single map lookup.
+ */
+@Component
+public class TenantResourceRequirementRegistry {
+
+    private final AuthorityRegistry authorityRegistry;
+    private final TenantRequestMetrics metrics;
+
+    private final Map<Method, TenantResourceRequirement> requirementByMethod = new ConcurrentHashMap<>();
+
+    public TenantResourceRequirementRegistry(AuthorityRegistry authorityRegistry, TenantRequestMetrics metrics) {
+        this.authorityRegistry = authorityRegistry;
+        this.metrics = metrics;
+    }
+
+    public TenantResourceRequirement getRequirement(Method method, RequireTenantResource annotation) {
+        TenantResourceRequirement requirement = requirementByMethod.get(method);
+        if (requirement == null) {
+            requirement = requirementByMethod.computeIfAbsent(method, m -> compile(m, annotation));
+        }
+        return requirement;
+    }
+
+    private TenantResourceRequirement compile(Method method, RequireTenantResource annotation) {
+        String[] authorities = Arrays.stream(annotation.roles())
+                .map(AuthorityRegistry::roleAuthority)
+                .distinct()
+                .toArray(String[]::new);
+        BitSet bits = new BitSet();
+        for (String authority : authorities) {
+            // Register (not just look up) so roles no tenant has yet get a stable id
+            bits.set(authorityRegistry.register(authority));
+        }
+        String resourceName = annotation.name().isEmpty()
+                ? method.getDeclaringClass().getSimpleName() + "." + method.getName() + "(..)"
+                : annotation.name();
+        return new TenantResourceRequirement(resourceName, authorities, AuthorityMask.of(bits),
+                metrics.authorizationCounter(resourceName, true), metrics.authorizationCounter(resourceName, false));
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.web.application.security;
+
+/**
+ * Verified contents of a signed tenant token (see {@link TenantTokenService}).
+ *
+ * @param tenantCode  tenant code as cached
+ * @param tenantId    tenant row id, so a token does not outlive a tenant deleted and re-created under
+ *                    the same code
+ * @param authorities tenant authorities when issued; ids are only meaningful on the issuing instance
+ * @param instance    id of the issuing process
+ * @param revision    tenant revision when issued (see TenantCacheService#getRevision)
+ * @param expiresAt   expiry, epoch seconds
+ */
+public record TenantTokenClaims(String tenantCode, long tenantId, AuthorityMask authorities, long instance,
+                                long revision, long expiresAt) implements TenantPrincipal {
+
+    @Override
+    public String getCode() {
+        return tenantCode;
+    }
+}
@@ -0,0 +1,36 @@
+package com.demo.web.application.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * tenant.token.* settings for {@link TenantTokenService}.
+ *
+ * @param enabled    issue tokens at POST /api/token and accept them as "Authorization: Bearer ..."
+ * @param secret     base64 HMAC key shared by all nodes; unset = a random key per process, so tokens
+ *                   do not survive a restart
+ * @param ttlSeconds token lifetime
+ * @param required   accept X-Tenant-ID only at /api/token; every other API request needs a token
+ */
+@ConfigurationProperties(prefix = "tenant.token")
+public record TenantTokenProperties(
+        @DefaultValue("false") boolean enabled,
+        String secret,
+        @DefaultValue("3600") long ttlSeconds,
+        @DefaultValue("false") boolean required) {
+
+    /**
+     * Same defaults as an empty configuration (tokens off).
+     */
+    public static TenantTokenProperties defaults() {
+        return new TenantTokenProperties(false, null, 3600, false);
+    }
+
+    public TenantTokenProperties withEnabled(String secret) {
+        return new TenantTokenProperties(true, secret, ttlSeconds, required);
+    }
+
+    public TenantTokenProperties withRequired(boolean required) {
+        return new TenantTokenProperties(enabled, secret, ttlSeconds, required);
+    }
+}
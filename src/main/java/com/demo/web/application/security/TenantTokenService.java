@@ -0,0 +1,282 @@
+package com.demo.web.application.security;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Issues and verifies signed tenant tokens (tenant.token.enabled, see {@link TenantTokenProperties}).
+ * A token is base64url(payload) + "." + base64url(HMAC-SHA256(payload)); the payload holds the tenant
+ * code and id, its {@link AuthorityMask}, the issuing instance, the tenant's revision (the cache
+ * version its snapshot was loaded at) and the expiry.
+ * <p>
+ * A token from this instance whose revision is not older than the tenant's current revision carries
+ * everything the request needs, so the filters use its claims without a tenant cache lookup. Only a
+ * change to that tenant moves its revision; older tokens, and tokens from other nodes (authority ids
+ * are per process), still verify but only name the tenant - its snapshot is then taken from the cache.
+ * <p>
+ * With tenant.token.required the tenant header is only accepted at /api/token, and there only
+ * together with the tenant's client secret ({@link #CLIENT_SECRET_HEADER}, see
+ * {@link TenantClientSecrets}); without it the header remains the tenant's credential everywhere.
+ * <p>
+ * Each platform thread keeps its own initialized {@link Mac}; virtual threads, which are not reused,
+ * borrow one from a shared pool instead.
+ */
+@Slf4j
+@Component
+public class TenantTokenService {
+
+    public static final String TOKEN_PATH = "/api/token";
+    public static final String CLIENT_SECRET_HEADER = "X-Tenant-Secret";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte FORMAT = 1;
+
+    /**
+     * Longer values are rejected before decoding; real tokens are around 100 characters.
+     */
+    private static final int MAX_TOKEN_LENGTH = 1024;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final TenantTokenProperties properties;
+    private final TenantCacheService tenantCacheService;
+    private final AuthorityRegistry authorityRegistry;
+    private final TenantRateLimiter rateLimiter;
+    private final Clock clock;
+    private final SecretKeySpec key;
+    private final long instance = RANDOM.nextLong();
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+    private final Queue<Mac> sharedMacs = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public TenantTokenService(TenantTokenProperties properties, TenantCacheService tenantCacheService,
+                              AuthorityRegistry authorityRegistry, TenantRateLimiter rateLimiter) {
+        this(properties, tenantCacheService, authorityRegistry, rateLimiter, Clock.systemUTC());
+    }
+
+    TenantTokenService(TenantTokenProperties properties, TenantCacheService tenantCacheService,
+                       AuthorityRegistry authorityRegistry, TenantRateLimiter rateLimiter, Clock clock) {
+        this.properties = properties;
+        this.tenantCacheService = tenantCacheService;
+        this.authorityRegistry = authorityRegistry;
+        this.rateLimiter = rateLimiter;
+        this.clock = clock;
+        byte[] secret;
+        if (properties.secret() == null || properties.secret().isBlank()) {
+            secret = new byte[32];
+            RANDOM.nextBytes(secret);
+            if (properties.enabled()) {
+                log.warn("tenant.token.secret is not set: using a random key; tokens will not survive a restart "
+                        + "or be accepted by other nodes");
+            }
+        } else {
+            secret = Base64.getDecoder().decode(properties.secret());
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        // Fails at startup, not on the first request, if the key is unusable
+        newMac();
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public long getTtlSeconds() {
+        return properties.ttlSeconds();
+    }
+
+    /**
+     * The token from an Authorization header value, or null if tokens are off or it is not a bearer token.
+     */
+    public String bearerToken(String authorization) {
+        if (!properties.enabled() || authorization == null
+                || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        return authorization.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    /**
+     * False when tokens are required and the request is not for the token endpoint.
+     */
+    public boolean acceptsTenantHeader(String path) {
+        return !properties.required() || TOKEN_PATH.equals(path);
+    }
+
+    /**
+     * Whether /api/token may issue a token to the resolved tenant. With tenant.token.required the header
+     * that named the tenant is not enough: the caller must also send the tenant's client secret, or
+     * renew with a current token of this instance (Authorization: Bearer). A token older than the
+     * tenant's revision - for example one issued before its secret was replaced - needs the secret too.
+     * Otherwise the header is accepted on every request, so it is accepted here too.
+     */
+    public boolean mayIssue(TenantSnapshot tenant, String authorization, String clientSecret) {
+        if (!properties.required()) {
+            return true;
+        }
+        TenantTokenClaims claims = verify(bearerToken(authorization));
+        if (claims != null && isCurrent(claims) && matching(claims, tenant) != null) {
+            return true;
+        }
+        return tenant.clientSecretMatches(clientSecret);
+    }
+
+    /**
+     * Signs a token for the tenant with the authorities and revision of its snapshot.
+     */
+    public IssuedToken issue(TenantSnapshot snapshot) {
+        byte[] code = snapshot.getCode().getBytes(StandardCharsets.UTF_8);
+        long[] words = snapshot.getAuthorityMask().words();
+        if (code.length > Short.MAX_VALUE || words.length > 255) {
+            throw new IllegalStateException("Tenant " + snapshot.getCode() + " does not fit in a token");
+        }
+        long expiresAt = clock.instant().getEpochSecond() + properties.ttlSeconds();
+        ByteBuffer payload = ByteBuffer.allocate(36 + code.length + 8 * words.length)
+                .put(FORMAT)
+                .putLong(instance)
+                .putLong(snapshot.getRevision())
+                .putLong(expiresAt)
+                .putLong(tenantId(snapshot))
+                .putShort((short) code.length)
+                .put(code)
+                .put((byte) words.length);
+        for (long word : words) {
+            payload.putLong(word);
+        }
+        byte[] bytes = payload.array();
+        return new IssuedToken(ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(sign(bytes)), expiresAt);
+    }
+
+    /**
+     * Returns the claims of a well-formed, correctly signed, unexpired token, otherwise null.
+     */
+    public TenantTokenClaims verify(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return null;
+            }
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            if (in.get() != FORMAT) {
+                return null;
+            }
+            long issuer = in.getLong();
+            long revision = in.getLong();
+            long expiresAt = in.getLong();
+            if (expiresAt <= clock.instant().getEpochSecond()) {
+                return null;
+            }
+            long tenantId = in.getLong();
+            byte[] code = new byte[in.getShort()];
+            in.get(code);
+            long[] words = new long[in.get() & 0xFF];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.getLong();
+            }
+            return new TenantTokenClaims(new String(code, StandardCharsets.UTF_8), tenantId,
+                    AuthorityMask.ofWords(words), issuer, revision, expiresAt);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The tenant's quota if the claims can be used as they are: issued here, not older than the
+     * tenant's current revision, and the tenant already has a quota. Null means the tenant must be
+     * resolved from the cache.
+     */
+    public TenantQuota currentQuota(TenantTokenClaims claims) {
+        if (!isCurrent(claims)) {
+            return null;
+        }
+        return rateLimiter.existingQuota(claims.tenantCode());
+    }
+
+    /**
+     * Issued by this instance and not older than the tenant's current revision.
+     */
+    private boolean isCurrent(TenantTokenClaims claims) {
+        return claims.instance() == instance && claims.revision() >= tenantCacheService.getRevision(claims.tenantCode());
+    }
+
+    /**
+     * Authentication from current claims; authorities are the registry's shared list for the mask.
+     */
+    public TenantAuthenticationToken authenticate(TenantTokenClaims claims) {
+        return new TenantAuthenticationToken(claims, authorityRegistry.authoritiesOf(claims.authorities()));
+    }
+
+    /**
+     * The cached snapshot if it is still the tenant the token was issued for, otherwise null.
+     */
+    public static TenantSnapshot matching(TenantTokenClaims claims, TenantSnapshot snapshot) {
+        return snapshot != null && tenantId(snapshot) == claims.tenantId() ? snapshot : null;
+    }
+
+    private static long tenantId(TenantSnapshot snapshot) {
+        return snapshot.getId() != null ? snapshot.getId() : -1;
+    }
+
+    private byte[] sign(byte[] payload) {
+        if (Thread.currentThread().isVirtual()) {
+            Mac mac = sharedMacs.poll();
+            if (mac == null) {
+                mac = newMac();
+            }
+            try {
+                return mac.doFinal(payload);
+            } finally {
+                sharedMacs.offer(mac);
+            }
+        }
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+
+    /**
+     * @param token     value for "Authorization: Bearer ..."
+     * @param expiresAt epoch seconds
+     */
+    public record IssuedToken(String token, long expiresAt) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.demo.web.application.security;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.demo.web.application.dto.User;
+
+/**
+ * Principal of a form-login user: an immutable snapshot of the {@link User} entity taken when it is
+ * loaded, with the authorities frozen as plain strings. Safe to cache and to share between logins
+ * and sessions, unlike the managed entity. toString() leaves out the password hash.
+ */
+public record UserPrincipal(Long id, String username, String password, Set<GrantedAuthority> authorities)
+        implements UserDetails {
+
+    public UserPrincipal {
+        authorities = Set.copyOf(authorities);
+    }
+
+    /**
+     * Snapshot of a user whose roles and resources are loaded.
+     */
+    public static UserPrincipal of(User user) {
+        Set<GrantedAuthority> authorities = user.getAuthorities().stream()
+                .map(authority -> (GrantedAuthority) new SimpleGrantedAuthority(authority.getAuthority()))
+                .collect(Collectors.toUnmodifiableSet());
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), authorities);
+    }
+
+    /**
+     * Detached entity carrying only the id and username, for attaching orders to the user.
+     */
+    public User toReference() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return user;
+    }
+
+    @Override
+    public Set<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[id=" + id + ", username=" + username + ", authorities=" + authorities + "]";
+    }
+}
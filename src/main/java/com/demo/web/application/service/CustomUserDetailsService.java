@@ -1,19 +1,47 @@
 package com.demo.web.application.service;
 
+import com.demo.web.application.dto.User;
 import com.demo.web.application.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.demo.web.application.security.UserPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+
+    public CustomUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
+        this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+    }
 
-    @Autowired
-    private UserRepository userRepository;
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username).orElseThrow(()->new UsernameNotFoundException("For the given "+ username));
+        UserPrincipal cached = userDetailsCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        User user = userRepository.findByUsername(username).orElseThrow(()->new UsernameNotFoundException("For the given "+ username));
+        UserPrincipal principal = UserPrincipal.of(user);
+        userDetailsCache.put(principal);
+        return principal;
+    }
+
+    /**
+     * Called by Spring Security after a successful login when the stored hash's BCrypt cost is lower
+     * than the configured one.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow(()->new UsernameNotFoundException("For the given "+ userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        userDetailsCache.evict(user.getUsername());
+        return UserPrincipal.of(user);
     }
 }
@@ -0,0 +1,103 @@
+package com.demo.web.application.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.Taco;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Server-side store for the order being put together on the design and order pages. The session only
+ * holds a random draft id (a short string); the draft itself is kept here as a compact
+ * {@link OrderRecords} byte array, so it is not part of the session when sessions are serialized or
+ * replicated. Drafts hold the tacos and delivery details only - card data is bound from the order
+ * form on submit and never stored.
+ * <p>
+ * Drafts expire {@code order.draft.ttl-minutes} after their last use (default: the servlet session
+ * timeout) and the store is bounded to {@code order.draft.max-mb} of encoded drafts.
+ */
+@Service
+public class DraftOrderStore implements MeterBinder {
+
+    static final String DRAFT_ATTRIBUTE = "draftOrderId";
+
+    private final Cache<String, byte[]> drafts;
+
+    @Autowired
+    public DraftOrderStore(@Value("${order.draft.ttl-minutes:30}") long ttlMinutes,
+                           @Value("${order.draft.max-mb:64}") long maxMb) {
+        this(ttlMinutes, maxMb, Ticker.systemTicker());
+    }
+
+    DraftOrderStore(long ttlMinutes, long maxMb, Ticker ticker) {
+        this.drafts = Caffeine.newBuilder()
+                .expireAfterAccess(ttlMinutes, TimeUnit.MINUTES)
+                .maximumWeight(maxMb * 1024 * 1024)
+                .weigher((String id, byte[] draft) -> draft.length)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The session's draft, or a new empty order if it has none (or it expired). The returned order is
+     * a copy; change the draft through {@link #addTaco}.
+     */
+    public Order get(HttpSession session) {
+        String id = (String) session.getAttribute(DRAFT_ATTRIBUTE);
+        byte[] draft = id != null ? drafts.getIfPresent(id) : null;
+        return draft != null ? OrderRecords.decode(draft) : new Order();
+    }
+
+    public void addTaco(HttpSession session, Taco taco) {
+        drafts.asMap().compute(draftId(session), (id, draft) -> {
+            Order order = draft != null ? OrderRecords.decode(draft) : new Order();
+            order.addTaco(taco);
+            return OrderRecords.encode(order);
+        });
+    }
+
+    /**
+     * Drops the session's draft once the order is placed.
+     */
+    public void remove(HttpSession session) {
+        String id = (String) session.getAttribute(DRAFT_ATTRIBUTE);
+        if (id != null) {
+            drafts.invalidate(id);
+            session.removeAttribute(DRAFT_ATTRIBUTE);
+        }
+    }
+
+    private static String draftId(HttpSession session) {
+        String id = (String) session.getAttribute(DRAFT_ATTRIBUTE);
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+            session.setAttribute(DRAFT_ATTRIBUTE, id);
+        }
+        return id;
+    }
+
+    long size() {
+        return drafts.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, drafts, "draftOrders");
+        Gauge.builder("order.drafts.bytes", drafts, cache -> cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L)).register(registry);
+    }
+}
@@ -0,0 +1,156 @@
+package com.demo.web.application.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import com.demo.web.application.dto.Ingredient;
+import com.demo.web.application.repository.IngredientRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ingredients from the Ingredient table, grouped by type once per load into immutable lists.
+ * The design page gets a prebuilt model map, so rendering it does no catalog work. Changes made
+ * through {@link #save} and {@link #delete} reload the catalog right away; changes made directly in
+ * the database are picked up by a periodic reload ({@code ingredient.catalog.refresh-seconds}, 0 = off).
+ */
+@Service
+@Slf4j
+public class IngredientCatalog implements ApplicationRunner {
+
+    /**
+     * One immutable load of the catalog. Replaced, never mutated.
+     */
+    private record Catalog(Map<Ingredient.Type, List<Ingredient>> byType, Map<String, Ingredient> byId,
+                           Map<String, Object> designModel) {
+
+        static final Catalog EMPTY = of(List.of());
+
+        static Catalog of(List<Ingredient> ingredients) {
+            Map<Ingredient.Type, List<Ingredient>> grouped = new EnumMap<>(Ingredient.Type.class);
+            for (Ingredient.Type type : Ingredient.Type.values()) {
+                grouped.put(type, new ArrayList<>());
+            }
+            Map<String, Ingredient> byId = new HashMap<>();
+            for (Ingredient ingredient : ingredients) {
+                grouped.get(ingredient.getType()).add(ingredient);
+                byId.put(ingredient.getId(), ingredient);
+            }
+            Map<Ingredient.Type, List<Ingredient>> byType = new EnumMap<>(Ingredient.Type.class);
+            // attribute names used by design.html: wrap, protein, veggies, cheese, sauce
+            Map<String, Object> designModel = new LinkedHashMap<>();
+            grouped.forEach((type, list) -> {
+                List<Ingredient> immutable = List.copyOf(list);
+                byType.put(type, immutable);
+                designModel.put(type.name().toLowerCase(Locale.ROOT), immutable);
+            });
+            return new Catalog(Collections.unmodifiableMap(byType), Map.copyOf(byId),
+                    Collections.unmodifiableMap(designModel));
+        }
+    }
+
+    private static final Comparator<Ingredient> BY_ID = Comparator.comparing(Ingredient::getId);
+
+    private final IngredientRepository ingredientRepository;
+    private final long refreshSeconds;
+    private final ScheduledExecutorService background;
+
+    private volatile Catalog catalog = Catalog.EMPTY;
+
+    public IngredientCatalog(IngredientRepository ingredientRepository,
+                             @Value("${ingredient.catalog.refresh-seconds:300}") long refreshSeconds) {
+        this.ingredientRepository = ingredientRepository;
+        this.refreshSeconds = refreshSeconds;
+        this.background = refreshSeconds > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ingredient-catalog");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+        if (background != null) {
+            background.scheduleWithFixedDelay(this::refreshQuietly, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (background != null) {
+            background.shutdownNow();
+        }
+    }
+
+    /**
+     * Reloads the catalog from the database and publishes it.
+     */
+    public void refresh() {
+        List<Ingredient> ingredients = new ArrayList<>(ingredientRepository.findAll());
+        ingredients.sort(BY_ID);
+        catalog = Catalog.of(ingredients);
+        log.debug("Ingredient catalog loaded: {} ingredients", ingredients.size());
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Ingredient catalog refresh failed, keeping the previous one", e);
+        }
+    }
+
+    /**
+     * Saves (in its own transaction) and then reloads, so the catalog only ever shows committed data.
+     */
+    public Ingredient save(Ingredient ingredient) {
+        Ingredient saved = ingredientRepository.save(ingredient);
+        refresh();
+        return saved;
+    }
+
+    public void delete(String id) {
+        ingredientRepository.deleteById(id);
+        refresh();
+    }
+
+    /**
+     * Immutable list for the type; empty if none.
+     */
+    public List<Ingredient> byType(Ingredient.Type type) {
+        return catalog.byType().get(type);
+    }
+
+    public Ingredient get(String id) {
+        return catalog.byId().get(id);
+    }
+
+    public int size() {
+        return catalog.byId().size();
+    }
+
+    /**
+     * Model attributes for the design page, one immutable list per type keyed by the lower-case type
+     * name. The same map is returned until the catalog changes.
+     */
+    public Map<String, Object> designModel() {
+        return catalog.designModel();
+    }
+}
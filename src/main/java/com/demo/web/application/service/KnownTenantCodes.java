@@ -0,0 +1,63 @@
+package com.demo.web.application.service;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over every tenant code in the database, used in lazy-load mode to turn away codes
+ * that cannot exist without a query. False positives (about 1%) fall through to
+ * {@link UnknownTenantCodes}; there are no false negatives as long as new tenants are added.
+ */
+final class KnownTenantCodes {
+
+    private static final int HASHES = 7;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+
+    private KnownTenantCodes(long bitCount) {
+        this.bitCount = bitCount;
+        this.bits = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+    }
+
+    /**
+     * Sized for the given normalized codes at a 1% false-positive rate, with room to grow 2x.
+     */
+    static KnownTenantCodes of(Collection<String> codes) {
+        // m = -n ln(p) / ln(2)^2 ~= 9.6 bits per code for p = 1%
+        long bitCount = Math.max(1024, (long) (Math.max(codes.size(), 1) * 2 * 9.6));
+        KnownTenantCodes filter = new KnownTenantCodes(bitCount);
+        codes.forEach(code -> filter.add(TenantCodes.hash(code)));
+        return filter;
+    }
+
+    void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASHES; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                // lost a race with another add to the same word; retry
+            }
+        }
+    }
+
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASHES; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        return (combined & 0x7fffffffL) % bitCount;
+    }
+}
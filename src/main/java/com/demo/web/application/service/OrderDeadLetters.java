@@ -0,0 +1,93 @@
+package com.demo.web.application.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only file of write-ahead log records the database rejected, so one bad order does not hold
+ * up the ones behind it. Each record is {@code [long sequence][utf reason][int length][payload]}; the
+ * payload is the {@link OrderRecords} bytes as they were logged, ready to be fixed and resubmitted.
+ * <p>
+ * Only the drain thread writes. Every record is forced to disk before the log is checkpointed past it.
+ */
+final class OrderDeadLetters implements Closeable {
+
+    private static final int MAX_REASON_LENGTH = 1000;
+
+    private final FileChannel channel;
+
+    record DeadLetter(long sequence, String reason, byte[] payload) {
+    }
+
+    OrderDeadLetters(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    void append(OrderWriteAheadLog.Entry entry, String reason) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.payload().length + 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(entry.sequence());
+            out.writeUTF(reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason);
+            out.writeInt(entry.payload().length);
+            out.write(entry.payload());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write dead-letter record " + entry.sequence(), e);
+        }
+    }
+
+    /**
+     * Reads every record in a dead-letter file, oldest first.
+     */
+    static List<DeadLetter> read(Path file) throws IOException {
+        List<DeadLetter> letters = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return letters;
+        }
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                long sequence;
+                try {
+                    sequence = data.readLong();
+                } catch (EOFException e) {
+                    return letters;
+                }
+                String reason = data.readUTF();
+                byte[] payload = new byte[data.readInt()];
+                data.readFully(payload);
+                letters.add(new DeadLetter(sequence, reason, payload));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.web.application.service;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * order.ingestion.* settings for {@link OrderIngestionService}.
+ *
+ * @param writeBehind          acknowledge orders once they are in the local write-ahead log and persist
+ *                             them in the background; false = write to the database in the request
+ * @param walFile              write-ahead log file (memory-mapped)
+ * @param walSizeMb            log capacity; when it is full, orders are written synchronously
+ * @param batchSize            orders per database transaction when draining
+ * @param flushIntervalMillis  how often the log is drained (sooner when a full batch is waiting)
+ * @param syncWrites           force each entry to disk before acknowledging; false leaves it to the OS
+ *                             (survives a process crash, not a power loss)
+ * @param deadLetterFile       where orders the database rejects are moved, so they do not block the log
+ */
+@ConfigurationProperties(prefix = "order.ingestion")
+public record OrderIngestionProperties(
+        @DefaultValue("false") boolean writeBehind,
+        @DefaultValue("data/orders.wal") Path walFile,
+        @DefaultValue("64") int walSizeMb,
+        @DefaultValue("200") int batchSize,
+        @DefaultValue("200") long flushIntervalMillis,
+        @DefaultValue("true") boolean syncWrites,
+        @DefaultValue("data/orders.dead") Path deadLetterFile) {
+
+    /**
+     * Same defaults as an empty configuration (synchronous writes).
+     */
+    public static OrderIngestionProperties defaults() {
+        return new OrderIngestionProperties(false, Path.of("data/orders.wal"), 64, 200, 200, true,
+                Path.of("data/orders.dead"));
+    }
+
+    public OrderIngestionProperties withWriteBehind(Path walFile) {
+        return new OrderIngestionProperties(true, walFile, walSizeMb, batchSize, flushIntervalMillis, syncWrites,
+                deadLetterFile);
+    }
+}
@@ -0,0 +1,293 @@
+package com.demo.web.application.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.User;
+import com.demo.web.application.repository.OrderRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Entry point for submitted orders. By default orders go straight to {@link OrderService}. With
+ * {@code order.ingestion.write-behind=true} they are appended to an {@link OrderWriteAheadLog} and
+ * acknowledged; a background thread drains the log into the database in batches of
+ * {@code batch-size} every {@code flush-interval-millis} (or as soon as a full batch is waiting).
+ * <p>
+ * Records left in the log by a crash are replayed on startup. Each order carries an ingest key, so
+ * records whose transaction committed just before the crash are recognized and skipped; the same check
+ * runs when a batch is retried after a failed or ambiguous commit. If the database is down, draining
+ * stops and is retried on the next tick; if the log fills up, orders are written synchronously again.
+ * <p>
+ * If the database rejects a batch for any other reason, its orders are written one transaction each
+ * and the ones rejected on their own are moved to the dead-letter file ({@link OrderDeadLetters}), so
+ * one bad order cannot hold up the orders behind it. The card number and CVV are never logged: see
+ * {@link OrderRecords}.
+ */
+@Service
+@Slf4j
+public class OrderIngestionService implements ApplicationRunner, MeterBinder {
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final OrderIngestionProperties properties;
+    private final OrderWriteAheadLog wal;
+    private final OrderDeadLetters deadLetters;
+    private final ScheduledExecutorService drainer;
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    /**
+     * Last record of a write attempt that failed; it may have committed anyway, so records up to here
+     * are checked against the database before they are written again. Drain thread only.
+     */
+    private long uncertainThrough;
+
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong replaySkipped = new AtomicLong();
+    private final AtomicLong logFull = new AtomicLong();
+    private final AtomicLong drainFailures = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    public OrderIngestionService(OrderService orderService, OrderRepository orderRepository,
+                                 OrderIngestionProperties properties) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.properties = properties;
+        if (properties.writeBehind()) {
+            try {
+                this.wal = new OrderWriteAheadLog(properties.walFile(), properties.walSizeMb() * 1024 * 1024,
+                        properties.syncWrites());
+                this.deadLetters = new OrderDeadLetters(properties.deadLetterFile());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open order log " + properties.walFile(), e);
+            }
+            this.drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "order-drain");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (wal.pending() > 0) {
+                log.info("Order log {} has {} orders to replay", properties.walFile(), wal.pending());
+            }
+        } else {
+            this.wal = null;
+            this.deadLetters = null;
+            this.drainer = null;
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (drainer != null) {
+            // the first run replays whatever a previous process left behind
+            drainer.scheduleWithFixedDelay(this::drain, 0, properties.flushIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (drainer != null) {
+            drainer.shutdown();
+            try {
+                drainer.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // whatever is still pending is replayed on the next start
+            wal.close();
+            deadLetters.close();
+        }
+    }
+
+    /**
+     * Takes a submitted order.
+     *
+     * @return true if the order was written to the database before returning, false if it was
+     * logged and will be written in the background
+     */
+    public boolean submit(Order order, User user) {
+        if (wal == null) {
+            orderService.placeOrder(order, user);
+            return true;
+        }
+        Order logged = new Order();
+        logged.setIngestKey(UUID.randomUUID().toString());
+        logged.setPlacedAt(Instant.now());
+        logged.setUser(user);
+        logged.setName(order.getName());
+        logged.setStreet(order.getStreet());
+        logged.setCity(order.getCity());
+        logged.setState(order.getState());
+        logged.setZip(order.getZip());
+        logged.setCcLast4(order.getCcLast4());
+        logged.setCcExpiration(order.getCcExpiration());
+        logged.setTacos(order.getTacos());
+        if (wal.append(OrderRecords.encode(logged)) < 0) {
+            logFull.incrementAndGet();
+            log.warn("Order log {} is full, writing order synchronously", properties.walFile());
+            orderService.placeOrder(order, user);
+            return true;
+        }
+        if (wal.pending() >= properties.batchSize() && drainRequested.compareAndSet(false, true)) {
+            try {
+                drainer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // shutting down; the record stays in the log for the next start
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes logged orders to the database, one transaction per batch, until the log is empty or the
+     * database is unavailable.
+     *
+     * @return orders written
+     */
+    int drain() {
+        drainRequested.set(false);
+        int total = 0;
+        try {
+            List<OrderWriteAheadLog.Entry> batch;
+            while (!(batch = wal.read(properties.batchSize())).isEmpty()) {
+                int written = write(batch);
+                wal.checkpoint(batch.get(batch.size() - 1));
+                drained.addAndGet(written);
+                total += written;
+            }
+        } catch (RuntimeException e) {
+            drainFailures.incrementAndGet();
+            log.warn("Draining order log failed, {} orders pending; retrying in {} ms", wal.pending(),
+                    properties.flushIntervalMillis(), e);
+        }
+        return total;
+    }
+
+    /**
+     * Writes one batch; throws if the database is unavailable, in which case nothing may be checkpointed.
+     */
+    private int write(List<OrderWriteAheadLog.Entry> batch) {
+        List<Logged> records = new ArrayList<>(batch.size());
+        for (OrderWriteAheadLog.Entry entry : batch) {
+            try {
+                records.add(new Logged(entry, OrderRecords.decode(entry.payload()).getIngestKey()));
+            } catch (IllegalArgumentException e) {
+                deadLetter(entry, e);
+            }
+        }
+        if (batch.get(0).sequence() <= Math.max(wal.recoveredThrough(), uncertainThrough)) {
+            records = withoutPersisted(records);
+        }
+        if (records.isEmpty()) {
+            return 0;
+        }
+        try {
+            orderService.placeOrders(records.stream().map(Logged::decode).toList());
+            return records.size();
+        } catch (RuntimeException e) {
+            uncertainThrough = batch.get(batch.size() - 1).sequence();
+            if (isUnavailable(e)) {
+                throw e;
+            }
+            log.warn("Batch of {} logged orders was rejected, writing them one at a time", records.size(), e);
+        }
+        int written = 0;
+        for (Logged record : records) {
+            try {
+                orderService.placeOrders(List.of(record.decode()));
+                written++;
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    throw e;
+                }
+                if (withoutPersisted(List.of(record)).isEmpty()) {
+                    // an earlier, ambiguous attempt did commit it
+                    continue;
+                }
+                deadLetter(record.entry(), e);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Failures worth retrying as they are: the database or the connection to it, not the order.
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException
+                || e instanceof TransactionSystemException;
+    }
+
+    private void deadLetter(OrderWriteAheadLog.Entry entry, Exception cause) {
+        deadLetters.append(entry, String.valueOf(cause));
+        deadLettered.incrementAndGet();
+        log.error("Moved order log record {} to {}", entry.sequence(), properties.deadLetterFile(), cause);
+    }
+
+    /**
+     * Orders whose transaction committed before a crash or a failed attempt, but whose checkpoint did not.
+     */
+    private List<Logged> withoutPersisted(List<Logged> records) {
+        List<String> keys = records.stream().map(Logged::ingestKey).toList();
+        Set<String> persisted = orderRepository.findExistingIngestKeys(keys);
+        if (persisted.isEmpty()) {
+            return records;
+        }
+        replaySkipped.addAndGet(persisted.size());
+        return records.stream().filter(record -> !persisted.contains(record.ingestKey())).toList();
+    }
+
+    /**
+     * A log record and its ingest key. The order is decoded again for every attempt: a failed save
+     * leaves generated ids on the entities it was given.
+     */
+    private record Logged(OrderWriteAheadLog.Entry entry, String ingestKey) {
+
+        Order decode() {
+            return OrderRecords.decode(entry.payload());
+        }
+    }
+
+    public long pending() {
+        return wal != null ? wal.pending() : 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("orders.log.pending", this, OrderIngestionService::pending).register(registry);
+        FunctionCounter.builder("orders.log.drained", drained, AtomicLong::get).register(registry);
+        FunctionCounter.builder("orders.log.replay.skipped", replaySkipped, AtomicLong::get).register(registry);
+        FunctionCounter.builder("orders.log.full", logFull, AtomicLong::get).register(registry);
+        FunctionCounter.builder("orders.log.drain.failures", drainFailures, AtomicLong::get).register(registry);
+        FunctionCounter.builder("orders.log.dead.lettered", deadLettered, AtomicLong::get).register(registry);
+    }
+}
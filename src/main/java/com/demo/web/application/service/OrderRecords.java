@@ -0,0 +1,121 @@
+package com.demo.web.application.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.Taco;
+import com.demo.web.application.dto.User;
+
+/**
+ * Binary form of an order in the write-ahead log and the draft order store. Only what the form submits
+ * plus the user id, the acceptance time and the ingest key; the user itself is re-attached by id when
+ * the order is saved.
+ * <p>
+ * Card data is reduced to what the database keeps: the last four digits and the expiry. The full
+ * number and the CVV never reach the log file. Version 1 records, which held both, are still read so
+ * a log written before the upgrade can be replayed; their number is cut to four digits on decode and
+ * their CVV is discarded.
+ */
+final class OrderRecords {
+
+    private static final int VERSION = 2;
+    private static final int VERSION_WITH_CARD_NUMBER = 1;
+
+    private OrderRecords() {
+    }
+
+    static byte[] encode(Order order) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeString(out, order.getIngestKey());
+            out.writeLong(order.getUser() != null && order.getUser().getId() != null ? order.getUser().getId() : -1);
+            out.writeLong(order.getPlacedAt() != null ? order.getPlacedAt().toEpochMilli() : -1);
+            writeString(out, order.getName());
+            writeString(out, order.getStreet());
+            writeString(out, order.getCity());
+            writeString(out, order.getState());
+            writeString(out, order.getZip());
+            writeString(out, order.getCcLast4());
+            writeString(out, order.getCcExpiration());
+            out.writeInt(order.getTacos().size());
+            for (Taco taco : order.getTacos()) {
+                writeString(out, taco.getName());
+                List<String> ingredients = taco.getIngredients() != null ? taco.getIngredients() : List.of();
+                out.writeInt(ingredients.size());
+                for (String ingredient : ingredients) {
+                    writeString(out, ingredient);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Order decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION && version != VERSION_WITH_CARD_NUMBER) {
+                throw new IllegalArgumentException("Unknown order record version " + version);
+            }
+            Order order = new Order();
+            order.setIngestKey(readString(in));
+            long userId = in.readLong();
+            if (userId >= 0) {
+                User user = new User();
+                user.setId(userId);
+                order.setUser(user);
+            }
+            long placedAt = in.readLong();
+            order.setPlacedAt(placedAt >= 0 ? Instant.ofEpochMilli(placedAt) : null);
+            order.setName(readString(in));
+            order.setStreet(readString(in));
+            order.setCity(readString(in));
+            order.setState(readString(in));
+            order.setZip(readString(in));
+            if (version == VERSION_WITH_CARD_NUMBER) {
+                order.setCcLast4(Order.lastFourDigits(readString(in)));
+                order.setCcExpiration(readString(in));
+                readString(in);
+            } else {
+                order.setCcLast4(readString(in));
+                order.setCcExpiration(readString(in));
+            }
+            int tacoCount = in.readInt();
+            for (int i = 0; i < tacoCount; i++) {
+                Taco taco = new Taco();
+                taco.setName(readString(in));
+                int ingredientCount = in.readInt();
+                List<String> ingredients = new ArrayList<>(ingredientCount);
+                for (int j = 0; j < ingredientCount; j++) {
+                    ingredients.add(readString(in));
+                }
+                taco.setIngredients(ingredients);
+                order.addTaco(taco);
+            }
+            return order;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt order record", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.demo.web.application.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.Taco;
+import com.demo.web.application.dto.User;
+import com.demo.web.application.repository.OrderRepository;
+import com.demo.web.application.repository.UserRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persists a submitted order with its tacos and ingredient links in one transaction. Everything is
+ * written at commit, so with {@code hibernate.jdbc.batch_size} and {@code order_inserts} each table
+ * gets one batched insert per order instead of one statement per row.
+ */
+@Service
+@Slf4j
+public class OrderService {
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+
+    public OrderService(OrderRepository orderRepository, UserRepository userRepository) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Transactional
+    public Order placeOrder(Order order, User user) {
+        order.clearId();
+        order.setIngestKey(null);
+        prepare(order, user, Instant.now());
+        Order saved = orderRepository.save(order);
+        log.debug("Placed order {} with {} tacos", saved.getId(), saved.getTacos().size());
+        return saved;
+    }
+
+    /**
+     * Saves orders drained from the write-ahead log. They keep the time they were accepted at and
+     * reference their user by id only.
+     */
+    @Transactional
+    public List<Order> placeOrders(List<Order> orders) {
+        for (Order order : orders) {
+            prepare(order, order.getUser(), order.getPlacedAt() != null ? order.getPlacedAt() : Instant.now());
+        }
+        return orderRepository.saveAll(orders);
+    }
+
+    private void prepare(Order order, User user, Instant placedAt) {
+        order.setPlacedAt(placedAt);
+        // the principal may be a detached cached copy; only its id is needed for the foreign key
+        order.setUser(user != null && user.getId() != null ? userRepository.getReferenceById(user.getId()) : null);
+        for (Taco taco : order.getTacos()) {
+            taco.setCreatedAt(placedAt);
+        }
+    }
+}
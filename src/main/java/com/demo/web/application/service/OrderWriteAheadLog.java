@@ -0,0 +1,217 @@
+package com.demo.web.application.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of accepted orders in a fixed-size memory-mapped file.
+ * <p>
+ * Layout: a header (magic, checkpoint offset, checkpoint sequence) followed by records of
+ * {@code [int length][int crc32c][long sequence][payload]}. Everything before the checkpoint has
+ * reached the database. Sequences increase by one per record, so on open the log is scanned from the
+ * checkpoint until a record is torn, fails its checksum or has an unexpected sequence; the valid
+ * records found are the ones still to replay. Once the reader catches up with the writer the log
+ * restarts at the front; records left over from earlier passes have lower sequences and are ignored.
+ * <p>
+ * Single reader (the drain thread), any number of writers.
+ */
+final class OrderWriteAheadLog implements Closeable {
+
+    private static final int MAGIC = 0x4F57414C; // "OWAL"
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_HEADER_BYTES = 16;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean sync;
+
+    /**
+     * A lock rather than synchronized: appends block on force(), which would pin the carrier thread
+     * when requests run on virtual threads.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int writeOffset;
+    private long nextSequence;
+    private int checkpointOffset;
+    private long checkpointSequence;
+    private final long recoveredThrough;
+
+    record Entry(long sequence, int endOffset, byte[] payload) {
+    }
+
+    OrderWriteAheadLog(Path file, int capacity, boolean sync) throws IOException {
+        this.file = file;
+        this.sync = sync;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // never map less than an existing log holds, or a smaller setting would drop pending records
+        this.capacity = (int) Math.max(capacity, channel.size());
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, this.capacity);
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            writeCheckpoint(HEADER_BYTES, 1);
+        }
+        this.checkpointOffset = (int) buffer.getLong(8);
+        this.checkpointSequence = buffer.getLong(16);
+        recover();
+        this.recoveredThrough = nextSequence - 1;
+    }
+
+    private void recover() {
+        int offset = checkpointOffset;
+        long sequence = checkpointSequence;
+        CRC32C crc = new CRC32C();
+        while (offset + RECORD_HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_BYTES + length > capacity
+                    || buffer.getLong(offset + 8) != sequence) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(offset + RECORD_HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            offset += RECORD_HEADER_BYTES + length;
+            sequence++;
+        }
+        writeOffset = offset;
+        nextSequence = sequence;
+    }
+
+    /**
+     * Appends one record and, with sync on, forces it to disk before returning.
+     *
+     * @return the record's sequence, or -1 if the log has no room for it
+     */
+    long append(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        lock.lock();
+        try {
+            int offset = writeOffset;
+            int size = RECORD_HEADER_BYTES + payload.length;
+            if (offset + size > capacity) {
+                return -1;
+            }
+            long sequence = nextSequence;
+            buffer.putLong(offset + 8, sequence);
+            buffer.putInt(offset + 4, (int) crc.getValue());
+            buffer.put(offset + RECORD_HEADER_BYTES, payload);
+            // length last: a record without its length is not a record
+            buffer.putInt(offset, payload.length);
+            if (sync) {
+                buffer.force(offset, size);
+            }
+            writeOffset = offset + size;
+            nextSequence = sequence + 1;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code max} records after the checkpoint, oldest first. Reading does not consume them;
+     * {@link #checkpoint(Entry)} does.
+     */
+    List<Entry> read(int max) {
+        int offset;
+        long sequence;
+        long end;
+        lock.lock();
+        try {
+            offset = checkpointOffset;
+            sequence = checkpointSequence;
+            end = nextSequence;
+        } finally {
+            lock.unlock();
+        }
+        // records before nextSequence are complete and never rewritten until checkpointed
+        List<Entry> entries = new ArrayList<>((int) Math.min(max, end - sequence));
+        while (sequence < end && entries.size() < max) {
+            int length = buffer.getInt(offset);
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, payload);
+            offset += RECORD_HEADER_BYTES + length;
+            entries.add(new Entry(sequence, offset, payload));
+            sequence++;
+        }
+        return entries;
+    }
+
+    /**
+     * Marks everything up to and including {@code last} as persisted. When nothing is left the log
+     * starts again at the front.
+     */
+    void checkpoint(Entry last) {
+        lock.lock();
+        try {
+            long next = last.sequence() + 1;
+            if (next == nextSequence) {
+                writeOffset = HEADER_BYTES;
+                writeCheckpoint(HEADER_BYTES, next);
+            } else {
+                writeCheckpoint(last.endOffset(), next);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeCheckpoint(int offset, long sequence) {
+        buffer.putLong(8, offset);
+        buffer.putLong(16, sequence);
+        if (sync) {
+            buffer.force(0, HEADER_BYTES);
+        }
+        checkpointOffset = offset;
+        checkpointSequence = sequence;
+    }
+
+    /**
+     * Records not yet checkpointed.
+     */
+    long pending() {
+        lock.lock();
+        try {
+            return nextSequence - checkpointSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Highest sequence that was already in the log when it was opened (0 if none). Those records may
+     * have reached the database before a crash.
+     */
+    long recoveredThrough() {
+        return recoveredThrough;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
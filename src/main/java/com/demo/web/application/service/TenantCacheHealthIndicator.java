@@ -0,0 +1,28 @@
+package com.demo.web.application.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "tenantCache" health: DOWN until {@link TenantCacheService} has published its initial load. Part of
+ * the readiness group (management.endpoint.health.group.readiness.include), so
+ * /actuator/health/readiness only reports UP once tenant lookups can succeed.
+ */
+@Component
+public class TenantCacheHealthIndicator implements HealthIndicator {
+
+    private final TenantCacheService tenantCacheService;
+
+    public TenantCacheHealthIndicator(TenantCacheService tenantCacheService) {
+        this.tenantCacheService = tenantCacheService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = tenantCacheService.isInitialLoadPublished() ? Health.up() : Health.down();
+        return health.withDetail("version", tenantCacheService.getVersion())
+                .withDetail("size", tenantCacheService.size())
+                .build();
+    }
+}
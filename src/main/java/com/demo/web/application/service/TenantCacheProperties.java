@@ -0,0 +1,50 @@
+package com.demo.web.application.service;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * tenant.cache.* settings for {@link TenantCacheService}.
+ *
+ * @param lazyLoad            load tenants on first request instead of all at startup
+ * @param negativeSize        lazy mode: slots in the not-found cache
+ * @param negativeTtlSeconds  lazy mode: how long a not-found code is remembered
+ * @param maxSize             lazy mode: max cached tenants (ignored when memoryBudgetMb is set)
+ * @param memoryBudgetMb      lazy mode: bound the cache by estimated heap size instead of count; 0 = off
+ * @param warmupFile          lazy mode: where the hottest codes are saved and reloaded from; unset = off
+ * @param warmupCount         lazy mode: how many of the hottest codes to save/preload
+ * @param warmupSaveSeconds   lazy mode: how often the warm-up file is rewritten
+ * @param refreshSeconds      how often changed tenants are reloaded from updated_at (catches changes
+ *                            made without an invalidation, e.g. lost datagrams or manual SQL); 0 = off
+ */
+@ConfigurationProperties(prefix = "tenant.cache")
+public record TenantCacheProperties(
+        @DefaultValue("false") boolean lazyLoad,
+        @DefaultValue("4096") int negativeSize,
+        @DefaultValue("30") long negativeTtlSeconds,
+        @DefaultValue("100000") long maxSize,
+        @DefaultValue("0") long memoryBudgetMb,
+        Path warmupFile,
+        @DefaultValue("1000") int warmupCount,
+        @DefaultValue("60") long warmupSaveSeconds,
+        @DefaultValue("300") long refreshSeconds) {
+
+    /**
+     * Same defaults as an empty configuration (preload mode).
+     */
+    public static TenantCacheProperties defaults() {
+        return new TenantCacheProperties(false, 4096, 30, 100_000, 0, null, 1000, 60, 300);
+    }
+
+    public TenantCacheProperties withLazyLoad(boolean lazyLoad) {
+        return new TenantCacheProperties(lazyLoad, negativeSize, negativeTtlSeconds, maxSize, memoryBudgetMb,
+                warmupFile, warmupCount, warmupSaveSeconds, refreshSeconds);
+    }
+
+    public TenantCacheProperties withWarmupFile(Path warmupFile) {
+        return new TenantCacheProperties(lazyLoad, negativeSize, negativeTtlSeconds, maxSize, memoryBudgetMb,
+                warmupFile, warmupCount, warmupSaveSeconds, refreshSeconds);
+    }
+}
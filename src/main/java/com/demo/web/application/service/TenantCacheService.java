@@ -1,8 +1,29 @@
 package com.demo.web.application.service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
@@ -10,51 +31,439 @@ import org.springframework.stereotype.Service;
 
 import com.demo.web.application.dto.Tenant;
 import com.demo.web.application.repository.TenantRepository;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.service.invalidation.TenantInvalidationBus;
+import com.demo.web.application.service.invalidation.TenantInvalidationEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Loads all tenants with roles and resources at startup into memory.
  * Avoids DB queries on every request with X-Tenant-ID header.
+ * Each tenant is compiled into a {@link TenantSnapshot} so authorities are not rebuilt per request.
+ * <p>
+ * The cache is copy-on-write: refreshes build a new immutable map off to the side and publish it
+ * atomically, so readers never see a half-loaded cache.
+ * Changes are announced through the {@link TenantInvalidationBus} so every node reloads only the
+ * affected tenants; a periodic incremental refresh (by updated_at) catches anything not announced.
+ * <p>
+ * Lookups probe a {@link TenantCodeIndex} with the raw header value, so neither hits nor misses
+ * allocate.
+ * <p>
+ * The initial load starts on a background thread as soon as this bean exists, so it overlaps the rest
+ * of context startup; {@link #run} waits for it, and {@link #isInitialLoadPublished()} drives the
+ * readiness probe ({@link TenantCacheHealthIndicator}).
+ * <p>
+ * With tenant.cache.lazy-load=true (see {@link TenantCacheProperties}) nothing is loaded before the
+ * application is ready. Tenants are loaded on first request into a size- or memory-bounded Caffeine
+ * cache (W-TinyLFU eviction); concurrent misses for one code share a single DB load. In the
+ * background, tenant codes are loaded into a Bloom filter - codes that are not in it or were recently
+ * not found are rejected without a query - and the hottest tenants saved by the previous run are
+ * preloaded. Changes invalidate cached tenants rather than reloading them.
+ * <p>
+ * Metrics: tenant.cache.size, tenant.cache.version, tenant.cache.staleness (seconds since last publish),
+ * tenant.cache.refresh (count/total time), tenant.cache.refresh.last (seconds), tenant.cache.loads
+ * (lazy loads), tenant.cache.rejected (unknown codes turned away without a query in lazy mode), and in
+ * lazy mode cache.* tagged cache=tenants plus tenant.cache.weight (estimated bytes).
  */
+@Slf4j
 @Service
-public class TenantCacheService implements ApplicationRunner {
+public class TenantCacheService implements ApplicationRunner, MeterBinder {
+
+    /**
+     * Overlap applied to the incremental high-water mark; updatedAt is written with the writer's clock.
+     */
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(5);
+
+    /**
+     * Max codes per IN (...) query when preloading hot tenants.
+     */
+    private static final int LOAD_CHUNK = 500;
+
+    /**
+     * Shared completed "unknown tenant" result; callers only read it.
+     */
+    private static final CompletableFuture<TenantSnapshot> NOT_FOUND = CompletableFuture.completedFuture(null);
 
     private final TenantRepository tenantRepository;
+    private final AuthorityRegistry authorityRegistry;
+    private final TenantInvalidationBus invalidationBus;
+    private final TenantCacheProperties properties;
 
     /**
-     * In-memory cache: tenant code -> Tenant (with roles and resources already loaded).
+     * Lazy mode only (null otherwise): demand-loaded tenants by normalized code, every code in the DB
+     * (replaced on full refresh) and recent not-found codes.
      */
-    private final Map<String, Tenant> tenantByCode = new ConcurrentHashMap<>();
+    private final AsyncCache<String, TenantSnapshot> lazyTenants;
+    private volatile KnownTenantCodes knownCodes;
+    private final UnknownTenantCodes unknownCodes;
+    private final ExecutorService loader;
+    private final ScheduledExecutorService background;
+
+    /**
+     * Published cache state: tenant code -> precompiled tenant snapshot. Replaced, never mutated.
+     * In lazy mode it stays empty and only carries the version.
+     */
+    private volatile CacheState state = CacheState.EMPTY;
+
+    /**
+     * Cache version at which each tenant changed, for tenants reloaded or dropped since the last full
+     * load; every other tenant last changed at {@link #baseRevision}. See {@link #getRevision}.
+     */
+    private final Map<String, Long> revisions = new ConcurrentHashMap<>();
+    private volatile long baseRevision;
+
+    /**
+     * Serializes refreshes. A lock rather than synchronized: refreshes block on JDBC, which would pin
+     * the carrier thread when running on virtual threads.
+     */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong refreshTotalNanos = new AtomicLong();
+    private volatile long lastRefreshNanos;
+    private volatile long publishedAtMillis;
+    private final AtomicLong lazyLoads = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
 
-    public TenantCacheService(TenantRepository tenantRepository) {
+    /**
+     * Completed once the first full load is published (in lazy mode: when startup begins).
+     */
+    private final CompletableFuture<Void> initialLoad = new CompletableFuture<>();
+    private final AtomicBoolean initialLoadStarted = new AtomicBoolean();
+
+    public TenantCacheService(TenantRepository tenantRepository, AuthorityRegistry authorityRegistry,
+                              TenantInvalidationBus invalidationBus, TenantCacheProperties properties) {
         this.tenantRepository = tenantRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.invalidationBus = invalidationBus;
+        this.properties = properties;
+        this.unknownCodes = new UnknownTenantCodes(properties.negativeSize(),
+                TimeUnit.SECONDS.toMillis(properties.negativeTtlSeconds()));
+        if (properties.lazyLoad()) {
+            // DB loads run on virtual threads: the Hikari pool, not a thread pool, bounds them
+            this.loader = Executors.newVirtualThreadPerTaskExecutor();
+            this.lazyTenants = buildLazyCache(properties, loader);
+        } else {
+            this.loader = null;
+            this.lazyTenants = null;
+        }
+        this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tenant-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    private static AsyncCache<String, TenantSnapshot> buildLazyCache(TenantCacheProperties properties,
+                                                                     ExecutorService loader) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().executor(loader).recordStats();
+        if (properties.memoryBudgetMb() > 0) {
+            builder.maximumWeight(properties.memoryBudgetMb() * 1024 * 1024)
+                    .weigher((String code, TenantSnapshot snapshot) -> snapshot.getEstimatedBytes());
+        } else {
+            builder.maximumSize(properties.maxSize());
+        }
+        return builder.buildAsync();
+    }
+
+    /**
+     * Eager mode: starts the initial load while the remaining beans are created and the web server
+     * starts.
+     */
+    @PostConstruct
+    public void startInitialLoad() {
+        if (lazyTenants == null && initialLoadStarted.compareAndSet(false, true)) {
+            Thread.ofPlatform().name("tenant-cache-load").daemon().start(this::initialLoad);
+        }
+    }
+
+    private void initialLoad() {
+        try {
+            loadCache();
+            initialLoad.complete(null);
+        } catch (RuntimeException e) {
+            initialLoad.completeExceptionally(e);
+        }
     }
 
     @Override
     public void run(ApplicationArguments args) {
-        loadCache();
+        if (lazyTenants == null) {
+            if (initialLoadStarted.compareAndSet(false, true)) {
+                initialLoad();
+            }
+            // Startup fails, as before, if the initial load did
+            try {
+                initialLoad.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            scheduleRefresh();
+            return;
+        }
+        initialLoad.complete(null);
+        // Startup does not wait: requests load what they need until the background work is done
+        background.execute(() -> {
+            loadCache();
+            warmUp();
+        });
+        if (properties.warmupFile() != null) {
+            background.scheduleWithFixedDelay(this::saveHottest, properties.warmupSaveSeconds(),
+                    properties.warmupSaveSeconds(), TimeUnit.SECONDS);
+        }
+        scheduleRefresh();
+    }
+
+    /**
+     * Periodic {@link #refreshChanged()}: picks up changes that were never announced on the
+     * invalidation bus (a lost datagram, a node that was down, a manual SQL fix).
+     */
+    private void scheduleRefresh() {
+        long seconds = properties.refreshSeconds();
+        if (seconds > 0) {
+            background.scheduleWithFixedDelay(() -> {
+                try {
+                    refreshChanged();
+                } catch (RuntimeException e) {
+                    log.warn("Incremental tenant cache refresh failed", e);
+                }
+            }, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        background.shutdownNow();
+        if (lazyTenants != null) {
+            saveHottest();
+            loader.shutdownNow();
+        }
     }
 
     /**
      * Loads all tenants (with roles and resources) from DB into cache.
      * Called at startup; can be called again to refresh after tenant/role changes.
+     * In lazy mode this reloads the set of known codes and drops cached tenants; they are reloaded
+     * on their next request.
      */
     public void loadCache() {
-        tenantByCode.clear();
-        tenantRepository.findAll().forEach(tenant -> {
-            // Tenant has EAGER roles, Role has EAGER resources - all loaded in one go
-            tenantByCode.put(tenant.getCode().toLowerCase().trim(), tenant);
-        });
-        System.out.println("=== Tenant cache loaded: " + tenantByCode.size() + " tenants ===");
+        refreshLock.lock();
+        try {
+            long startNanos = System.nanoTime();
+            Instant startedAt = Instant.now();
+            Map<String, TenantSnapshot> byCode = new HashMap<>();
+            if (lazyTenants != null) {
+                loadKnownCodes(tenantRepository.findAllCodes());
+                lazyTenants.synchronous().invalidateAll();
+                publish(byCode, startedAt, startNanos);
+                changedAll();
+                log.info("Tenant cache reset (lazy): codes loaded, tenants load on first request (version {})",
+                        state.version());
+                return;
+            }
+            // Roles and resources come from the same fetch-join select
+            long next = state.version() + 1;
+            tenantRepository.findAllWithRolesAndResources().forEach(tenant -> byCode.put(normalize(tenant.getCode()), compile(tenant, next)));
+            publish(byCode, startedAt, startNanos);
+            changedAll();
+            log.info("Tenant cache loaded: {} tenants (version {}) in {} ms", byCode.size(), state.version(),
+                    TimeUnit.NANOSECONDS.toMillis(lastRefreshNanos));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads only tenants whose row, roles or resources changed since the last published snapshot,
+     * and drops tenants that no longer exist. Falls back to a full load if nothing is cached yet.
+     * Runs every tenant.cache.refresh-seconds.
+     */
+    public void refreshChanged() {
+        refreshLock.lock();
+        try {
+            CacheState current = state;
+            if (current.loadedAt() == null) {
+                loadCache();
+                return;
+            }
+            long startNanos = System.nanoTime();
+            Instant startedAt = Instant.now();
+            List<Tenant> changed = tenantRepository.findChangedSince(current.loadedAt().minus(CLOCK_SKEW));
+            List<String> allCodes = tenantRepository.findAllCodes();
+            Set<String> existing = new HashSet<>();
+            allCodes.forEach(code -> existing.add(normalize(code)));
+
+            Map<String, TenantSnapshot> byCode = new HashMap<>(current.byCode());
+            Set<String> stale = new HashSet<>();
+            changed.forEach(tenant -> stale.add(normalize(tenant.getCode())));
+            byCode.keySet().forEach(code -> {
+                if (!existing.contains(code)) {
+                    stale.add(code);
+                }
+            });
+            byCode.keySet().retainAll(existing);
+            if (lazyTenants != null) {
+                loadKnownCodes(allCodes);
+                lazyTenants.synchronous().asMap().keySet().forEach(code -> {
+                    if (!existing.contains(code)) {
+                        stale.add(code);
+                    }
+                });
+                lazyTenants.synchronous().invalidateAll(stale);
+            } else {
+                long next = current.version() + 1;
+                changed.forEach(tenant -> byCode.put(normalize(tenant.getCode()), compile(tenant, next)));
+            }
+            publish(byCode, startedAt, startNanos);
+            changed(stale);
+            log.info("Tenant cache refreshed: {} changed, {} tenants (version {})", changed.size(), size(),
+                    state.version());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads just the given tenants on this node; codes no longer in the DB are dropped.
+     */
+    public void refreshTenants(Collection<String> codes) {
+        if (codes.isEmpty()) {
+            return;
+        }
+        Set<String> normalized = new HashSet<>();
+        codes.forEach(code -> normalized.add(normalize(code)));
+        refreshLock.lock();
+        try {
+            long startNanos = System.nanoTime();
+            Map<String, TenantSnapshot> byCode = new HashMap<>(state.byCode());
+            if (lazyTenants != null) {
+                // Codes may be new tenants: make them loadable; cached ones reload on next request
+                normalized.forEach(this::markKnown);
+                lazyTenants.synchronous().invalidateAll(normalized);
+            } else {
+                byCode.keySet().removeAll(normalized);
+                long next = state.version() + 1;
+                tenantRepository.findByCodeIn(normalized)
+                        .forEach(tenant -> byCode.put(normalize(tenant.getCode()), compile(tenant, next)));
+            }
+            publish(byCode, state.loadedAt(), startNanos);
+            changed(normalized);
+        } finally {
+            refreshLock.unlock();
+        }
     }
 
     /**
-     * Returns tenant by code from cache (no DB hit).
+     * Call after changing the given tenants (or their roles): reloads them here and on all other nodes.
+     * An empty collection reloads everything.
+     */
+    public void invalidate(Collection<String> codes) {
+        invalidationBus.publish(codes);
+    }
+
+    private void onInvalidation(TenantInvalidationEvent event) {
+        if (event.isFullRefresh()) {
+            loadCache();
+        } else {
+            refreshTenants(event.tenantCodes());
+        }
+    }
+
+    /**
+     * Returns tenant by code from cache (no DB hit), as a new detached entity copy.
      */
     public Optional<Tenant> getTenantByCode(String code) {
+        return Optional.ofNullable(getSnapshotByCode(code)).map(TenantSnapshot::toTenant);
+    }
+
+    /**
+     * Returns the precompiled tenant snapshot by code, or null if unknown. Used on the request path.
+     * In lazy mode a miss may block on a DB load (shared with concurrent requests for the same code).
+     */
+    public TenantSnapshot getSnapshotByCode(String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        String key = TenantCodes.key(code);
+        if (lazyTenants == null) {
+            return state.index().get(key, TenantCodes.hash(key));
+        }
+        return lazyLookup(key).join();
+    }
+
+    /**
+     * Non-blocking variant for the reactive request path: completes with the snapshot, or null if
+     * unknown. Only a lazy-mode miss completes later, when its DB load is done.
+     */
+    public CompletableFuture<TenantSnapshot> getSnapshotByCodeAsync(String code) {
         if (code == null || code.isBlank()) {
-            return Optional.empty();
+            return NOT_FOUND;
+        }
+        String key = TenantCodes.key(code);
+        if (lazyTenants == null) {
+            TenantSnapshot snapshot = state.index().get(key, TenantCodes.hash(key));
+            return snapshot != null ? CompletableFuture.completedFuture(snapshot) : NOT_FOUND;
+        }
+        return lazyLookup(key);
+    }
+
+    private CompletableFuture<TenantSnapshot> lazyLookup(String key) {
+        long hash = TenantCodes.hash(key);
+        // Well-formed headers ("acme") are used as the key as-is; others are normalized - but only
+        // after unknown codes have been turned away, so a flood of junk values allocates nothing
+        boolean wellFormed = TenantCodes.isNormalized(key);
+        if (!wellFormed && isKnownAbsent(hash)) {
+            return NOT_FOUND;
+        }
+        String normalized = wellFormed ? key : normalize(key);
+        CompletableFuture<TenantSnapshot> cached = lazyTenants.getIfPresent(normalized);
+        if (cached == null) {
+            if (wellFormed && isKnownAbsent(hash)) {
+                return NOT_FOUND;
+            }
+            cached = lazyTenants.get(normalized, (missing, executor) -> CompletableFuture.supplyAsync(() -> load(missing, hash), executor));
+        }
+        return cached;
+    }
+
+    /**
+     * Lazy mode: true if the code is not in the DB's code filter or was recently not found.
+     */
+    private boolean isKnownAbsent(long hash) {
+        KnownTenantCodes known = knownCodes;
+        if ((known != null && !known.mightContain(hash)) || unknownCodes.contains(hash, System.currentTimeMillis())) {
+            rejected.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lazy mode: loads one tenant. A null result is not cached by Caffeine; the code goes to the
+     * negative cache instead.
+     */
+    private TenantSnapshot load(String code, long hash) {
+        lazyLoads.incrementAndGet();
+        // read before the query: a change published while it runs must leave the snapshot behind
+        long revision = state.version();
+        List<Tenant> found = tenantRepository.findByCodeIn(Set.of(code));
+        if (found.isEmpty()) {
+            unknownCodes.add(hash, System.currentTimeMillis());
+            return null;
         }
-        return Optional.ofNullable(tenantByCode.get(code.toLowerCase().trim()));
+        return compile(found.get(0), revision);
     }
 
     /**
@@ -63,4 +472,183 @@ public class TenantCacheService implements ApplicationRunner {
     public void refreshCache() {
         loadCache();
     }
+
+    /**
+     * True once the initial load has been published; until then tenant lookups may miss.
+     */
+    public boolean isInitialLoadPublished() {
+        return initialLoad.isDone() && !initialLoad.isCompletedExceptionally();
+    }
+
+    /**
+     * Monotonic version of the published cache; increases on every refresh.
+     */
+    public long getVersion() {
+        return state.version();
+    }
+
+    /**
+     * Cache version at which the tenant (by normalized code) last changed: a full load changes every
+     * tenant, a refresh only the ones it reloads or drops. A snapshot whose {@link TenantSnapshot#getRevision()}
+     * is not older is current, however many other tenants changed since.
+     */
+    public long getRevision(String code) {
+        Long changed = revisions.get(code);
+        long base = baseRevision;
+        return changed != null && changed > base ? changed : base;
+    }
+
+    public int size() {
+        return lazyTenants != null ? lazyTenants.synchronous().asMap().size() : state.byCode().size();
+    }
+
+    /**
+     * All currently published snapshots (in lazy mode: the tenants cached right now).
+     */
+    public Collection<TenantSnapshot> snapshots() {
+        return lazyTenants != null ? lazyTenants.synchronous().asMap().values() : state.byCode().values();
+    }
+
+    /**
+     * Lazy mode: preloads the tenants saved by {@link #saveHottest()}, in chunks, skipping codes a
+     * request has loaded in the meantime.
+     */
+    void warmUp() {
+        Path file = properties.warmupFile();
+        if (file == null || !Files.isReadable(file)) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            List<String> codes = Files.readAllLines(file).stream()
+                    .map(String::trim)
+                    .filter(code -> !code.isEmpty())
+                    .limit(properties.warmupCount())
+                    .toList();
+            int loaded = 0;
+            for (int from = 0; from < codes.size(); from += LOAD_CHUNK) {
+                List<String> chunk = codes.subList(from, Math.min(from + LOAD_CHUNK, codes.size()));
+                long revision = state.version();
+                for (Tenant tenant : tenantRepository.findByCodeIn(chunk)) {
+                    TenantSnapshot snapshot = compile(tenant, revision);
+                    if (lazyTenants.asMap().putIfAbsent(normalize(tenant.getCode()), CompletableFuture.completedFuture(snapshot)) == null) {
+                        loaded++;
+                    }
+                }
+            }
+            log.info("Tenant cache warmed up: {} of {} saved tenants in {} ms", loaded, codes.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Tenant cache warm-up from {} failed", file, e);
+        }
+    }
+
+    /**
+     * Lazy mode: writes the codes of the hottest cached tenants (by Caffeine's frequency estimate)
+     * for the next start's warm-up.
+     */
+    void saveHottest() {
+        Path file = properties.warmupFile();
+        if (file == null) {
+            return;
+        }
+        try {
+            Map<String, TenantSnapshot> hottest = lazyTenants.synchronous().policy().eviction()
+                    .map(eviction -> eviction.hottest(properties.warmupCount()))
+                    .orElse(Map.of());
+            if (hottest.isEmpty()) {
+                return;
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, new ArrayList<>(hottest.keySet()));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not save hot tenants to {}", file, e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tenant.cache.size", this, TenantCacheService::size).register(registry);
+        Gauge.builder("tenant.cache.version", this, TenantCacheService::getVersion).register(registry);
+        Gauge.builder("tenant.cache.staleness", this, TenantCacheService::stalenessSeconds)
+                .baseUnit("seconds").register(registry);
+        Gauge.builder("tenant.cache.refresh.last", this, cache -> cache.lastRefreshNanos / 1e9)
+                .baseUnit("seconds").register(registry);
+        FunctionTimer.builder("tenant.cache.refresh", this,
+                cache -> cache.refreshCount.get(), cache -> cache.refreshTotalNanos.get(), TimeUnit.NANOSECONDS)
+                .register(registry);
+        FunctionCounter.builder("tenant.cache.loads", lazyLoads, AtomicLong::get).register(registry);
+        FunctionCounter.builder("tenant.cache.rejected", rejected, AtomicLong::get).register(registry);
+        if (lazyTenants != null) {
+            CaffeineCacheMetrics.monitor(registry, lazyTenants, "tenants");
+            Gauge.builder("tenant.cache.weight", lazyTenants, cache -> cache.synchronous().policy().eviction()
+                            .map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                    .baseUnit("bytes").register(registry);
+        }
+    }
+
+    private double stalenessSeconds() {
+        long publishedAt = publishedAtMillis;
+        return publishedAt == 0 ? Double.NaN : (System.currentTimeMillis() - publishedAt) / 1000.0;
+    }
+
+    private TenantSnapshot compile(Tenant tenant, long revision) {
+        return TenantSnapshot.compile(tenant, authorityRegistry, revision);
+    }
+
+    private void loadKnownCodes(Collection<String> codes) {
+        Set<String> normalized = new HashSet<>();
+        codes.forEach(code -> normalized.add(normalize(code)));
+        knownCodes = KnownTenantCodes.of(normalized);
+        unknownCodes.clear();
+    }
+
+    private void markKnown(String normalizedCode) {
+        long hash = TenantCodes.hash(normalizedCode);
+        KnownTenantCodes known = knownCodes;
+        if (known != null) {
+            known.add(hash);
+        }
+        unknownCodes.forget(hash);
+    }
+
+    private void publish(Map<String, TenantSnapshot> byCode, Instant loadedAt, long startNanos) {
+        Map<String, TenantSnapshot> published = Map.copyOf(byCode);
+        state = new CacheState(published, TenantCodeIndex.of(published), state.version() + 1, loadedAt);
+        long elapsed = System.nanoTime() - startNanos;
+        lastRefreshNanos = elapsed;
+        refreshCount.incrementAndGet();
+        refreshTotalNanos.addAndGet(elapsed);
+        publishedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * After a full load is published. Base first, so a tenant is never seen older than it was.
+     */
+    private void changedAll() {
+        baseRevision = state.version();
+        revisions.clear();
+    }
+
+    /**
+     * After a refresh of the given tenants is published.
+     */
+    private void changed(Collection<String> normalizedCodes) {
+        long version = state.version();
+        normalizedCodes.forEach(code -> revisions.put(code, version));
+    }
+
+    private static String normalize(String code) {
+        return TenantCodes.normalize(code);
+    }
+
+    /**
+     * Immutable published cache: snapshots by code (and the same as a lookup index), version, and the
+     * time the load started (high-water mark for the next incremental refresh).
+     */
+    private record CacheState(Map<String, TenantSnapshot> byCode, TenantCodeIndex index, long version,
+                              Instant loadedAt) {
+        static final CacheState EMPTY = new CacheState(Map.of(), TenantCodeIndex.EMPTY, 0, null);
+    }
 }
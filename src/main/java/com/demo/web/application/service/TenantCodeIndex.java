@@ -0,0 +1,58 @@
+package com.demo.web.application.service;
+
+import java.util.Map;
+
+/**
+ * Read-only open-addressing table of snapshots by normalized tenant code, probed with the raw header
+ * value (see {@link TenantCodes}). A lookup - hit or miss - allocates nothing; a miss usually ends at
+ * the first empty slot since the table is kept at most half full.
+ */
+final class TenantCodeIndex {
+
+    static final TenantCodeIndex EMPTY = of(Map.of());
+
+    private final long[] hashes;
+    private final String[] codes;
+    private final TenantSnapshot[] snapshots;
+    private final int mask;
+
+    private TenantCodeIndex(int capacity) {
+        this.hashes = new long[capacity];
+        this.codes = new String[capacity];
+        this.snapshots = new TenantSnapshot[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @param byCode snapshots keyed by normalized code
+     */
+    static TenantCodeIndex of(Map<String, TenantSnapshot> byCode) {
+        int capacity = Integer.highestOneBit(Math.max(byCode.size(), 1) * 2 - 1) << 1;
+        TenantCodeIndex index = new TenantCodeIndex(Math.max(capacity, 2));
+        byCode.forEach(index::insert);
+        return index;
+    }
+
+    TenantSnapshot get(String key, long hash) {
+        int slot = (int) hash & mask;
+        String code;
+        while ((code = codes[slot]) != null) {
+            if (hashes[slot] == hash && TenantCodes.matches(code, key)) {
+                return snapshots[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private void insert(String code, TenantSnapshot snapshot) {
+        long hash = TenantCodes.hash(code);
+        int slot = (int) hash & mask;
+        while (codes[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        codes[slot] = code;
+        snapshots[slot] = snapshot;
+    }
+}
@@ -0,0 +1,105 @@
+package com.demo.web.application.service;
+
+import com.demo.web.application.dto.Tenant;
+
+/**
+ * Tenant code normalization (trim + lower case) and a matching 64-bit hash that works directly on the
+ * raw X-Tenant-ID value, so request-path lookups need no {@code toLowerCase().trim()} copy.
+ * <p>
+ * Case folding is ASCII-only; values with other characters are normalized the slow way first
+ * ({@link #key(String)}), which keeps both paths consistent.
+ */
+final class TenantCodes {
+
+    private TenantCodes() {
+    }
+
+    static String normalize(String code) {
+        return Tenant.normalizeCode(code);
+    }
+
+    /**
+     * The value to hash/compare: the raw code itself when it is ASCII, otherwise its normalized form.
+     */
+    static String key(String raw) {
+        for (int i = 0; i < raw.length(); i++) {
+            if (raw.charAt(i) >= 0x80) {
+                return normalize(raw);
+            }
+        }
+        return raw;
+    }
+
+    /**
+     * Whether key is already in normalized form (no padding, no ASCII upper case), so it can be used
+     * as a map key without copying.
+     */
+    static boolean isNormalized(String key) {
+        if (key.isEmpty() || key.charAt(0) <= ' ' || key.charAt(key.length() - 1) <= ' ') {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash of the trimmed, ASCII-lower-cased code; equal for "Acme", " acme " and "ACME".
+     */
+    static long hash(String key) {
+        int from = start(key);
+        int to = end(key, from);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= fold(key.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        // FNV-1a spreads poorly in the low bits; finish with the murmur3 mixer
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Whether key (raw, possibly padded / upper case) normalizes to the already normalized code.
+     */
+    static boolean matches(String normalized, String key) {
+        int from = start(key);
+        int to = end(key, from);
+        if (to - from != normalized.length()) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (fold(key.charAt(i)) != normalized.charAt(i - from)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int start(String key) {
+        int from = 0;
+        while (from < key.length() && key.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int end(String key, int from) {
+        int to = key.length();
+        while (to > from && key.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,484 @@
+package com.demo.web.application.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demo.web.application.security.AuthorityRegistry;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk tenant onboarding. Tenants are read one at a time from a JSON array or NDJSON stream, validated
+ * and de-duplicated by code, and written in chunks (tenant.provisioning.chunk-size, 500), each chunk in
+ * its own transaction:
+ * <ul>
+ * <li>Roles and resources are resolved from maps loaded once per run; only names not seen before are
+ * inserted. Missing roles are created even if the tenant naming them is skipped, so re-running seed
+ * data restores them. A role's resources are used when the role is created - existing roles are not
+ * changed.</li>
+ * <li>Tenants, roles, resources and the link tables are written with JDBC batch inserts, and the
+ * generated ids are read back with one select per table and chunk. (The entities use IDENTITY ids,
+ * which stop Hibernate from batching inserts.)</li>
+ * <li>Codes that already exist are skipped, not updated.</li>
+ * <li>Tenants, roles and resources are inserted only if absent ({@code insert ... select ... where not
+ * exists}), so runs may overlap, here or on other nodes. Two runs creating the same code or name at
+ * the same moment are decided by the unique constraints (uk_tenants_code, uk_roles_name,
+ * uk_resources_name): the loser's chunk is rolled back and retried, and then finds the winner's rows.
+ * Only the run that created a role links its resources.</li>
+ * </ul>
+ * After the last chunk the new tenants are announced with a single cache invalidation - per code for
+ * small runs, otherwise a full reload.
+ * <p>
+ * Chunks that were written stay written if a later chunk fails or the input turns out to be malformed
+ * (entries before the malformed one are still written); the result says how far the run got.
+ */
+@Slf4j
+@Service
+public class TenantProvisioningService {
+
+    /**
+     * Up to this many new tenants are reloaded by code (one IN query); more trigger a full reload.
+     */
+    static final int PER_CODE_REFRESH_LIMIT = 500;
+
+    /**
+     * Rejected entries listed in the result; the rest are only counted.
+     */
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final Pattern CODE = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+    private static final Pattern NAME = Pattern.compile("[A-Z][A-Z0-9_]{0,63}");
+    private static final int MAX_DISPLAY_NAME = 255;
+
+    /**
+     * Attempts per chunk when a concurrent run inserts the same code or name first.
+     */
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final TenantCacheService tenantCacheService;
+    private final ObjectReader reader;
+    private final int chunkSize;
+
+    public TenantProvisioningService(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                                     TenantCacheService tenantCacheService, ObjectMapper objectMapper,
+                                     @Value("${tenant.provisioning.chunk-size:500}") int chunkSize) {
+        this.jdbc = jdbc;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.tenantCacheService = tenantCacheService;
+        this.reader = objectMapper.readerFor(TenantSpec.class);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Provisions the tenants in the stream: a JSON array of {@link TenantSpec}s, or one per line
+     * (NDJSON). Reading stops at the first malformed entry; see {@link Result#error()}.
+     */
+    public Result provision(InputStream in) throws IOException {
+        return execute(run -> {
+            try (MappingIterator<TenantSpec> specs = reader.readValues(in)) {
+                while (specs.hasNextValue()) {
+                    run.accept(specs.nextValue());
+                }
+            } catch (JsonProcessingException e) {
+                // Entries before the malformed one are still written
+                run.error = "Malformed input after entry " + run.received + ": " + e.getOriginalMessage();
+            }
+        });
+    }
+
+    /**
+     * Provisions the given tenants, e.g. seed data. Running it again creates only what is missing.
+     */
+    public Result provision(Collection<TenantSpec> tenants) {
+        try {
+            return execute(run -> tenants.forEach(run::accept));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replaces the tenant's client secret hash (see TenantClientSecrets) and reloads the tenant on all
+     * nodes. The reload moves the tenant's revision, so neither the previous secret nor a token issued
+     * before can obtain new tokens. False if there is no such tenant.
+     */
+    public boolean setClientSecretHash(String code, String hash) {
+        String normalized = TenantCodes.normalize(code);
+        int updated = jdbc.update("update tenants set client_secret_hash = :hash, updated_at = :updatedAt "
+                        + "where code = :code",
+                new MapSqlParameterSource()
+                        .addValue("hash", hash)
+                        .addValue("updatedAt", Timestamp.from(Instant.now()))
+                        .addValue("code", normalized));
+        if (updated == 0) {
+            return false;
+        }
+        tenantCacheService.invalidate(List.of(normalized));
+        return true;
+    }
+
+    private Result execute(Source source) throws IOException {
+        Run run = new Run();
+        try {
+            source.feed(run);
+            run.flush();
+        } catch (DataAccessException e) {
+            log.warn("Tenant provisioning stopped after {} tenants", run.createdCodes.size(), e);
+            run.error = "Writing tenants failed: " + e.getMostSpecificCause().getMessage();
+        } finally {
+            run.publish();
+        }
+        return run.result();
+    }
+
+    private interface Source {
+        void feed(Run run) throws IOException;
+    }
+
+    /**
+     * One tenant to create. Codes are stored normalized (trimmed, lower case). Quota fields are
+     * optional (null = tenant.quota.* defaults, 0 = unlimited).
+     */
+    public record TenantSpec(String code, String displayName, List<RoleSpec> roles, Integer requestsPerSecond,
+                             Integer burstCapacity, Integer maxConcurrentRequests) {
+    }
+
+    /**
+     * A role by name (without ROLE_ prefix), either {"name": ..., "resources": [...]} or just "NAME".
+     */
+    public record RoleSpec(String name, List<String> resources) {
+
+        @JsonCreator
+        public RoleSpec {
+        }
+
+        @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+        public static RoleSpec named(String name) {
+            return new RoleSpec(name, List.of());
+        }
+    }
+
+    /**
+     * @param received         entries read from the stream
+     * @param created          tenants written
+     * @param existing         codes skipped because the tenant already exists
+     * @param duplicates       codes skipped because they appeared earlier in the stream
+     * @param invalid          entries rejected by validation (the first ones are listed in errors)
+     * @param rolesCreated     new roles
+     * @param resourcesCreated new resources
+     * @param error            why the run stopped early, or null if the whole stream was processed
+     */
+    public record Result(int received, int created, int existing, int duplicates, int invalid, int rolesCreated,
+                         int resourcesCreated, long millis, List<String> errors, String error) {
+    }
+
+    /**
+     * State of one provisioning run.
+     */
+    private final class Run {
+
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> roleIds = loadIds("select id, name from roles");
+        private final Map<String, Long> resourceIds = loadIds("select id, name from resources");
+        private final Set<String> seenCodes = new HashSet<>();
+        private final List<NewTenant> pending = new ArrayList<>();
+        private final List<String> createdCodes = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int received;
+        private int existing;
+        private int duplicates;
+        private int invalid;
+        private int rolesCreated;
+        private int resourcesCreated;
+        private String error;
+
+        void accept(TenantSpec spec) {
+            int index = received++;
+            NewTenant tenant;
+            try {
+                tenant = validate(spec);
+            } catch (IllegalArgumentException e) {
+                invalid++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("#" + index + (spec != null && spec.code() != null ? " (" + spec.code() + ")" : "")
+                            + ": " + e.getMessage());
+                }
+                return;
+            }
+            if (!seenCodes.add(tenant.code())) {
+                duplicates++;
+                return;
+            }
+            pending.add(tenant);
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes the pending chunk in one transaction, retried if a concurrent run wins a unique
+         * constraint. Role/resource ids and counters are only taken over once it has committed.
+         */
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<NewTenant> chunk = List.copyOf(pending);
+            pending.clear();
+            for (int attempt = 1; ; attempt++) {
+                Written written = new Written();
+                try {
+                    transactions.executeWithoutResult(status -> write(chunk, written));
+                } catch (DuplicateKeyException e) {
+                    if (attempt == MAX_CHUNK_ATTEMPTS) {
+                        throw e;
+                    }
+                    log.debug("Chunk collided with a concurrent run, retrying", e);
+                    continue;
+                }
+                roleIds.putAll(written.roleIds);
+                resourceIds.putAll(written.resourceIds);
+                rolesCreated += written.rolesCreated;
+                resourcesCreated += written.resourcesCreated;
+                existing += chunk.size() - written.tenantCodes.size();
+                createdCodes.addAll(written.tenantCodes);
+                return;
+            }
+        }
+
+        private void write(List<NewTenant> chunk, Written written) {
+            Set<String> existingCodes = new HashSet<>(jdbc.queryForList(
+                    "select code from tenants where code in (:codes)",
+                    Map.of("codes", chunk.stream().map(NewTenant::code).toList()), String.class));
+            List<NewTenant> candidates = chunk.stream().filter(tenant -> !existingCodes.contains(tenant.code())).toList();
+            Timestamp now = Timestamp.from(Instant.now());
+
+            // Missing roles named anywhere in the chunk (also by skipped tenants), with the resources
+            // given for them in the chunk, and the resources they need
+            Map<String, Set<String>> roleResources = new LinkedHashMap<>();
+            for (NewTenant tenant : chunk) {
+                tenant.roles().forEach((role, resources) -> {
+                    if (!roleIds.containsKey(role)) {
+                        roleResources.computeIfAbsent(role, name -> new LinkedHashSet<>()).addAll(resources);
+                    }
+                });
+            }
+            Set<String> resources = new LinkedHashSet<>();
+            roleResources.values().forEach(names -> names.stream()
+                    .filter(name -> !resourceIds.containsKey(name))
+                    .forEach(resources::add));
+            written.resourcesCreated = insertNamed("resources", resources, now, written.resourceIds).size();
+            Set<String> createdRoles = insertNamed("roles", roleResources.keySet(), now, written.roleIds);
+            written.rolesCreated = createdRoles.size();
+            List<SqlParameterSource> roleLinks = new ArrayList<>();
+            // a role another run created in the meantime is existing: it keeps the resources it was given
+            createdRoles.forEach(role -> roleResources.get(role).forEach(name -> roleLinks.add(new MapSqlParameterSource()
+                    .addValue("roleId", written.roleIds.get(role))
+                    .addValue("resourceId", written.resourceIds.getOrDefault(name, resourceIds.get(name))))));
+            batch("insert into role_resources (role_id, resource_id) values (:roleId, :resourceId)", roleLinks);
+            if (candidates.isEmpty()) {
+                return;
+            }
+
+            int[] inserted = batch("insert into tenants (code, display_name, requests_per_second, burst_capacity, "
+                            + "max_concurrent_requests, updated_at) select :code, :displayName, :requestsPerSecond, "
+                            + ":burstCapacity, :maxConcurrentRequests, :updatedAt from dual "
+                            + "where not exists (select 1 from tenants where code = :code)",
+                    candidates.stream().map(tenant -> (SqlParameterSource) new MapSqlParameterSource()
+                            .addValue("code", tenant.code())
+                            .addValue("displayName", tenant.displayName())
+                            .addValue("requestsPerSecond", tenant.requestsPerSecond())
+                            .addValue("burstCapacity", tenant.burstCapacity())
+                            .addValue("maxConcurrentRequests", tenant.maxConcurrentRequests())
+                            .addValue("updatedAt", now)).toList());
+            List<NewTenant> tenants = new ArrayList<>(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                if (inserted[i] != 0) {
+                    tenants.add(candidates.get(i));
+                }
+            }
+            if (tenants.isEmpty()) {
+                return;
+            }
+            List<String> codes = tenants.stream().map(NewTenant::code).toList();
+            Map<String, Long> tenantIds = new HashMap<>();
+            jdbc.query("select id, code from tenants where code in (:codes)", Map.of("codes", codes),
+                    row -> {
+                        tenantIds.put(row.getString("code"), row.getLong("id"));
+                    });
+            List<SqlParameterSource> tenantLinks = new ArrayList<>();
+            for (NewTenant tenant : tenants) {
+                for (String role : tenant.roles().keySet()) {
+                    tenantLinks.add(new MapSqlParameterSource()
+                            .addValue("tenantId", tenantIds.get(tenant.code()))
+                            .addValue("roleId", written.roleIds.getOrDefault(role, roleIds.get(role))));
+                }
+            }
+            batch("insert into tenant_roles (tenant_id, role_id) values (:tenantId, :roleId)", tenantLinks);
+            written.tenantCodes = codes;
+        }
+
+        /**
+         * Inserts rows with just a name and updated_at unless the name exists, and collects the ids of
+         * all the names, whoever created them.
+         *
+         * @return the names inserted by this call
+         */
+        private Set<String> insertNamed(String table, Collection<String> names, Timestamp updatedAt, Map<String, Long> ids) {
+            if (names.isEmpty()) {
+                return Set.of();
+            }
+            List<String> ordered = List.copyOf(names);
+            int[] inserted = batch("insert into " + table + " (name, updated_at) select :name, :updatedAt from dual "
+                            + "where not exists (select 1 from " + table + " where name = :name)",
+                    ordered.stream().map(name -> (SqlParameterSource) new MapSqlParameterSource()
+                            .addValue("name", name)
+                            .addValue("updatedAt", updatedAt)).toList());
+            Set<String> created = new HashSet<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                if (inserted[i] != 0) {
+                    created.add(ordered.get(i));
+                }
+            }
+            jdbc.query("select id, name from " + table + " where name in (:names)", Map.of("names", ordered),
+                    row -> {
+                        ids.put(row.getString("name"), row.getLong("id"));
+                    });
+            return created;
+        }
+
+        private int[] batch(String sql, List<SqlParameterSource> rows) {
+            if (rows.isEmpty()) {
+                return new int[0];
+            }
+            return jdbc.batchUpdate(sql, rows.toArray(SqlParameterSource[]::new));
+        }
+
+        /**
+         * One cache invalidation for the whole run (all nodes, through the invalidation bus).
+         */
+        void publish() {
+            if (createdCodes.isEmpty()) {
+                return;
+            }
+            tenantCacheService.invalidate(createdCodes.size() <= PER_CODE_REFRESH_LIMIT ? createdCodes : List.of());
+        }
+
+        Result result() {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            log.info("Provisioned {} tenants ({} received, {} existing, {} duplicates, {} invalid, {} new roles, "
+                            + "{} new resources) in {} ms", createdCodes.size(), received, existing, duplicates,
+                    invalid, rolesCreated, resourcesCreated, millis);
+            return new Result(received, createdCodes.size(), existing, duplicates, invalid, rolesCreated,
+                    resourcesCreated, millis, List.copyOf(errors), error);
+        }
+    }
+
+    /**
+     * What one attempt at a chunk wrote; discarded if its transaction rolls back.
+     */
+    private static final class Written {
+        private final Map<String, Long> roleIds = new HashMap<>();
+        private final Map<String, Long> resourceIds = new HashMap<>();
+        private List<String> tenantCodes = List.of();
+        private int rolesCreated;
+        private int resourcesCreated;
+    }
+
+    private Map<String, Long> loadIds(String sql) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbc.query(sql, row -> {
+            ids.put(row.getString("name"), row.getLong("id"));
+        });
+        return ids;
+    }
+
+    /**
+     * Checks and normalizes an entry; throws IllegalArgumentException with the reason if it is invalid.
+     */
+    static NewTenant validate(TenantSpec spec) {
+        if (spec == null || spec.code() == null) {
+            throw new IllegalArgumentException("code is required");
+        }
+        String code = TenantCodes.normalize(spec.code());
+        if (!CODE.matcher(code).matches()) {
+            throw new IllegalArgumentException("code must be 1-64 letters, digits, '_' or '-'");
+        }
+        String displayName = spec.displayName() != null && !spec.displayName().isBlank()
+                ? spec.displayName().trim()
+                : code;
+        if (displayName.length() > MAX_DISPLAY_NAME) {
+            throw new IllegalArgumentException("displayName is longer than " + MAX_DISPLAY_NAME);
+        }
+        Map<String, Set<String>> roles = new LinkedHashMap<>();
+        for (RoleSpec role : spec.roles() != null ? spec.roles() : List.<RoleSpec>of()) {
+            if (role == null || role.name() == null) {
+                throw new IllegalArgumentException("role name is required");
+            }
+            String name = role.name().trim();
+            if (name.startsWith(AuthorityRegistry.ROLE_PREFIX)) {
+                // stored without prefix, as in DataInitializer
+                name = name.substring(AuthorityRegistry.ROLE_PREFIX.length());
+            }
+            Set<String> resources = roles.computeIfAbsent(checkName("role", name), key -> new LinkedHashSet<>());
+            for (String resource : role.resources() != null ? role.resources() : List.<String>of()) {
+                resources.add(checkName("resource", resource != null ? resource.trim() : null));
+            }
+        }
+        return new NewTenant(code, displayName, roles, checkQuota("requestsPerSecond", spec.requestsPerSecond()),
+                checkQuota("burstCapacity", spec.burstCapacity()),
+                checkQuota("maxConcurrentRequests", spec.maxConcurrentRequests()));
+    }
+
+    private static String checkName(String kind, String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException(kind + " '" + name + "' must be 1-64 upper case letters, digits or '_'");
+        }
+        return name;
+    }
+
+    private static Integer checkQuota(String field, Integer value) {
+        if (value != null && value < 0) {
+            throw new IllegalArgumentException(field + " must not be negative");
+        }
+        return value;
+    }
+
+    /**
+     * A validated entry: normalized code, roles by name with the resources given for them.
+     */
+    record NewTenant(String code, String displayName, Map<String, Set<String>> roles, Integer requestsPerSecond,
+                  Integer burstCapacity, Integer maxConcurrentRequests) {
+    }
+}
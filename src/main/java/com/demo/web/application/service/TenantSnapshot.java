@@ -0,0 +1,182 @@
+package com.demo.web.application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.security.AuthorityMask;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.InternedRole;
+import com.demo.web.application.security.RoleSet;
+import com.demo.web.application.security.TenantClientSecrets;
+import com.demo.web.application.security.TenantPrincipal;
+
+/**
+ * Immutable, precompiled view of a cached tenant, detached from JPA.
+ * Only the tenant's own scalar fields are copied; roles, resources and the derived authorities and
+ * {@link AuthorityMask} come from an interned {@link RoleSet} shared by every tenant with the same
+ * roles, so the cache does not keep a Hibernate entity graph per tenant.
+ * The only mutable part is a request counter used to pick the top tenants for metrics.
+ * {@link #getEstimatedBytes()} is a rough retained-heap estimate used to weigh entries against the
+ * lazy cache's memory budget.
+ */
+public final class TenantSnapshot implements TenantPrincipal {
+
+    private final Long id;
+    private final String code;
+    private final String displayName;
+    private final Integer requestsPerSecond;
+    private final Integer burstCapacity;
+    private final Integer maxConcurrentRequests;
+    private final String clientSecretHash;
+    private final long revision;
+    private final RoleSet roleSet;
+    private final int estimatedBytes;
+    private final LongAdder requestCount = new LongAdder();
+
+    private TenantSnapshot(Tenant tenant, RoleSet roleSet, long revision) {
+        this.id = tenant.getId();
+        this.code = tenant.getCode();
+        this.displayName = tenant.getDisplayName();
+        this.requestsPerSecond = tenant.getRequestsPerSecond();
+        this.burstCapacity = tenant.getBurstCapacity();
+        this.maxConcurrentRequests = tenant.getMaxConcurrentRequests();
+        this.clientSecretHash = tenant.getClientSecretHash();
+        this.revision = revision;
+        this.roleSet = roleSet;
+        // snapshot + LongAdder + code + display name; the role set is shared and not counted
+        this.estimatedBytes = 80 + 24 + stringBytes(code) + stringBytes(displayName);
+    }
+
+    /**
+     * Compiles the tenant's roles and resources into interned roles and a shared role set.
+     */
+    public static TenantSnapshot compile(Tenant tenant, AuthorityRegistry registry) {
+        return compile(tenant, registry, 0);
+    }
+
+    /**
+     * As {@link #compile(Tenant, AuthorityRegistry)}, for the cache version the snapshot is loaded at
+     * (see {@link TenantCacheService#getRevision}).
+     */
+    public static TenantSnapshot compile(Tenant tenant, AuthorityRegistry registry, long revision) {
+        List<InternedRole> roles = new ArrayList<>(tenant.getRoles().size());
+        for (Role role : tenant.getRoles()) {
+            List<String> resourceNames = new ArrayList<>(role.getResources().size());
+            for (Resource resource : role.getResources()) {
+                resourceNames.add(resource.getName());
+            }
+            roles.add(registry.internRole(role.getName(), resourceNames));
+        }
+        return new TenantSnapshot(tenant, registry.internRoleSet(roles), revision);
+    }
+
+    private static int stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getCode() {
+        return code;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Quota columns as stored (null = use defaults).
+     */
+    public Integer getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public Integer getBurstCapacity() {
+        return burstCapacity;
+    }
+
+    public Integer getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public List<InternedRole> getRoles() {
+        return roleSet.getRoles();
+    }
+
+    public RoleSet getRoleSet() {
+        return roleSet;
+    }
+
+    /**
+     * Shared, unmodifiable authority list - safe to hand to every token for this tenant.
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return roleSet.getAuthorities();
+    }
+
+    public AuthorityMask getAuthorityMask() {
+        return roleSet.getAuthorityMask();
+    }
+
+    public int getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Cache version this snapshot was loaded at; signed tokens carry it.
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * True if the tenant has a client secret and this is it. The hash itself is not exposed.
+     */
+    public boolean clientSecretMatches(String secret) {
+        return TenantClientSecrets.matches(secret, clientSecretHash);
+    }
+
+    /**
+     * Builds a new detached Tenant (with new Role/Resource instances) from this snapshot, for callers
+     * that need the entity type. Not for the request path.
+     */
+    public Tenant toTenant() {
+        Tenant tenant = new Tenant(code, displayName);
+        tenant.setId(id);
+        tenant.setRequestsPerSecond(requestsPerSecond);
+        tenant.setBurstCapacity(burstCapacity);
+        tenant.setMaxConcurrentRequests(maxConcurrentRequests);
+        tenant.setClientSecretHash(clientSecretHash);
+        for (InternedRole interned : roleSet.getRoles()) {
+            Role role = new Role(interned.name());
+            interned.resources().forEach(resource -> role.addResource(new Resource(resource.getAuthority())));
+            tenant.addRole(role);
+        }
+        return tenant;
+    }
+
+    public void recordRequest() {
+        requestCount.increment();
+    }
+
+    /**
+     * Requests since the previous call.
+     */
+    public long drainRequestCount() {
+        return requestCount.sumThenReset();
+    }
+
+    @Override
+    public String toString() {
+        return "TenantSnapshot[" + code + "]";
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.web.application.service;
+
+import java.util.Arrays;
+
+/**
+ * Bounded negative cache: hashes of codes recently looked up in the database and not found.
+ * Direct-mapped (one slot per hash bucket, newer entries overwrite older ones), so memory is fixed
+ * no matter how many distinct unknown codes arrive. Slots are read and written without locking;
+ * a torn update can only shorten or extend one entry's lifetime.
+ */
+final class UnknownTenantCodes {
+
+    private final long[] hashes;
+    private final long[] expiresAtMillis;
+    private final int mask;
+    private final long ttlMillis;
+
+    UnknownTenantCodes(int size, long ttlMillis) {
+        int capacity = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+        this.hashes = new long[capacity];
+        this.expiresAtMillis = new long[capacity];
+        this.mask = capacity - 1;
+        this.ttlMillis = ttlMillis;
+    }
+
+    boolean contains(long hash, long nowMillis) {
+        int slot = (int) hash & mask;
+        return hashes[slot] == hash && expiresAtMillis[slot] > nowMillis;
+    }
+
+    void add(long hash, long nowMillis) {
+        int slot = (int) hash & mask;
+        hashes[slot] = hash;
+        expiresAtMillis[slot] = nowMillis + ttlMillis;
+    }
+
+    void forget(long hash) {
+        int slot = (int) hash & mask;
+        if (hashes[slot] == hash) {
+            expiresAtMillis[slot] = 0;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(expiresAtMillis, 0);
+    }
+}
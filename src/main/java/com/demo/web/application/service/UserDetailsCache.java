@@ -0,0 +1,76 @@
+package com.demo.web.application.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.demo.web.application.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded username -> {@link UserPrincipal} cache for form login, so repeated logins and
+ * re-authentication do not query users/roles/resources every time. Entries are immutable snapshots
+ * (never the JPA entity), expire a fixed time after loading, and the cache is size-bounded (Caffeine,
+ * W-TinyLFU eviction).
+ * <p>
+ * Config: {@code user.cache.max-size} (10000), {@code user.cache.ttl-seconds} (300).
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size with tag cache=userDetails.
+ */
+@Service
+public class UserDetailsCache implements MeterBinder {
+
+    private final Cache<String, UserPrincipal> users;
+
+    @Autowired
+    public UserDetailsCache(@Value("${user.cache.max-size:10000}") int maxSize,
+                            @Value("${user.cache.ttl-seconds:300}") long ttlSeconds) {
+        this(maxSize, ttlSeconds, Ticker.systemTicker());
+    }
+
+    UserDetailsCache(int maxSize, long ttlSeconds, Ticker ticker) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                // Maintenance on the caller's thread keeps eviction deterministic; it is cheap at this size
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached user, or null on miss/expiry.
+     */
+    public UserPrincipal get(String username) {
+        return users.getIfPresent(username);
+    }
+
+    public void put(UserPrincipal user) {
+        users.put(user.getUsername(), user);
+    }
+
+    /**
+     * Call when a user is created or its password or roles change.
+     */
+    public void evict(String username) {
+        users.invalidate(username);
+    }
+
+    public long size() {
+        users.cleanUp();
+        return users.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "userDetails");
+    }
+}
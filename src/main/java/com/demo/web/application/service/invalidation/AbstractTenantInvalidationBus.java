@@ -0,0 +1,69 @@
+package com.demo.web.application.service.invalidation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.demo.web.application.dto.Tenant;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Listener handling shared by all buses: local delivery on publish, and remote delivery that
+ * skips events this node published itself.
+ */
+@Slf4j
+public abstract class AbstractTenantInvalidationBus implements TenantInvalidationBus {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final List<Consumer<TenantInvalidationEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public final void publish(Collection<String> tenantCodes) {
+        Set<String> codes = tenantCodes.stream()
+                .map(Tenant::normalizeCode)
+                .collect(Collectors.toSet());
+        TenantInvalidationEvent event = new TenantInvalidationEvent(nodeId, codes);
+        deliver(event);
+        send(event);
+    }
+
+    @Override
+    public void subscribe(Consumer<TenantInvalidationEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Sends the event to the other nodes. Local listeners have already been notified.
+     */
+    protected abstract void send(TenantInvalidationEvent event);
+
+    /**
+     * Called by implementations when an event arrives from the transport.
+     */
+    protected void receive(TenantInvalidationEvent event) {
+        if (!nodeId.equals(event.origin())) {
+            deliver(event);
+        }
+    }
+
+    private void deliver(TenantInvalidationEvent event) {
+        for (Consumer<TenantInvalidationEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Tenant invalidation listener failed for {}", event, e);
+            }
+        }
+    }
+}
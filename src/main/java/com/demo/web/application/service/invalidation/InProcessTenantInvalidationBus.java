@@ -0,0 +1,17 @@
+package com.demo.web.application.service.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-node bus: events only reach listeners in this JVM.
+ */
+@Component
+@ConditionalOnProperty(name = "tenant.invalidation.bus", havingValue = "local", matchIfMissing = true)
+public class InProcessTenantInvalidationBus extends AbstractTenantInvalidationBus {
+
+    @Override
+    protected void send(TenantInvalidationEvent event) {
+        // No peers
+    }
+}
@@ -0,0 +1,142 @@
+package com.demo.web.application.service.invalidation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.demo.web.application.dto.TenantChangeLog;
+import com.demo.web.application.repository.TenantChangeLogRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster bus backed by the tenant_change_log table: publish inserts a row, every node polls for
+ * rows newer than the last one it saw (one indexed query per interval, not a full tenant reload).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tenant.invalidation.bus", havingValue = "jdbc")
+public class JdbcChangeLogTenantInvalidationBus extends AbstractTenantInvalidationBus {
+
+    /**
+     * IDENTITY ids can commit out of order, so each poll re-reads a few ids below the high-water
+     * mark and skips the ones already delivered.
+     */
+    private static final long LOOKBACK = 64;
+
+    private static final int MAX_CODES_LENGTH = 4000;
+
+    private final TenantChangeLogRepository changeLogRepository;
+    private final long pollIntervalMs;
+    private final Duration retention;
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "tenant-invalidation-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<Long> recentlySeen = new LinkedHashSet<>();
+    private long lastSeenId;
+
+    public JdbcChangeLogTenantInvalidationBus(TenantChangeLogRepository changeLogRepository,
+                                              @Value("${tenant.invalidation.jdbc.poll-interval-ms:500}") long pollIntervalMs,
+                                              @Value("${tenant.invalidation.jdbc.retention-minutes:60}") long retentionMinutes) {
+        this.changeLogRepository = changeLogRepository;
+        this.pollIntervalMs = pollIntervalMs;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    @PostConstruct
+    public void start() {
+        // Only events published after startup matter; the initial cache load covers the rest
+        lastSeenId = changeLogRepository.findMaxId();
+        // The first poll re-reads the lookback window below it; those rows are not news either
+        for (TenantChangeLog entry : changeLogRepository.findTop500ByIdGreaterThanOrderByIdAsc(
+                Math.max(0, lastSeenId - LOOKBACK))) {
+            if (entry.getId() <= lastSeenId) {
+                markSeen(entry.getId());
+            }
+        }
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::purge, 1, 10, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    @Override
+    protected void send(TenantInvalidationEvent event) {
+        if (event.isFullRefresh()) {
+            changeLogRepository.save(new TenantChangeLog(event.origin(), ""));
+            return;
+        }
+        // Split into rows that fit the tenant_codes column
+        StringBuilder codes = new StringBuilder();
+        for (String code : event.tenantCodes()) {
+            if (codes.length() > 0 && codes.length() + code.length() + 1 > MAX_CODES_LENGTH) {
+                changeLogRepository.save(new TenantChangeLog(event.origin(), codes.toString()));
+                codes.setLength(0);
+            }
+            if (codes.length() > 0) {
+                codes.append(',');
+            }
+            codes.append(code);
+        }
+        changeLogRepository.save(new TenantChangeLog(event.origin(), codes.toString()));
+    }
+
+    void poll() {
+        try {
+            for (TenantChangeLog entry : changeLogRepository.findTop500ByIdGreaterThanOrderByIdAsc(
+                    Math.max(0, lastSeenId - LOOKBACK))) {
+                if (!markSeen(entry.getId())) {
+                    continue;
+                }
+                lastSeenId = Math.max(lastSeenId, entry.getId());
+                receive(new TenantInvalidationEvent(entry.getOrigin(), parseCodes(entry.getTenantCodes())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Polling tenant_change_log failed", e);
+        }
+    }
+
+    private void purge() {
+        try {
+            changeLogRepository.deleteOlderThan(Instant.now().minus(retention));
+        } catch (RuntimeException e) {
+            log.warn("Purging tenant_change_log failed", e);
+        }
+    }
+
+    private boolean markSeen(Long id) {
+        if (!recentlySeen.add(id)) {
+            return false;
+        }
+        if (recentlySeen.size() > 4 * LOOKBACK) {
+            recentlySeen.remove(recentlySeen.iterator().next());
+        }
+        return true;
+    }
+
+    private static Set<String> parseCodes(String codes) {
+        if (codes == null || codes.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(codes.split(",")).collect(Collectors.toSet());
+    }
+}
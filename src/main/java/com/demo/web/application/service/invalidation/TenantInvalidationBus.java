@@ -0,0 +1,27 @@
+package com.demo.web.application.service.invalidation;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts tenant-scoped cache invalidations to every node running the application.
+ * Events are delivered to listeners on the publishing node as well as on all peers, so a
+ * subscriber (TenantCacheService) handles local and remote changes the same way.
+ * <p>
+ * Implementations are selected with {@code tenant.invalidation.bus}: {@code local} (default),
+ * {@code jdbc} (change-log table polling) or {@code udp} (datagrams to configured peers).
+ */
+public interface TenantInvalidationBus {
+
+    /**
+     * Publishes an invalidation for the given tenant codes; an empty collection means all tenants.
+     */
+    void publish(Collection<String> tenantCodes);
+
+    void subscribe(Consumer<TenantInvalidationEvent> listener);
+
+    /**
+     * Id of this node; events carrying it are not delivered twice.
+     */
+    String getNodeId();
+}
@@ -0,0 +1,20 @@
+package com.demo.web.application.service.invalidation;
+
+import java.util.Set;
+
+/**
+ * Tells every node to reload the given tenants. An empty code set means "reload all tenants".
+ *
+ * @param origin      id of the node that published the event
+ * @param tenantCodes normalized tenant codes (lower case, trimmed)
+ */
+public record TenantInvalidationEvent(String origin, Set<String> tenantCodes) {
+
+    public TenantInvalidationEvent {
+        tenantCodes = Set.copyOf(tenantCodes);
+    }
+
+    public boolean isFullRefresh() {
+        return tenantCodes.isEmpty();
+    }
+}
@@ -0,0 +1,224 @@
+package com.demo.web.application.service.invalidation;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Peer-to-peer bus: each event is sent as UDP datagrams ("sentAt\norigin\ncode,code,...") to every
+ * configured peer. Delivery is best effort and usually sub-millisecond on a LAN; a lost datagram is
+ * picked up by the cache's periodic incremental refresh (tenant.cache.refresh-seconds).
+ * <p>
+ * An empty code list reloads every tenant, so datagrams are authenticated: the socket listens on one
+ * interface only, datagrams from hosts that are not peers are dropped, and each datagram carries an
+ * HMAC-SHA256 of its content under the shared secret and is rejected if its send time is more than
+ * {@link #MAX_AGE_MILLIS} off.
+ * <p>
+ * Config: {@code tenant.invalidation.udp.port} (listen port), {@code tenant.invalidation.udp.bind-address}
+ * (listen interface, default 127.0.0.1), {@code tenant.invalidation.udp.peers} (comma-separated
+ * host:port list) and {@code tenant.invalidation.udp.secret} (base64 key, the same on every node).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tenant.invalidation.bus", havingValue = "udp")
+public class UdpPeerTenantInvalidationBus extends AbstractTenantInvalidationBus {
+
+    /**
+     * Keeps each datagram well under the UDP limit; larger events are split.
+     */
+    private static final int MAX_PAYLOAD = 8 * 1024;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    /**
+     * Datagrams sent longer ago (or later, by the sender's clock) than this are replays or junk.
+     */
+    static final long MAX_AGE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers;
+    private final Set<InetAddress> peerAddresses;
+    private final SecretKeySpec key;
+    private final Thread receiver;
+
+    public UdpPeerTenantInvalidationBus(@Value("${tenant.invalidation.udp.port:0}") int port,
+                                        @Value("${tenant.invalidation.udp.bind-address:127.0.0.1}") String bindAddress,
+                                        @Value("${tenant.invalidation.udp.peers:}") String peers,
+                                        @Value("${tenant.invalidation.udp.secret:}") String secret) throws IOException {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("tenant.invalidation.udp.secret must be set (base64, same on every node)");
+        }
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(secret), ALGORITHM);
+        this.peers = parsePeers(peers);
+        this.peerAddresses = this.peers.stream()
+                .map(InetSocketAddress::getAddress)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        this.socket = new DatagramSocket(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+        this.receiver = new Thread(this::receiveLoop, "tenant-invalidation-udp");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    @PreDestroy
+    public void stop() {
+        socket.close();
+    }
+
+    @Override
+    protected void send(TenantInvalidationEvent event) {
+        for (byte[] payload : encode(event, System.currentTimeMillis())) {
+            byte[] datagram = sign(payload);
+            for (InetSocketAddress peer : peers) {
+                try {
+                    socket.send(new DatagramPacket(datagram, datagram.length, peer));
+                } catch (IOException e) {
+                    log.warn("Sending tenant invalidation to {} failed", peer, e);
+                }
+            }
+        }
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAC_LENGTH + MAX_PAYLOAD + 512];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                TenantInvalidationEvent event = accept(packet);
+                if (event != null) {
+                    receive(event);
+                }
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Receiving tenant invalidation failed", e);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Ignoring malformed tenant invalidation datagram", e);
+            }
+        }
+    }
+
+    /**
+     * The event in a datagram, or null if it is not from a peer, not signed with the shared key, or
+     * stale. Debug-logged only, so junk traffic cannot flood the log.
+     */
+    private TenantInvalidationEvent accept(DatagramPacket packet) {
+        if (!peerAddresses.contains(packet.getAddress())) {
+            log.debug("Dropping tenant invalidation from non-peer {}", packet.getAddress());
+            return null;
+        }
+        byte[] data = Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength());
+        if (data.length < MAC_LENGTH || !MessageDigest.isEqual(Arrays.copyOf(data, MAC_LENGTH),
+                mac(data, MAC_LENGTH, data.length - MAC_LENGTH))) {
+            log.debug("Dropping tenant invalidation with a bad signature from {}", packet.getAddress());
+            return null;
+        }
+        TenantInvalidationEvent event = decode(
+                new String(data, MAC_LENGTH, data.length - MAC_LENGTH, StandardCharsets.UTF_8), System.currentTimeMillis());
+        if (event == null) {
+            log.debug("Dropping stale tenant invalidation from {}", packet.getAddress());
+        }
+        return event;
+    }
+
+    byte[] sign(byte[] payload) {
+        byte[] datagram = new byte[MAC_LENGTH + payload.length];
+        System.arraycopy(mac(payload, 0, payload.length), 0, datagram, 0, MAC_LENGTH);
+        System.arraycopy(payload, 0, datagram, MAC_LENGTH, payload.length);
+        return datagram;
+    }
+
+    /**
+     * A new Mac per call: invalidations are rare, and Mac instances are not thread-safe.
+     */
+    private byte[] mac(byte[] data, int offset, int length) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(data, offset, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    static List<byte[]> encode(TenantInvalidationEvent event, long sentAtMillis) {
+        List<byte[]> payloads = new ArrayList<>();
+        StringBuilder message = new StringBuilder().append(sentAtMillis).append('\n').append(event.origin()).append('\n');
+        int header = message.length();
+        for (String code : event.tenantCodes()) {
+            if (message.length() > header && message.length() + code.length() + 1 > MAX_PAYLOAD) {
+                payloads.add(message.toString().getBytes(StandardCharsets.UTF_8));
+                message.setLength(header);
+            }
+            if (message.length() > header) {
+                message.append(',');
+            }
+            message.append(code);
+        }
+        payloads.add(message.toString().getBytes(StandardCharsets.UTF_8));
+        return payloads;
+    }
+
+    /**
+     * The event, or null if it was sent more than {@link #MAX_AGE_MILLIS} before or after nowMillis.
+     */
+    static TenantInvalidationEvent decode(String message, long nowMillis) {
+        int first = message.indexOf('\n');
+        int second = message.indexOf('\n', first + 1);
+        long sentAtMillis = Long.parseLong(message.substring(0, first));
+        if (Math.abs(nowMillis - sentAtMillis) > MAX_AGE_MILLIS) {
+            return null;
+        }
+        String codes = message.substring(second + 1);
+        Set<String> tenantCodes = codes.isEmpty()
+                ? Set.of()
+                : Arrays.stream(codes.split(",")).collect(Collectors.toSet());
+        return new TenantInvalidationEvent(message.substring(first + 1, second), tenantCodes);
+    }
+
+    private static List<InetSocketAddress> parsePeers(String peers) {
+        return Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                .map(peer -> {
+                    int colon = peer.lastIndexOf(':');
+                    InetSocketAddress address = new InetSocketAddress(peer.substring(0, colon),
+                            Integer.parseInt(peer.substring(colon + 1)));
+                    if (address.isUnresolved()) {
+                        log.warn("Tenant invalidation peer {} does not resolve; its datagrams will be dropped", peer);
+                    }
+                    return address;
+                })
+                .toList();
+    }
+}
@@ -1,38 +1,47 @@
-create table if not exists Ingredient (
-  id varchar(4) not null,
+create table if not exists taco_seq (
+  next_val bigint
+);
+insert into taco_seq (next_val) select 1 from dual where not exists (select * from taco_seq);
+create table if not exists taco_order_seq (
+  next_val bigint
+);
+insert into taco_order_seq (next_val) select 1 from dual where not exists (select * from taco_order_seq);
+create table if not exists ingredient (
+  id varchar(4) not null primary key,
   name varchar(25) not null,
   type varchar(10) not null
 );
-create table if not exists Taco (
-  id identity,
+create table if not exists taco (
+  id bigint not null primary key,
   name varchar(50) not null,
-  createdAt timestamp not null
+  created_at timestamp not null
 );
-create table if not exists Taco_Ingredients (
+create table if not exists taco_ingredients (
   taco bigint not null,
   ingredient varchar(4) not null
 );
-alter table Taco_Ingredients
-    add foreign key (taco) references Taco(id);
-alter table Taco_Ingredients
-    add foreign key (ingredient) references Ingredient(id);
-create table if not exists Taco_Order (
-  id identity,
-    deliveryName varchar(50) not null,
-    deliveryStreet varchar(50) not null,
-    deliveryCity varchar(50) not null,
-    deliveryState varchar(2) not null,
-    deliveryZip varchar(10) not null,
-    ccNumber varchar(16) not null,
-    ccExpiration varchar(5) not null,
-    ccCVV varchar(3) not null,
-    placedAt timestamp not null
+alter table taco_ingredients
+    add foreign key (taco) references taco(id);
+alter table taco_ingredients
+    add foreign key (ingredient) references ingredient(id);
+create table if not exists taco_order (
+  id bigint not null primary key,
+    user_id bigint,
+    delivery_name varchar(50) not null,
+    delivery_street varchar(50) not null,
+    delivery_city varchar(50) not null,
+    delivery_state varchar(2) not null,
+    delivery_zip varchar(10) not null,
+    cc_last4 varchar(4),
+    cc_expiration varchar(5) not null,
+    placed_at timestamp not null,
+    ingest_key varchar(36) unique
 );
-create table if not exists Taco_Order_Tacos (
-  tacoOrder bigint not null,
-  taco bigint not null
+create table if not exists taco_order_tacos (
+  taco_order bigint not null,
+  taco bigint not null unique
 );
-alter table Taco_Order_Tacos
-    add foreign key (tacoOrder) references Taco_Order(id);
-alter table Taco_Order_Tacos
-    add foreign key (taco) references Taco(id);
\ No newline at end of file
+alter table taco_order_tacos
+    add foreign key (taco_order) references taco_order(id);
+alter table taco_order_tacos
+    add foreign key (taco) references taco(id);
@@ -0,0 +1,58 @@
+package com.demo.web.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.demo.web.application.service.TenantCacheService;
+
+/**
+ * Startup time, measured the way a rolling deploy sees it: from launch until the application is ready.
+ * Starts the application twice on one in-memory database - a first start that seeds it, and a restart
+ * that finds everything in place - and fails if either exceeds the budget (-Dstartup.budget-seconds,
+ * default 60).
+ */
+class StartupTests {
+
+    private static final Duration BUDGET = Duration.ofSeconds(Long.getLong("startup.budget-seconds", 60));
+
+    @Test
+    void startsWithinBudgetAndIsReadyOnlyWithTheCacheLoaded() {
+        Duration firstStart = start(context -> assertNotNull(context.getBean(TenantCacheService.class)
+                .getSnapshotByCode("acme")));
+        Duration restart = start(context -> {
+            // Nothing to seed: the cache was loaded exactly once
+            assertEquals(1, context.getBean(TenantCacheService.class).getVersion());
+        });
+
+        System.out.printf("Startup: first start %d ms, restart %d ms (budget %d s)%n",
+                firstStart.toMillis(), restart.toMillis(), BUDGET.toSeconds());
+        assertTrue(firstStart.compareTo(BUDGET) < 0, "first start took " + firstStart);
+        assertTrue(restart.compareTo(BUDGET) < 0, "restart took " + restart);
+    }
+
+    private Duration start(Consumer<ConfigurableApplicationContext> check) {
+        long startNanos = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=")) {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            TenantCacheService cache = context.getBean(TenantCacheService.class);
+            assertTrue(cache.isInitialLoadPublished());
+            assertEquals(Status.UP, context.getBean(HealthEndpoint.class).healthForPath("readiness").getStatus());
+            check.accept(context);
+            return elapsed;
+        }
+    }
+}
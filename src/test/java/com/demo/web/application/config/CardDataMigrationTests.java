@@ -0,0 +1,49 @@
+package com.demo.web.application.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * An order table from before card data was dropped: the old columns are added back and filled.
+ */
+@DataJpaTest
+@Import(CardDataMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CardDataMigrationTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CardDataMigration migration;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from taco_order");
+    }
+
+    @Test
+    void storedCardNumbersAreReducedToTheLastFourDigitsAndCvvIsDropped() {
+        jdbcTemplate.execute("alter table taco_order add column cc_number varchar(16)");
+        jdbcTemplate.execute("alter table taco_order add column cc_cvv varchar(3)");
+        jdbcTemplate.update("insert into taco_order (id, cc_number, cc_cvv) values (1, '4111111111111111', '123')");
+
+        migration.run();
+
+        assertEquals("1111", jdbcTemplate.queryForObject("select cc_last4 from taco_order where id = 1", String.class));
+        assertThrows(DataAccessException.class, () -> jdbcTemplate.queryForList("select cc_number from taco_order"));
+        assertThrows(DataAccessException.class, () -> jdbcTemplate.queryForList("select cc_cvv from taco_order"));
+        // Nothing left to do on the next start
+        migration.run();
+    }
+}
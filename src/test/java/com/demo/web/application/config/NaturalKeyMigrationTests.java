@@ -0,0 +1,103 @@
+package com.demo.web.application.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * A database from before the unique constraints: the constraints are dropped, duplicates written with
+ * plain SQL, and the migration has to merge or report them and put the constraints back.
+ */
+@DataJpaTest
+@Import(NaturalKeyMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NaturalKeyMigrationTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NaturalKeyMigration migration;
+
+    @AfterEach
+    void cleanUp() {
+        for (String table : List.of("tenant_roles", "user_roles", "role_resources", "tenants", "users", "roles",
+                "resources")) {
+            jdbcTemplate.update("delete from " + table);
+        }
+        migration.run();
+    }
+
+    @Test
+    void duplicateRolesAndResourcesAreMergedIntoTheOldestRow() {
+        jdbcTemplate.execute("alter table roles drop constraint uk_roles_name");
+        jdbcTemplate.execute("alter table resources drop constraint uk_resources_name");
+        long admin = insert("roles", "name", "ADMIN");
+        long adminCopy = insert("roles", "name", "ADMIN");
+        long read = insert("resources", "name", "READ_ORDERS");
+        long readCopy = insert("resources", "name", "READ_ORDERS");
+        long acme = insert("tenants", "code", "acme");
+        long beta = insert("tenants", "code", "beta");
+        link("tenant_roles", "tenant_id", acme, "role_id", admin);
+        link("tenant_roles", "tenant_id", acme, "role_id", adminCopy);
+        link("tenant_roles", "tenant_id", beta, "role_id", adminCopy);
+        link("role_resources", "role_id", admin, "resource_id", readCopy);
+        link("role_resources", "role_id", adminCopy, "resource_id", read);
+
+        migration.run();
+
+        assertEquals(List.of(admin), ids("select id from roles"));
+        assertEquals(List.of(read), ids("select id from resources"));
+        assertEquals(List.of(admin, admin), ids("select role_id from tenant_roles order by tenant_id"));
+        assertEquals(List.of(read), ids("select resource_id from role_resources where role_id = " + admin));
+        assertThrows(DataIntegrityViolationException.class, () -> insert("roles", "name", "ADMIN"));
+        assertThrows(DataIntegrityViolationException.class, () -> insert("resources", "name", "READ_ORDERS"));
+    }
+
+    @Test
+    void duplicateUsersAreLeftForAnOperatorAndTheConstraintWaits() {
+        jdbcTemplate.execute("alter table users drop constraint uk_users_username");
+        long first = insert("users", "username", "alice");
+        insert("users", "username", "alice");
+
+        migration.run();
+        // Still missing: another duplicate can be written
+        insert("users", "username", "alice");
+
+        jdbcTemplate.update("delete from users where id <> ?", first);
+        migration.run();
+        assertThrows(DataIntegrityViolationException.class, () -> insert("users", "username", "alice"));
+    }
+
+    @Test
+    void upToDateSchemaIsLeftAsItIs() {
+        migration.run();
+        migration.run();
+        insert("tenants", "code", "acme");
+        assertThrows(DataIntegrityViolationException.class, () -> insert("tenants", "code", "acme"));
+    }
+
+    private long insert(String table, String column, String value) {
+        jdbcTemplate.update("insert into " + table + " (" + column + ") values (?)", value);
+        return jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+    }
+
+    private void link(String table, String ownerColumn, long owner, String keyColumn, long key) {
+        jdbcTemplate.update("insert into " + table + " (" + ownerColumn + ", " + keyColumn + ") values (?, ?)", owner, key);
+    }
+
+    private List<Long> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.demo.web.application.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.Taco;
+import com.demo.web.application.dto.User;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.RequireTenantResourceAspect;
+import com.demo.web.application.security.SecurityConfig;
+import com.demo.web.application.security.TenantRateLimiter;
+import com.demo.web.application.security.TenantRequestMetrics;
+import com.demo.web.application.security.TenantResourceRequirementRegistry;
+import com.demo.web.application.security.TenantTokenProperties;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.security.UserPrincipal;
+import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.DraftOrderStore;
+import com.demo.web.application.service.OrderIngestionService;
+import com.demo.web.application.service.TenantCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The order form binds onto the entity, so only its delivery and card fields may be taken from the request.
+ */
+@WebMvcTest(controllers = OrderController.class)
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@EnableConfigurationProperties(TenantTokenProperties.class)
+@Import({SecurityConfig.class, RequireTenantResourceAspect.class, TenantResourceRequirementRegistry.class,
+        AuthorityRegistry.class, TenantRequestMetrics.class, TenantRateLimiter.class, TenantTokenService.class,
+        SimpleMeterRegistry.class})
+class OrderControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderIngestionService orderIngestion;
+
+    @MockBean
+    private DraftOrderStore draftOrders;
+
+    @MockBean
+    private TenantCacheService tenantCacheService;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void onlyDeliveryAndCardFieldsAreBound() throws Exception {
+        Order draft = new Order();
+        Taco taco = new Taco();
+        taco.setName("Draft taco");
+        draft.addTaco(taco);
+        when(draftOrders.get(any())).thenReturn(draft);
+        UserPrincipal bob = new UserPrincipal(5L, "bob", "hash", Set.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        mockMvc.perform(post("/orders").with(user(bob)).with(csrf())
+                        .param("name", "Bob").param("street", "Street").param("city", "City")
+                        .param("state", "ST").param("zip", "12345")
+                        .param("ccNumber", "4111111111111111").param("ccExpiration", "12/30").param("ccCVV", "123")
+                        .param("id", "1").param("ccLast4", "9999").param("placedAt", "2020-01-01T00:00:00Z")
+                        .param("ingestKey", "forged").param("tacos[0].name", "Posted taco"))
+                .andExpect(redirectedUrl("/"));
+
+        ArgumentCaptor<Order> submitted = ArgumentCaptor.forClass(Order.class);
+        verify(orderIngestion).submit(submitted.capture(), any(User.class));
+        Order order = submitted.getValue();
+        assertEquals("Bob", order.getName());
+        assertEquals("12345", order.getZip());
+        assertEquals("1111", order.getCcLast4());
+        assertNull(order.getId());
+        assertNull(order.getPlacedAt());
+        assertNull(order.getIngestKey());
+        assertEquals(1, order.getTacos().size());
+        assertEquals("Draft taco", order.getTacos().get(0).getName());
+        verify(draftOrders).remove(any());
+    }
+}
@@ -0,0 +1,174 @@
+package com.demo.web.application.controller;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.jayway.jsonpath.JsonPath;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.BoundedPasswordEncoder;
+import com.demo.web.application.security.ReactiveSecurityConfig;
+import com.demo.web.application.security.RequireTenantResourceAspect;
+import com.demo.web.application.security.TenantRateLimiter;
+import com.demo.web.application.security.TenantRequestMetrics;
+import com.demo.web.application.security.TenantResourceRequirementRegistry;
+import com.demo.web.application.security.TenantTokenProperties;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.security.UserPrincipal;
+import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The reactive API answers like the servlet one: X-Tenant-ID decides access, no session is created,
+ * and a lookup that completes later (lazy-mode miss) is awaited without blocking.
+ */
+@WebFluxTest(controllers = ReactiveTenantApiController.class,
+        properties = {"tenant.token.enabled=true", "security.password.bcrypt-strength=4"})
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@EnableConfigurationProperties(TenantTokenProperties.class)
+@Import({ReactiveSecurityConfig.class, RequireTenantResourceAspect.class, TenantResourceRequirementRegistry.class,
+        AuthorityRegistry.class, TenantRequestMetrics.class, TenantRateLimiter.class, TenantTokenService.class,
+        SimpleMeterRegistry.class})
+class ReactiveTenantApiControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @MockBean
+    private TenantCacheService tenantCacheService;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        Role admin = new Role("ADMIN");
+        admin.addResource(new Resource("READ_ORDERS"));
+        Role editor = new Role("EDITOR");
+        Map<String, TenantSnapshot> snapshots = Map.of(
+                "acme", snapshot("acme", admin),
+                "beta", snapshot("beta", editor));
+        when(tenantCacheService.getSnapshotByCodeAsync(anyString())).thenAnswer(call -> {
+            TenantSnapshot snapshot = snapshots.get(call.<String>getArgument(0));
+            // beta resolves asynchronously, like a lazy-mode load
+            return "beta".equals(call.getArgument(0))
+                    ? CompletableFuture.supplyAsync(() -> snapshot)
+                    : CompletableFuture.completedFuture(snapshot);
+        });
+    }
+
+    @Test
+    void tenantWithRoleIsAllowedWithoutCreatingSession() {
+        webTestClient.get().uri("/api/orders").header("X-Tenant-ID", "acme").exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("Set-Cookie")
+                .expectBody().jsonPath("$.tenant").isEqualTo("acme");
+        webTestClient.get().uri("/api/orders").header("X-Tenant-ID", "beta").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.tenant").isEqualTo("beta");
+    }
+
+    @Test
+    void preAuthorizeUsesTenantAuthorities() {
+        webTestClient.get().uri("/api/admin/users").header("X-Tenant-ID", "acme").exchange().expectStatus().isOk();
+        webTestClient.get().uri("/api/admin/users").header("X-Tenant-ID", "beta").exchange().expectStatus().isForbidden();
+        webTestClient.get().uri("/api/orders/read").header("X-Tenant-ID", "acme").exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void missingOrUnknownTenantIsForbidden() {
+        webTestClient.get().uri("/api/orders").exchange().expectStatus().isForbidden();
+        webTestClient.get().uri("/api/orders").header("X-Tenant-ID", "nobody").exchange().expectStatus().isForbidden();
+        webTestClient.get().uri("/api/admin/users").exchange().expectStatus().isForbidden();
+        webTestClient.get().uri("/api/me").exchange().expectStatus().isForbidden();
+    }
+
+    @Test
+    void meReturnsTheCurrentTenant() {
+        webTestClient.get().uri("/api/me").header("X-Tenant-ID", "acme").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("acme")
+                .jsonPath("$.roles[0]").isEqualTo("ADMIN");
+    }
+
+    @Test
+    void signedTokenIsUsedWithoutCacheLookup() {
+        String token = JsonPath.read(new String(webTestClient.post().uri("/api/token").header("X-Tenant-ID", "acme")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBodyContent(), StandardCharsets.UTF_8), "$.token");
+        clearInvocations(tenantCacheService);
+
+        webTestClient.get().uri("/api/admin/users").header("Authorization", "Bearer " + token).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.tenant").isEqualTo("acme");
+        webTestClient.get().uri("/api/orders").header("Authorization", "Bearer " + token).exchange()
+                .expectStatus().isOk();
+        verify(tenantCacheService, never()).getSnapshotByCodeAsync(anyString());
+
+        webTestClient.get().uri("/api/orders").header("Authorization", "Bearer " + token + "x").exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void actuatorNeedsAnAdminUserNotATenantHeader() {
+        when(userDetailsService.loadUserByUsername("ops")).thenReturn(new UserPrincipal(1L, "ops",
+                new BCryptPasswordEncoder(4).encode("secret"), Set.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        webTestClient.get().uri("/actuator/prometheus").exchange().expectStatus().isUnauthorized();
+        webTestClient.get().uri("/actuator/prometheus").header("X-Tenant-ID", "acme").exchange()
+                .expectStatus().isUnauthorized();
+        // Past security; no actuator endpoints in this slice
+        webTestClient.get().uri("/actuator/prometheus").headers(headers -> headers.setBasicAuth("ops", "secret"))
+                .exchange().expectStatus().isNotFound();
+        // checked by the application's bounded encoder, not a default-strength one of its own
+        assertInstanceOf(BoundedPasswordEncoder.class, AopTestUtils.getUltimateTargetObject(passwordEncoder));
+        verify(passwordEncoder).matches(eq("secret"), anyString());
+        webTestClient.get().uri("/actuator/health/readiness").exchange().expectStatus().isNotFound();
+    }
+
+    private TenantSnapshot snapshot(String code, Role role) {
+        Tenant tenant = new Tenant(code, code);
+        tenant.addRole(role);
+        return TenantSnapshot.compile(tenant, authorityRegistry);
+    }
+}
@@ -0,0 +1,144 @@
+package com.demo.web.application.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.jayway.jsonpath.JsonPath;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.RequireTenantResourceAspect;
+import com.demo.web.application.security.SecurityConfig;
+import com.demo.web.application.security.TenantRateLimiter;
+import com.demo.web.application.security.TenantRequestMetrics;
+import com.demo.web.application.security.TenantResourceRequirementRegistry;
+import com.demo.web.application.security.TenantTokenProperties;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * /api/** runs through the stateless tenant chain: X-Tenant-ID (or a signed tenant token) decides access
+ * and no session is created.
+ */
+@WebMvcTest(controllers = TenantApiController.class, properties = "tenant.token.enabled=true")
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@EnableConfigurationProperties(TenantTokenProperties.class)
+@Import({SecurityConfig.class, RequireTenantResourceAspect.class, TenantResourceRequirementRegistry.class,
+        AuthorityRegistry.class, TenantRequestMetrics.class, TenantRateLimiter.class, TenantTokenService.class,
+        SimpleMeterRegistry.class})
+class TenantApiControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @MockBean
+    private TenantCacheService tenantCacheService;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        Role admin = new Role("ADMIN");
+        admin.addResource(new Resource("READ_ORDERS"));
+        Role editor = new Role("EDITOR");
+        Map<String, TenantSnapshot> snapshots = Map.of(
+                "acme", snapshot("acme", admin),
+                "beta", snapshot("beta", editor));
+        when(tenantCacheService.getSnapshotByCode(anyString()))
+                .thenAnswer(call -> snapshots.get(call.<String>getArgument(0)));
+    }
+
+    @Test
+    void tenantWithRoleIsAllowedWithoutCreatingSession() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/orders").header("X-Tenant-ID", "acme"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tenant").value("acme"))
+                .andExpect(header().doesNotExist("Set-Cookie"))
+                .andReturn();
+        assertNull(result.getRequest().getSession(false));
+    }
+
+    @Test
+    void preAuthorizeUsesTenantAuthorities() throws Exception {
+        mockMvc.perform(get("/api/admin/users").header("X-Tenant-ID", "acme")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/admin/users").header("X-Tenant-ID", "beta")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/orders/read").header("X-Tenant-ID", "acme")).andExpect(status().isOk());
+    }
+
+    @Test
+    void missingOrUnknownTenantIsForbidden() throws Exception {
+        mockMvc.perform(get("/api/orders")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/orders").header("X-Tenant-ID", "nobody")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/users")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void signedTokenIsUsedWithoutCacheLookup() throws Exception {
+        String token = JsonPath.read(mockMvc.perform(post("/api/token").header("X-Tenant-ID", "acme"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+        clearInvocations(tenantCacheService);
+
+        mockMvc.perform(get("/api/admin/users").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tenant").value("acme"));
+        mockMvc.perform(get("/api/orders").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+        verify(tenantCacheService, never()).getSnapshotByCode(anyString());
+
+        // A change to acme moves its revision: the token still names acme, the cache decides
+        when(tenantCacheService.getRevision("acme")).thenReturn(1L);
+        mockMvc.perform(get("/api/admin/users").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+        verify(tenantCacheService).getSnapshotByCode("acme");
+    }
+
+    @Test
+    void tamperedTokenIsForbidden() throws Exception {
+        String token = JsonPath.read(mockMvc.perform(post("/api/token").header("X-Tenant-ID", "beta"))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+        String tampered = token.substring(0, token.indexOf('.')) + "x" + token.substring(token.indexOf('.'));
+
+        mockMvc.perform(get("/api/orders").header("Authorization", "Bearer " + tampered))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/orders").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+    }
+
+    private TenantSnapshot snapshot(String code, Role role) {
+        Tenant tenant = new Tenant(code, code);
+        tenant.addRole(role);
+        return TenantSnapshot.compile(tenant, authorityRegistry);
+    }
+}
@@ -0,0 +1,172 @@
+package com.demo.web.application.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.RequireTenantResourceAspect;
+import com.demo.web.application.security.SecurityConfig;
+import com.demo.web.application.security.TenantClientSecrets;
+import com.demo.web.application.security.TenantRateLimiter;
+import com.demo.web.application.security.TenantRequestMetrics;
+import com.demo.web.application.security.TenantResourceRequirementRegistry;
+import com.demo.web.application.security.TenantTokenProperties;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.security.UserPrincipal;
+import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantProvisioningService;
+import com.demo.web.application.service.TenantProvisioningService.Result;
+import com.demo.web.application.service.TenantSnapshot;
+
+import com.jayway.jsonpath.JsonPath;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@WebMvcTest(controllers = TenantProvisioningController.class)
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@EnableConfigurationProperties(TenantTokenProperties.class)
+@Import({SecurityConfig.class, RequireTenantResourceAspect.class, TenantResourceRequirementRegistry.class,
+        AuthorityRegistry.class, TenantRequestMetrics.class, TenantRateLimiter.class, TenantTokenService.class,
+        SimpleMeterRegistry.class})
+@TestPropertySource(properties = "security.password.bcrypt-strength=4")
+class TenantProvisioningControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @MockBean
+    private TenantProvisioningService provisioningService;
+
+    @MockBean
+    private TenantCacheService tenantCacheService;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, TenantSnapshot> snapshots = Map.of(
+                "acme", snapshot("acme", "ADMIN"),
+                "beta", snapshot("beta", "EDITOR"));
+        when(tenantCacheService.getSnapshotByCode(anyString()))
+                .thenAnswer(call -> snapshots.get(call.<String>getArgument(0)));
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+        when(userDetailsService.loadUserByUsername("ops")).thenReturn(user("ops", hash, "ROLE_ADMIN"));
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(user("alice", hash, "ROLE_USER"));
+    }
+
+    @Test
+    void adminUsersCanProvisionFromNdjson() throws Exception {
+        when(provisioningService.provision(any(InputStream.class)))
+                .thenReturn(new Result(2, 2, 0, 0, 0, 0, 0, 5, List.of(), null));
+
+        mockMvc.perform(post("/api/admin/tenants/bulk").with(httpBasic("ops", "secret"))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"code\":\"t1\",\"roles\":[\"USER\"]}\n{\"code\":\"t2\",\"roles\":[\"USER\"]}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+    }
+
+    @Test
+    void stoppedRunIsBadRequestAndOtherUsersAreForbidden() throws Exception {
+        when(provisioningService.provision(any(InputStream.class)))
+                .thenReturn(new Result(1, 0, 0, 0, 0, 0, 0, 5, List.of(), "Malformed input after entry 0"));
+        mockMvc.perform(post("/api/admin/tenants/bulk").with(httpBasic("ops", "secret"))
+                        .contentType(MediaType.APPLICATION_JSON).content("[{"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Malformed input after entry 0"));
+
+        mockMvc.perform(post("/api/admin/tenants/bulk").with(httpBasic("alice", "secret"))
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/tenants/bulk").with(httpBasic("ops", "wrong"))
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnauthorized());
+        // only the admin request reached the service
+        verify(provisioningService, times(1)).provision(any(InputStream.class));
+    }
+
+    @Test
+    void adminTenantHeaderIsNotACredential() throws Exception {
+        mockMvc.perform(post("/api/admin/tenants/bulk").header("X-Tenant-ID", "acme")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/tenants/bulk")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isForbidden());
+        verify(provisioningService, never()).provision(any(InputStream.class));
+    }
+
+    @Test
+    void adminUsersIssueClientSecretsAndOnlyTheHashIsStored() throws Exception {
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        when(provisioningService.setClientSecretHash(eq("acme"), hash.capture())).thenReturn(true);
+
+        String body = mockMvc.perform(post("/api/admin/tenants/acme/client-secret").with(httpBasic("ops", "secret")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(jsonPath("$.header").value(TenantTokenService.CLIENT_SECRET_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        String secret = JsonPath.read(body, "$.clientSecret");
+        assertTrue(TenantClientSecrets.matches(secret, hash.getValue()));
+        assertNotEquals(secret, hash.getValue());
+
+        mockMvc.perform(post("/api/admin/tenants/nobody/client-secret").with(httpBasic("ops", "secret")))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/admin/tenants/acme/client-secret").with(httpBasic("alice", "secret")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/tenants/acme/client-secret").header("X-Tenant-ID", "acme"))
+                .andExpect(status().isForbidden());
+        verify(provisioningService, times(2)).setClientSecretHash(anyString(), anyString());
+    }
+
+    private static UserPrincipal user(String username, String hash, String authority) {
+        return new UserPrincipal(1L, username, hash, Set.of(new SimpleGrantedAuthority(authority)));
+    }
+
+    private TenantSnapshot snapshot(String code, String roleName) {
+        Tenant tenant = new Tenant(code, code);
+        tenant.addRole(new Role(roleName));
+        return TenantSnapshot.compile(tenant, authorityRegistry);
+    }
+}
@@ -0,0 +1,113 @@
+package com.demo.web.application.controller;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.RequireTenantResourceAspect;
+import com.demo.web.application.security.SecurityConfig;
+import com.demo.web.application.security.TenantClientSecrets;
+import com.demo.web.application.security.TenantRateLimiter;
+import com.demo.web.application.security.TenantRequestMetrics;
+import com.demo.web.application.security.TenantResourceRequirementRegistry;
+import com.demo.web.application.security.TenantTokenProperties;
+import com.demo.web.application.security.TenantTokenService;
+import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * With tenant.token.required, /api/token issues tokens for the client secret or a current token only.
+ */
+@WebMvcTest(controllers = TenantApiController.class,
+        properties = {"tenant.token.enabled=true", "tenant.token.required=true"})
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@EnableConfigurationProperties(TenantTokenProperties.class)
+@Import({SecurityConfig.class, RequireTenantResourceAspect.class, TenantResourceRequirementRegistry.class,
+        AuthorityRegistry.class, TenantRequestMetrics.class, TenantRateLimiter.class, TenantTokenService.class,
+        SimpleMeterRegistry.class})
+class TenantTokenRequiredTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @MockBean
+    private TenantCacheService tenantCacheService;
+
+    @MockBean
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void rotatingTheSecretStopsOldTokensFromRenewing() throws Exception {
+        String oldSecret = TenantClientSecrets.generate();
+        AtomicReference<TenantSnapshot> acme = new AtomicReference<>(snapshot(oldSecret, 0));
+        when(tenantCacheService.getSnapshotByCode(anyString()))
+                .thenAnswer(call -> "acme".equals(call.getArgument(0)) ? acme.get() : null);
+
+        token(null, null).andExpect(status().isForbidden());
+        token(null, "wrong").andExpect(status().isForbidden());
+        String first = JsonPath.read(token(null, oldSecret).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), "$.token");
+        // a current token renews without the secret
+        token(first, null).andExpect(status().isOk());
+
+        // The admin endpoint stores a new hash and invalidates acme, which moves its revision
+        String newSecret = TenantClientSecrets.generate();
+        acme.set(snapshot(newSecret, 1));
+        when(tenantCacheService.getRevision("acme")).thenReturn(1L);
+
+        token(first, null).andExpect(status().isForbidden());
+        token(null, oldSecret).andExpect(status().isForbidden());
+        // the old token still names acme for ordinary requests until it expires
+        mockMvc.perform(get("/api/orders").header("Authorization", "Bearer " + first)).andExpect(status().isOk());
+        token(first, newSecret).andExpect(status().isOk());
+    }
+
+    private ResultActions token(String bearer, String clientSecret) throws Exception {
+        MockHttpServletRequestBuilder request = post("/api/token").header("X-Tenant-ID", "acme");
+        if (bearer != null) {
+            request.header("Authorization", "Bearer " + bearer);
+        }
+        if (clientSecret != null) {
+            request.header(TenantTokenService.CLIENT_SECRET_HEADER, clientSecret);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private TenantSnapshot snapshot(String clientSecret, long revision) {
+        Role admin = new Role("ADMIN");
+        admin.addResource(new Resource("READ_ORDERS"));
+        Tenant tenant = new Tenant("acme", "acme");
+        tenant.setId(1L);
+        tenant.setClientSecretHash(TenantClientSecrets.hash(clientSecret));
+        tenant.addRole(admin);
+        return TenantSnapshot.compile(tenant, authorityRegistry, revision);
+    }
+}
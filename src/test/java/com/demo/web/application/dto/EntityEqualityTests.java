@@ -0,0 +1,98 @@
+package com.demo.web.application.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class EntityEqualityTests {
+
+    @Test
+    void equalityFollowsNaturalKeyAcrossPersist() {
+        Role admin = new Role("ADMIN");
+        Set<Role> roles = new HashSet<>(Set.of(admin));
+
+        // What persisting and touching the row does to the entity
+        admin.setId(42L);
+        admin.setUpdatedAt(Instant.now());
+        admin.addResource(new Resource("DELETE_USERS"));
+
+        assertTrue(roles.contains(admin));
+        assertEquals(new Role("ADMIN"), admin);
+        assertNotEquals(new Role("USER"), admin);
+        assertEquals(new Tenant("acme", "Acme Corp"), new Tenant("acme", "Renamed"));
+        assertEquals(new Resource("READ_ORDERS"), new Resource("READ_ORDERS"));
+        assertEquals(new User("alice", "x", null, null, null, null, null, null),
+                new User("alice", "y", null, null, null, null, null, null));
+    }
+
+    @Test
+    void tenantCodesCompareTheWayLookupsDo() {
+        Tenant acme = new Tenant(" ACME ", "Acme Corp");
+        assertEquals("acme", acme.getCode());
+        assertEquals(new Tenant("acme", null), acme);
+
+        // A row written before codes were normalized on set is loaded as stored
+        Tenant legacy = new Tenant();
+        legacy.setId(7L);
+        ReflectionTestUtils.setField(legacy, "code", "Acme");
+        assertEquals(acme, legacy);
+        assertEquals(acme.hashCode(), legacy.hashCode());
+        assertEquals(1, new HashSet<>(Set.of(acme, new Tenant("beta", null))).stream()
+                .filter(legacy::equals).count());
+    }
+
+    @Test
+    void entitiesWithoutNaturalKeyAreOnlyEqualToThemselves() {
+        Role unnamed = new Role();
+        assertNotEquals(new Role(), unnamed);
+        assertEquals(unnamed, unnamed);
+        assertEquals(2, new HashSet<>(Set.of(new Tenant(), new Tenant())).size());
+    }
+
+    /**
+     * Hashing and equality must never walk the collections: with a collection that fails on access,
+     * set operations still work regardless of fan-out.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 10_000})
+    void setOperationsDoNotTouchCollections(int fanOut) {
+        Role role = new Role("EDITOR");
+        for (int i = 0; i < fanOut; i++) {
+            role.addResource(new Resource("RESOURCE_" + i));
+        }
+        role.setResources(untouchable(role.getResources()));
+        Tenant tenant = new Tenant("acme", "Acme");
+        tenant.setRoles(untouchable(Set.of(role)));
+
+        Set<Role> roles = new HashSet<>();
+        assertTrue(roles.add(role));
+        assertTrue(roles.contains(new Role("EDITOR")));
+        Set<Tenant> tenants = new HashSet<>();
+        assertTrue(tenants.add(tenant));
+        assertTrue(tenants.contains(new Tenant("acme", null)));
+    }
+
+    private static <T> Set<T> untouchable(Set<T> delegate) {
+        return new HashSet<>(delegate) {
+            @Override
+            public Iterator<T> iterator() {
+                throw new AssertionError("collection traversed by equals/hashCode");
+            }
+
+            @Override
+            public int hashCode() {
+                throw new AssertionError("collection hashed by equals/hashCode");
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.demo.web.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.dto.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The tenant cache and user login must load the tenant/user -> role -> resource graph in a single
+ * select, independent of how many tenants, roles and resources exist.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AuthorizationGraphQueryTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Role> roles = List.of(new Role("ADMIN"), new Role("EDITOR"), new Role("USER"));
+        for (int r = 0; r < roles.size(); r++) {
+            for (int i = 0; i < 5; i++) {
+                roles.get(r).addResource(entityManager.persist(new Resource("RES_" + r + "_" + i)));
+            }
+            entityManager.persist(roles.get(r));
+        }
+        for (int t = 0; t < 20; t++) {
+            Tenant tenant = new Tenant("tenant" + t, "Tenant " + t);
+            tenant.addRole(roles.get(t % roles.size()));
+            tenant.addRole(roles.get((t + 1) % roles.size()));
+            entityManager.persist(tenant);
+        }
+        User user = new User("alice", "secret", "Alice", "Street", "City", "ST", "12345", "555");
+        roles.forEach(user::addRole);
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void detachedEntitiesPrintWithoutTheirLazyCollections() {
+        Tenant tenant = tenantRepository.findAll().get(0);
+        Role role = roleRepository.findByName("ADMIN").orElseThrow();
+        User user = userRepository.findAll().get(0);
+        entityManager.clear();
+        statistics.clear();
+
+        assertTrue(tenant.toString().contains("tenant"));
+        assertTrue(role.toString().contains("ADMIN"));
+        assertTrue(user.toString().contains("alice"));
+        assertFalse(user.toString().contains("secret"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void tenantCacheLoadIsOneStatement() {
+        List<Tenant> tenants = tenantRepository.findAllWithRolesAndResources();
+
+        assertEquals(20, tenants.size());
+        tenants.forEach(tenant -> {
+            assertEquals(2, tenant.getRoles().size());
+            tenant.getRoles().forEach(role -> assertEquals(5, role.getResources().size()));
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void tenantReloadByCodeIsOneStatement() {
+        List<Tenant> tenants = tenantRepository.findByCodeIn(List.of("tenant1", "tenant2", "tenant3"));
+
+        assertEquals(3, tenants.size());
+        tenants.forEach(tenant -> tenant.getRoles().forEach(role -> assertTrue(Hibernate.isInitialized(role.getResources()))));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void linkAndResourceChangesMarkTheirTenantsChanged() {
+        Role auditor = new Role("AUDITOR");
+        auditor.addResource(entityManager.persist(new Resource("READ_AUDIT")));
+        entityManager.persist(auditor);
+        Tenant audited = new Tenant("audited", "Audited");
+        audited.addRole(auditor);
+        entityManager.persist(audited);
+        entityManager.persist(new Tenant("plain", "Plain"));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(Set.of("plain"), changedBy(() -> tenant("plain").addRole(role("USER"))));
+        assertEquals(Set.of("audited"), changedBy(() -> role("AUDITOR").addResource(entityManager.persist(new Resource("WRITE_AUDIT")))));
+        assertEquals(Set.of("audited"), changedBy(() -> role("AUDITOR").getResources().iterator().next().setName("READ_AUDIT_LOG")));
+        assertEquals(Set.of("audited"), changedBy(() -> tenant("audited").removeRole(role("AUDITOR"))));
+        assertEquals(Set.of(), changedBy(() -> { }));
+    }
+
+    @Test
+    void userLoginLoadIsOneStatement() {
+        User user = userRepository.findByUsername("alice").orElseThrow();
+
+        assertEquals(3 + 15, user.getAuthorities().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Codes of the tenants the incremental cache refresh would reload after the given change.
+     */
+    private Set<String> changedBy(Runnable change) {
+        Instant since = Instant.now();
+        change.run();
+        entityManager.flush();
+        entityManager.clear();
+        return tenantRepository.findChangedSince(since).stream().map(Tenant::getCode).collect(Collectors.toSet());
+    }
+
+    private Tenant tenant(String code) {
+        return tenantRepository.findByCode(code).orElseThrow();
+    }
+
+    private Role role(String name) {
+        return entityManager.getEntityManager().createQuery("select r from Role r where r.name = :name", Role.class)
+                .setParameter("name", name).getSingleResult();
+    }
+}
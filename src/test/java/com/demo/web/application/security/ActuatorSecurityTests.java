@@ -0,0 +1,98 @@
+package com.demo.web.application.security;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.demo.web.application.controller.RegistrationController;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.dto.User;
+import com.demo.web.application.repository.RoleRepository;
+import com.demo.web.application.repository.UserRepository;
+import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+import com.demo.web.application.service.UserDetailsCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * /actuator/** except health needs an ADMIN user over HTTP Basic; an admin tenant header is not enough.
+ * The slice has no actuator endpoints, so 404 means the request got past security.
+ */
+@WebMvcTest(controllers = RegistrationController.class)
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@EnableConfigurationProperties(TenantTokenProperties.class)
+@Import({SecurityConfig.class, RequireTenantResourceAspect.class, TenantResourceRequirementRegistry.class,
+        AuthorityRegistry.class, TenantRequestMetrics.class, TenantRateLimiter.class, TenantTokenService.class,
+        SimpleMeterRegistry.class, CustomUserDetailsService.class, UserDetailsCache.class})
+@TestPropertySource(properties = "security.password.bcrypt-strength=4")
+class ActuatorSecurityTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private RoleRepository roleRepository;
+
+    @MockBean
+    private TenantCacheService tenantCacheService;
+
+    @Test
+    void metricsNeedAnAdminUser() throws Exception {
+        when(userRepository.findByUsername("ops")).thenReturn(Optional.of(user("ops", "ADMIN")));
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("alice", "USER")));
+
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").with(httpBasic("alice", "secret"))).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("ops", "wrong"))).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("ops", "secret"))).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void adminTenantHeaderDoesNotOpenTheActuator() throws Exception {
+        Tenant acme = new Tenant("acme", "Acme");
+        acme.addRole(new Role("ADMIN"));
+        TenantSnapshot snapshot = TenantSnapshot.compile(acme, authorityRegistry);
+        when(tenantCacheService.getSnapshotByCode(anyString())).thenReturn(snapshot);
+
+        mockMvc.perform(get("/actuator/prometheus").header("X-Tenant-ID", "acme")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void healthProbesStayOpen() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/actuator/health/readiness")).andExpect(status().isNotFound());
+    }
+
+    private static User user(String username, String role) {
+        User user = new User(username, new BCryptPasswordEncoder(4).encode("secret"), "Name", "Street", "City", "ST",
+                "12345", "555");
+        user.setId(1L);
+        user.addRole(new Role(role));
+        return user;
+    }
+}
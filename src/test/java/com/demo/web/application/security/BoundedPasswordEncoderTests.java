@@ -0,0 +1,140 @@
+package com.demo.web.application.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class BoundedPasswordEncoderTests {
+
+    private final BlockingBCrypt delegate = new BlockingBCrypt();
+
+    @AfterEach
+    void release() {
+        delegate.release.countDown();
+    }
+
+    @Test
+    void saturatedPoolFailsFast() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5000);
+        try {
+            CompletableFuture.runAsync(() -> encoder.matches("a", "hash"));
+            assertTrue(delegate.started.await(2, TimeUnit.SECONDS));
+            CompletableFuture.runAsync(() -> encoder.matches("b", "hash"));
+            awaitQueued(encoder, 1);
+
+            PasswordHashingUnavailableException e = assertThrows(PasswordHashingUnavailableException.class,
+                    () -> encoder.matches("c", "hash"));
+            assertTrue(e.getMessage().contains("saturated"));
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void interruptedCallerCancelsItsQueuedTask() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 4, 5000);
+        try {
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+            assertTrue(delegate.started.await(2, TimeUnit.SECONDS));
+
+            AtomicInteger interruptedFlag = new AtomicInteger();
+            Thread waiter = new Thread(() -> {
+                try {
+                    encoder.matches("b", "hash");
+                } catch (PasswordHashingUnavailableException e) {
+                    interruptedFlag.set(Thread.currentThread().isInterrupted() ? 1 : 2);
+                }
+            });
+            waiter.start();
+            awaitQueued(encoder, 1);
+            waiter.interrupt();
+            waiter.join(2000);
+
+            assertEquals(1, interruptedFlag.get());
+            assertEquals(0, encoder.queued());
+            delegate.release.countDown();
+            running.get(2, TimeUnit.SECONDS);
+            // Only the first task ever reached BCrypt
+            assertEquals(1, delegate.calls.get());
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void slowHashTimesOutAndIsCancelled() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 4, 50);
+        try {
+            PasswordHashingUnavailableException e = assertThrows(PasswordHashingUnavailableException.class,
+                    () -> encoder.matches("a", "hash"));
+            assertTrue(e.getMessage().contains("too slow"));
+            // The next caller times out too, and its queued task is dropped rather than run later
+            assertThrows(PasswordHashingUnavailableException.class, () -> encoder.matches("b", "hash"));
+            assertEquals(0, encoder.queued());
+            assertFalse(Thread.currentThread().isInterrupted());
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void delegatesAndReportsWeakerHashesForUpgrade() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 1, 4, 5000);
+        try {
+            String hash = encoder.encode("secret");
+            assertTrue(hash.startsWith("$2a$05$"));
+            assertTrue(encoder.matches("secret", hash));
+            assertFalse(encoder.upgradeEncoding(hash));
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    private static void awaitQueued(BoundedPasswordEncoder encoder, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (encoder.queued() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, encoder.queued());
+    }
+
+    /**
+     * matches() blocks until released, without reacting to interrupts, like a long BCrypt round.
+     */
+    private static final class BlockingBCrypt extends BCryptPasswordEncoder {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            calls.incrementAndGet();
+            started.countDown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+    }
+}
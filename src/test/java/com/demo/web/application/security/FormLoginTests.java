@@ -0,0 +1,124 @@
+package com.demo.web.application.security;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.demo.web.application.controller.RegistrationController;
+import com.demo.web.application.dto.User;
+import com.demo.web.application.repository.RoleRepository;
+import com.demo.web.application.repository.UserRepository;
+import com.demo.web.application.service.CustomUserDetailsService;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.UserDetailsCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Form login through the real security chain, user details service and bounded BCrypt encoder.
+ */
+@WebMvcTest(controllers = RegistrationController.class)
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@EnableConfigurationProperties(TenantTokenProperties.class)
+@Import({SecurityConfig.class, RequireTenantResourceAspect.class, TenantResourceRequirementRegistry.class,
+        AuthorityRegistry.class, TenantRequestMetrics.class, TenantRateLimiter.class, TenantTokenService.class,
+        SimpleMeterRegistry.class, CustomUserDetailsService.class, UserDetailsCache.class})
+@TestPropertySource(properties = {"security.password.bcrypt-strength=5", "security.password.hashing-threads=1"})
+class FormLoginTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private RoleRepository roleRepository;
+
+    @MockBean
+    private TenantCacheService tenantCacheService;
+
+    @Test
+    void loginRehashesAPasswordStoredAtALowerStrength() throws Exception {
+        User alice = user("alice", new BCryptPasswordEncoder(4).encode("secret"));
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+
+        mockMvc.perform(post("/login").param("username", "alice").param("password", "secret").with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/"));
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        String rehashed = saved.getValue().getPassword();
+        assertTrue(rehashed.startsWith("$2a$05$"), rehashed);
+        assertTrue(new BCryptPasswordEncoder().matches("secret", rehashed));
+    }
+
+    @Test
+    void currentStrengthHashesAreNotRewritten() throws Exception {
+        when(userRepository.findByUsername("bob"))
+                .thenReturn(Optional.of(user("bob", new BCryptPasswordEncoder(5).encode("secret"))));
+
+        mockMvc.perform(post("/login").param("username", "bob").param("password", "secret").with(csrf()))
+                .andExpect(redirectedUrl("/"));
+
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void saturatedHashingPoolAnswers503WithRetryAfter() throws Exception {
+        when(userRepository.findByUsername("carol"))
+                .thenReturn(Optional.of(user("carol", new BCryptPasswordEncoder(5).encode("secret"))));
+        doThrow(new PasswordHashingUnavailableException("Password hashing is saturated, retry later"))
+                .when(passwordEncoder).matches(any(), anyString());
+
+        mockMvc.perform(post("/login").param("username", "carol").param("password", "secret").with(csrf()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void badCredentialsStillGoBackToTheLoginPage() throws Exception {
+        when(userRepository.findByUsername("dave"))
+                .thenReturn(Optional.of(user("dave", new BCryptPasswordEncoder(5).encode("secret"))));
+
+        mockMvc.perform(post("/login").param("username", "dave").param("password", "wrong").with(csrf()))
+                .andExpect(redirectedUrl("/login?error"));
+        verify(userRepository, never()).save(any());
+    }
+
+    private static User user(String username, String hash) {
+        User user = new User(username, hash, "Name", "Street", "City", "ST", "12345", "555");
+        user.setId(1L);
+        return user;
+    }
+}
@@ -0,0 +1,124 @@
+package com.demo.web.application.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RequireTenantResourceAspectTests {
+
+    private final AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TenantResourceRequirementRegistry requirementRegistry = new TenantResourceRequirementRegistry(
+            authorityRegistry, new TenantRequestMetrics(meterRegistry, mock(TenantCacheService.class), 20, 15, 200));
+
+    private final OrdersApi orders = proxy(new OrdersApi());
+    private final ReportsApi reports = proxy(new ReportsApi());
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void allowedCallsProceedAndAreCountedOnTheCachedRequirement() {
+        authenticate("acme", "ADMIN");
+
+        assertEquals("orders", orders.list());
+        assertEquals("orders", orders.list());
+
+        assertEquals(2.0, decisions("ORDERS", "allow"));
+        // Compiled once: the aspect's counters are the ones on the cached requirement
+        Method list = method(OrdersApi.class, "list");
+        TenantResourceRequirement requirement =
+                requirementRegistry.getRequirement(list, list.getAnnotation(RequireTenantResource.class));
+        assertSame(requirement, requirementRegistry.getRequirement(list, list.getAnnotation(RequireTenantResource.class)));
+        requirement.recordDecision(true);
+        assertEquals(3.0, decisions("ORDERS", "allow"));
+    }
+
+    @Test
+    void deniedCallsAndMissingTenantNeverReachTheMethod() {
+        assertThrows(TenantAccessDeniedException.class, orders::list);
+
+        authenticate("gamma", "USER");
+        TenantAccessDeniedException denied = assertThrows(TenantAccessDeniedException.class, orders::list);
+        assertEquals("Tenant does not have required role for resource 'ORDERS'. "
+                + "Required one of: [ROLE_ADMIN, ROLE_EDITOR], tenant has: [ROLE_USER]", denied.getMessage());
+        assertEquals(1.0, decisions("ORDERS", "deny"));
+    }
+
+    @Test
+    void classAnnotationAppliesUnlessTheMethodHasItsOwn() {
+        authenticate("gamma", "USER");
+        assertEquals("summary", reports.summary());
+        assertEquals(1.0, decisions("ReportsApi.summary(..)", "allow"));
+        assertThrows(TenantAccessDeniedException.class, reports::export);
+
+        authenticate("acme", "ADMIN");
+        assertThrows(TenantAccessDeniedException.class, reports::summary);
+        assertEquals("export", reports.export());
+    }
+
+    private void authenticate(String code, String roleName) {
+        Tenant tenant = new Tenant(code, code);
+        tenant.addRole(new Role(roleName));
+        SecurityContextHolder.getContext()
+                .setAuthentication(new TenantAuthenticationToken(TenantSnapshot.compile(tenant, authorityRegistry)));
+    }
+
+    private double decisions(String resource, String decision) {
+        return meterRegistry.get("tenant.authorization").tag("resource", resource).tag("decision", decision)
+                .counter().count();
+    }
+
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RequireTenantResourceAspect(requirementRegistry));
+        return factory.getProxy();
+    }
+
+    private static Method method(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class OrdersApi {
+
+        @RequireTenantResource(name = "ORDERS", roles = {"ADMIN", "ROLE_EDITOR"})
+        public String list() {
+            return "orders";
+        }
+    }
+
+    @RequireTenantResource(roles = "USER")
+    static class ReportsApi {
+
+        public String summary() {
+            return "summary";
+        }
+
+        @RequireTenantResource(name = "EXPORT", roles = "ADMIN")
+        public String export() {
+            return "export";
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.demo.web.application.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TenantHeaderFilterTests {
+
+    private final AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void eachVirtualThreadSeesOnlyItsOwnTenant() throws Exception {
+        Map<String, TenantSnapshot> snapshots = Map.of(
+                "acme", snapshot("acme", "ADMIN"),
+                "beta", snapshot("beta", "EDITOR"),
+                "gamma", snapshot("gamma", "USER"));
+        TenantCacheService cache = mock(TenantCacheService.class);
+        when(cache.getSnapshotByCode(anyString())).thenAnswer(call -> snapshots.get(call.<String>getArgument(0)));
+        TenantHeaderFilter filter = filter(cache, new TenantRateLimiter(0, 0, 0, 100_000, 600));
+
+        List<String> codes = List.of("acme", "beta", "gamma", "unknown");
+        List<Future<String[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2_000; i++) {
+                String code = codes.get(i % codes.size());
+                results.add(executor.submit(() -> {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+                    request.addHeader(TenantHeaderFilter.TENANT_HEADER, code);
+                    AtomicReference<Authentication> seen = new AtomicReference<>();
+                    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                        // Blocking call: the virtual thread unmounts and may resume on another carrier
+                        LockSupport.parkNanos(1_000_000);
+                        seen.set(SecurityContextHolder.getContext().getAuthentication());
+                    });
+                    Authentication auth = seen.get();
+                    return new String[] {code, auth == null ? null : ((TenantAuthenticationToken) auth).getTenantCode()};
+                }));
+            }
+        }
+        for (Future<String[]> result : results) {
+            String[] pair = result.get();
+            if ("unknown".equals(pair[0])) {
+                assertNull(pair[1]);
+            } else {
+                assertEquals(pair[0], pair[1]);
+            }
+        }
+    }
+
+    @Test
+    void overRateLimitGets429WithRetryAfter() throws Exception {
+        Tenant tenant = new Tenant("acme", "acme");
+        tenant.addRole(new Role("ADMIN"));
+        tenant.setRequestsPerSecond(1);
+        tenant.setBurstCapacity(2);
+        TenantSnapshot acme = TenantSnapshot.compile(tenant, authorityRegistry);
+        TenantCacheService cache = mock(TenantCacheService.class);
+        when(cache.getSnapshotByCode("acme")).thenReturn(acme);
+        TenantHeaderFilter filter = filter(cache, new TenantRateLimiter(0, 0, 0, 100_000, 600));
+
+        assertEquals(200, send(filter, "acme").getStatus());
+        assertEquals(200, send(filter, "acme").getStatus());
+        MockHttpServletResponse throttled = send(filter, "acme");
+        assertEquals(429, throttled.getStatus());
+        assertEquals("1", throttled.getHeader("Retry-After"));
+    }
+
+    @Test
+    void inFlightCapRejectsOnlyWhileSlotsAreTaken() throws Exception {
+        TenantSnapshot acme = snapshot("acme", "ADMIN");
+        TenantCacheService cache = mock(TenantCacheService.class);
+        when(cache.getSnapshotByCode("acme")).thenReturn(acme);
+        TenantRateLimiter rateLimiter = new TenantRateLimiter(0, 0, 1, 100_000, 600);
+        TenantHeaderFilter filter = filter(cache, rateLimiter);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> slow = executor.submit(() -> {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+                request.addHeader(TenantHeaderFilter.TENANT_HEADER, "acme");
+                filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                return null;
+            });
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            MockHttpServletResponse rejected = send(filter, "acme");
+            assertEquals(429, rejected.getStatus());
+            assertEquals("1", rejected.getHeader("Retry-After"));
+
+            release.countDown();
+            slow.get();
+        }
+        assertEquals(0, rateLimiter.quotaFor(acme).getInFlight());
+        assertEquals(200, send(filter, "acme").getStatus());
+    }
+
+    private MockHttpServletResponse send(TenantHeaderFilter filter, String code) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader(TenantHeaderFilter.TENANT_HEADER, code);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        return response;
+    }
+
+    private TenantHeaderFilter filter(TenantCacheService cache, TenantRateLimiter rateLimiter) {
+        return new TenantHeaderFilter(cache, new TenantRequestMetrics(new SimpleMeterRegistry(), cache, 20, 15, 200), rateLimiter,
+                new TenantTokenService(TenantTokenProperties.defaults(), cache, authorityRegistry, rateLimiter));
+    }
+
+    private TenantSnapshot snapshot(String code, String roleName) {
+        Tenant tenant = new Tenant(code, code);
+        tenant.addRole(new Role(roleName));
+        return TenantSnapshot.compile(tenant, authorityRegistry);
+    }
+}
@@ -0,0 +1,169 @@
+package com.demo.web.application.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import reactor.core.publisher.Mono;
+
+class TenantMethodAuthorizationManagerTests {
+
+    private final AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+    private final TenantCacheService cache = mock(TenantCacheService.class);
+    private final DefaultMethodSecurityExpressionHandler expressionHandler = spy(new DefaultMethodSecurityExpressionHandler());
+    private final TenantMethodAuthorizationManager manager =
+            new TenantMethodAuthorizationManager(() -> authorityRegistry, () -> cache, expressionHandler);
+
+    private final Authentication admin = new TenantAuthenticationToken(snapshot("acme", "ADMIN", "READ_ORDERS"));
+    private final Authentication viewer = new TenantAuthenticationToken(snapshot("beta", "VIEWER", "READ_REPORTS"));
+
+    @Test
+    void simpleExpressionsAreMaskChecksWithoutSpel() {
+        assertTrue(granted(admin, "admin"));
+        assertFalse(granted(viewer, "admin"));
+        assertTrue(granted(admin, "readOrders"));
+        assertFalse(granted(viewer, "readOrders"));
+        assertTrue(granted(viewer, "anyRole"));
+        // Authority no tenant has: registered at compile time, never granted
+        assertFalse(granted(admin, "unknownAuthority"));
+
+        verifyEvaluations(0);
+    }
+
+    @Test
+    void authorityOnlyExpressionsAreEvaluatedOncePerMaskAndVersion() {
+        assertTrue(granted(admin, "combined"));
+        assertTrue(granted(admin, "combined"));
+        assertFalse(granted(viewer, "combined"));
+        assertFalse(granted(viewer, "combined"));
+        // Another tenant with the same roles shares the decision
+        assertTrue(granted(new TenantAuthenticationToken(snapshot("other", "ADMIN", "READ_ORDERS")), "combined"));
+        verifyEvaluations(2);
+
+        clearInvocations(expressionHandler);
+        when(cache.getVersion()).thenReturn(1L);
+        assertTrue(granted(admin, "combined"));
+        verifyEvaluations(1);
+    }
+
+    @Test
+    void expressionsOnArgumentsAndNonTenantCallersAlwaysUseSpel() {
+        assertTrue(granted(admin, "argument", "acme"));
+        assertFalse(granted(admin, "argument", "beta"));
+        verifyEvaluations(2);
+
+        clearInvocations(expressionHandler);
+        Authentication user = UsernamePasswordAuthenticationToken.authenticated("user", null,
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        assertTrue(granted(user, "admin"));
+        assertTrue(granted(user, "admin"));
+        verifyEvaluations(2);
+    }
+
+    @Test
+    void reactiveChecksUseTheSameRules() {
+        assertTrue(manager.check(Mono.just(admin), invocation("admin")).block().isGranted());
+        assertFalse(manager.check(Mono.just(viewer), invocation("combined")).block().isGranted());
+        assertFalse(manager.check(Mono.just(viewer), invocation("combined")).block().isGranted());
+        verifyEvaluations(1);
+
+        // No authentication: left to Spring's manager, which grants nothing
+        assertFalse(manager.check(Mono.empty(), invocation("admin"))
+                .map(AuthorizationDecision::isGranted).defaultIfEmpty(false).block());
+    }
+
+    @Test
+    void onlyAuthorityFunctionsAndOperatorsCountAsAuthorityOnly() {
+        assertTrue(TenantMethodAuthorizationManager.dependsOnlyOnAuthorities(
+                "hasRole('ADMIN') and !hasAuthority('READ_ORDERS') or isAuthenticated()"));
+        assertFalse(TenantMethodAuthorizationManager.dependsOnlyOnAuthorities("hasRole(#role)"));
+        assertFalse(TenantMethodAuthorizationManager.dependsOnlyOnAuthorities("@access.check(authentication)"));
+        assertFalse(TenantMethodAuthorizationManager.dependsOnlyOnAuthorities("principal.code == 'acme'"));
+    }
+
+    private boolean granted(Authentication authentication, String method, Object... arguments) {
+        Supplier<Authentication> supplier = () -> authentication;
+        return manager.check(supplier, invocation(method, arguments)).isGranted();
+    }
+
+    private MethodInvocation invocation(String method, Object... arguments) {
+        return new SimpleMethodInvocation(new Secured(), Secured.method(method), arguments);
+    }
+
+    /**
+     * SpEL evaluations so far; the servlet and reactive managers use different createEvaluationContext overloads.
+     */
+    private void verifyEvaluations(int count) {
+        assertEquals(count, mockingDetails(expressionHandler).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("createEvaluationContext"))
+                .count());
+    }
+
+    private TenantSnapshot snapshot(String code, String roleName, String resourceName) {
+        Role role = new Role(roleName);
+        role.addResource(new Resource(resourceName));
+        Tenant tenant = new Tenant(code, code);
+        tenant.addRole(role);
+        return TenantSnapshot.compile(tenant, authorityRegistry);
+    }
+
+    static class Secured {
+
+        static Method method(String name) {
+            for (Method method : Secured.class.getDeclaredMethods()) {
+                if (method.getName().equals(name)) {
+                    return method;
+                }
+            }
+            throw new IllegalArgumentException(name);
+        }
+
+        @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+        public void admin() {
+        }
+
+        @PreAuthorize("hasAuthority('READ_ORDERS')")
+        public void readOrders() {
+        }
+
+        @PreAuthorize("hasAnyRole('ADMIN', 'VIEWER')")
+        public void anyRole() {
+        }
+
+        @PreAuthorize("hasAuthority('EXPORT_ORDERS')")
+        public void unknownAuthority() {
+        }
+
+        @PreAuthorize("hasRole('ADMIN') and hasAuthority('READ_ORDERS')")
+        public void combined() {
+        }
+
+        @PreAuthorize("#code == authentication.principal.code")
+        public void argument(String code) {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.demo.web.application.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.service.TenantSnapshot;
+
+class TenantQuotaTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketAllowsBurstThenRefillsAtRate() {
+        TenantQuota quota = new TenantQuota(10, 5, 0);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, quota.tryAcquire(now));
+        }
+        // Empty: the next token arrives after 1/10 s
+        assertEquals(SECOND / 10, quota.tryAcquire(now));
+        assertEquals(0, quota.tryAcquire(now + SECOND / 10));
+
+        // A long idle period refills only up to the burst size
+        long later = now + 60 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, quota.tryAcquire(later));
+        }
+        assertTrue(quota.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void zeroLimitsDisableChecks() {
+        TenantQuota quota = new TenantQuota(0, 0, 0);
+        long now = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(0, quota.tryAcquire(now));
+            assertTrue(quota.tryEnter());
+        }
+    }
+
+    @Test
+    void inFlightCapIsReleasedOnExit() {
+        TenantQuota quota = new TenantQuota(0, 0, 2);
+        assertTrue(quota.tryEnter());
+        assertTrue(quota.tryEnter());
+        assertFalse(quota.tryEnter());
+        quota.exit();
+        assertTrue(quota.tryEnter());
+        assertEquals(2, quota.getInFlight());
+    }
+
+    @Test
+    void idleQuotasExpireAndTheMapStaysBounded() {
+        AtomicLong nanos = new AtomicLong();
+        TenantRateLimiter rateLimiter = new TenantRateLimiter(10, 0, 0, 5, 600, nanos::get);
+        TenantSnapshot acme = snapshot("acme", null);
+
+        TenantQuota quota = rateLimiter.quotaFor(acme);
+        nanos.addAndGet(599 * SECOND);
+        assertSame(quota, rateLimiter.quotaFor(acme));
+        // Each lookup counts as access; a deleted or quiet tenant is dropped after the idle time
+        nanos.addAndGet(601 * SECOND);
+        assertNull(rateLimiter.existingQuota("acme"));
+        assertNotSame(quota, rateLimiter.quotaFor(acme));
+
+        for (int i = 0; i < 50; i++) {
+            rateLimiter.quotaFor(snapshot("t" + i, null));
+        }
+        assertTrue(rateLimiter.size() <= 5, "size " + rateLimiter.size());
+    }
+
+    @Test
+    void changedLimitsReplaceTheQuota() {
+        TenantRateLimiter rateLimiter = new TenantRateLimiter(10, 0, 0, 100, 600, System::nanoTime);
+        TenantQuota quota = rateLimiter.quotaFor(snapshot("acme", null));
+        assertSame(quota, rateLimiter.quotaFor(snapshot("acme", null)));
+        assertNotSame(quota, rateLimiter.quotaFor(snapshot("acme", 20)));
+    }
+
+    private static TenantSnapshot snapshot(String code, Integer requestsPerSecond) {
+        Tenant tenant = new Tenant(code, code);
+        tenant.setRequestsPerSecond(requestsPerSecond);
+        return TenantSnapshot.compile(tenant, new AuthorityRegistry());
+    }
+}
@@ -0,0 +1,106 @@
+package com.demo.web.application.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TenantRequestMetricsTests {
+
+    private final List<TenantSnapshot> snapshots = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void onlyTopTenantsGetTheirOwnSeriesTaggedById() {
+        for (int i = 0; i < 10; i++) {
+            snapshots.add(snapshot(i, i + 1));
+        }
+        TenantRequestMetrics metrics = metrics(3, 200);
+
+        metrics.publishTenantCounts();
+
+        assertEquals(10, count("109"));
+        assertEquals(8, count("107"));
+        // t0..t6 sent 1+2+...+7 requests
+        assertEquals(28, count(TenantRequestMetrics.OTHER_TENANTS));
+        assertNull(registry.find("tenant.requests").tag("tenant", "106").counter());
+        // Tenant codes are what grants API access; they never appear in a tag
+        assertEquals(Set.of("107", "108", "109", TenantRequestMetrics.OTHER_TENANTS),
+                registry.find("tenant.requests").counters().stream()
+                        .map(counter -> counter.getId().getTag("tenant"))
+                        .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void seriesAreKeptSoCountersNeverRestart() {
+        for (int i = 0; i < 4; i++) {
+            snapshots.add(snapshot(i, i + 1));
+        }
+        TenantRequestMetrics metrics = metrics(2, 200);
+        metrics.publishTenantCounts();
+        assertEquals(4, count("103"));
+
+        // Next window t0 is the busiest and joins; t3 drops out of the top 2 but keeps counting
+        record(snapshots.get(0), 50);
+        record(snapshots.get(3), 5);
+        record(snapshots.get(1), 1);
+        metrics.publishTenantCounts();
+
+        assertEquals(50, count("100"));
+        assertEquals(9, count("103"));
+        assertEquals(3, count("102"));
+        assertEquals(1 + 2 + 1, count(TenantRequestMetrics.OTHER_TENANTS));
+    }
+
+    @Test
+    void meterFilterCapsTheNumberOfTenantSeries() {
+        for (int i = 0; i < 5; i++) {
+            snapshots.add(snapshot(i, 100 - i));
+        }
+        TenantRequestMetrics metrics = metrics(5, 2);
+
+        metrics.publishTenantCounts();
+
+        assertEquals(100, count("100"));
+        assertEquals(99, count("101"));
+        assertEquals(98 + 97 + 96, count(TenantRequestMetrics.OTHER_TENANTS));
+        assertEquals(3, registry.find("tenant.requests").counters().size());
+    }
+
+    private TenantRequestMetrics metrics(int topTenants, int maxTenantSeries) {
+        TenantCacheService cache = mock(TenantCacheService.class);
+        when(cache.snapshots()).thenReturn(snapshots);
+        return new TenantRequestMetrics(registry, cache, topTenants, 15, maxTenantSeries);
+    }
+
+    private double count(String tenant) {
+        return registry.get("tenant.requests").tag("tenant", tenant).counter().count();
+    }
+
+    private static TenantSnapshot snapshot(int i, int requests) {
+        Tenant tenant = new Tenant("t" + i, "T" + i);
+        tenant.setId(100L + i);
+        TenantSnapshot snapshot = TenantSnapshot.compile(tenant, new AuthorityRegistry());
+        record(snapshot, requests);
+        return snapshot;
+    }
+
+    private static void record(TenantSnapshot snapshot, int requests) {
+        for (int r = 0; r < requests; r++) {
+            snapshot.recordRequest();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.demo.web.application.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.service.TenantCacheService;
+import com.demo.web.application.service.TenantSnapshot;
+
+class TenantTokenServiceTests {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+    private final TenantCacheService cache = mock(TenantCacheService.class);
+    private final TenantRateLimiter rateLimiter = new TenantRateLimiter(0, 0, 0, 100_000, 600);
+
+    @Test
+    void issuedTokenVerifiesWithTheTenantsClaims() {
+        TenantSnapshot acme = snapshot("acme", 7L, 3L);
+        TenantTokenService tokens = service(SECRET, NOW);
+
+        TenantTokenClaims claims = tokens.verify(tokens.issue(acme).token());
+
+        assertNotNull(claims);
+        assertEquals("acme", claims.getCode());
+        assertEquals(7L, claims.tenantId());
+        assertEquals(3L, claims.revision());
+        assertEquals(acme.getAuthorityMask(), claims.authorities());
+        assertEquals(acme.getAuthorities(), tokens.authenticate(claims).getAuthorities());
+        assertSame(acme, TenantTokenService.matching(claims, acme));
+        assertNull(TenantTokenService.matching(claims, snapshot("acme", 8L)));
+    }
+
+    @Test
+    void tamperedForeignOrExpiredTokensAreRejected() {
+        TenantTokenService tokens = service(SECRET, NOW);
+        String token = tokens.issue(snapshot("acme", 7L)).token();
+
+        // Flip one payload character (the instance id): the signature no longer matches
+        char c = token.charAt(4);
+        assertNull(tokens.verify(token.substring(0, 4) + (c == 'A' ? 'B' : 'A') + token.substring(5)));
+        assertNull(tokens.verify("x" + token));
+        assertNull(tokens.verify("not-a-token"));
+        assertNull(service(Base64.getEncoder().encodeToString(new byte[] {1, 2, 3}), NOW).verify(token));
+        assertNull(service(SECRET, NOW.plus(Duration.ofHours(2))).verify(token));
+    }
+
+    @Test
+    void claimsAreUsedAsIsOnlyWhileCurrent() {
+        TenantSnapshot acme = snapshot("acme", 7L);
+        TenantTokenService tokens = service(SECRET, NOW);
+        TenantTokenClaims claims = tokens.verify(tokens.issue(acme).token());
+
+        // No quota set up yet: resolve through the cache once
+        assertNull(tokens.currentQuota(claims));
+        TenantQuota quota = rateLimiter.quotaFor(acme);
+        assertSame(quota, tokens.currentQuota(claims));
+
+        // Changes to other tenants do not matter; a change to acme does
+        when(cache.getRevision("beta")).thenReturn(5L);
+        assertSame(quota, tokens.currentQuota(claims));
+        when(cache.getRevision("acme")).thenReturn(1L);
+        assertNull(tokens.currentQuota(claims));
+
+        // Same secret, other instance: signature is fine, authority ids are not
+        TenantTokenService otherNode = service(SECRET, NOW);
+        when(cache.getRevision("acme")).thenReturn(0L);
+        assertNotNull(otherNode.verify(tokens.issue(acme).token()));
+        assertNull(otherNode.currentQuota(claims));
+    }
+
+    @Test
+    void headerIsOnlyAcceptedAtTokenEndpointWhenTokensAreRequired() {
+        TenantTokenService optional = service(SECRET, NOW);
+        TenantTokenService required = new TenantTokenService(
+                TenantTokenProperties.defaults().withEnabled(SECRET).withRequired(true),
+                cache, authorityRegistry, rateLimiter);
+
+        assertTrue(optional.acceptsTenantHeader("/api/orders"));
+        assertFalse(required.acceptsTenantHeader("/api/orders"));
+        assertTrue(required.acceptsTenantHeader(TenantTokenService.TOKEN_PATH));
+        assertEquals("abc", optional.bearerToken("Bearer abc"));
+        assertNull(optional.bearerToken("Basic abc"));
+        assertNull(new TenantTokenService(TenantTokenProperties.defaults(), cache, authorityRegistry, rateLimiter)
+                .bearerToken("Bearer abc"));
+    }
+
+    @Test
+    void requiredTokensAreOnlyIssuedForTheClientSecretOrAToken() {
+        String secret = TenantClientSecrets.generate();
+        TenantSnapshot withSecret = snapshot("acme", 7L, 0L, TenantClientSecrets.hash(secret));
+        TenantSnapshot withoutSecret = snapshot("beta", 8L);
+        TenantTokenService required = new TenantTokenService(
+                TenantTokenProperties.defaults().withEnabled(SECRET).withRequired(true),
+                cache, authorityRegistry, rateLimiter, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertFalse(required.mayIssue(withSecret, null, null));
+        assertFalse(required.mayIssue(withSecret, null, "wrong"));
+        assertFalse(required.mayIssue(withoutSecret, null, secret));
+        assertTrue(required.mayIssue(withSecret, null, secret));
+        // renewal needs a current token of this instance for the same tenant
+        String token = "Bearer " + required.issue(withoutSecret).token();
+        assertTrue(required.mayIssue(withoutSecret, token, null));
+        assertFalse(required.mayIssue(withoutSecret, "Bearer abc", null));
+        assertFalse(required.mayIssue(withSecret, token, null));
+        // same secret, other instance: authority ids are not this one's
+        TenantTokenService otherNode = new TenantTokenService(
+                TenantTokenProperties.defaults().withEnabled(SECRET).withRequired(true),
+                cache, authorityRegistry, rateLimiter, Clock.fixed(NOW, ZoneOffset.UTC));
+        assertFalse(otherNode.mayIssue(withoutSecret, token, null));
+        // any change to beta, such as a new client secret, retires the token for renewal
+        when(cache.getRevision("beta")).thenReturn(1L);
+        assertFalse(required.mayIssue(withoutSecret, token, null));
+        // without tenant.token.required the header is the credential everywhere
+        assertTrue(service(SECRET, NOW).mayIssue(withoutSecret, null, null));
+    }
+
+    private TenantTokenService service(String secret, Instant now) {
+        return new TenantTokenService(TenantTokenProperties.defaults().withEnabled(secret), cache,
+                authorityRegistry, rateLimiter, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private TenantSnapshot snapshot(String code, long id) {
+        return snapshot(code, id, 0L);
+    }
+
+    private TenantSnapshot snapshot(String code, long id, long revision) {
+        return snapshot(code, id, revision, null);
+    }
+
+    private TenantSnapshot snapshot(String code, long id, long revision, String clientSecretHash) {
+        Role admin = new Role("ADMIN");
+        admin.addResource(new Resource("READ_ORDERS"));
+        Tenant tenant = new Tenant(code, code);
+        tenant.setId(id);
+        tenant.setClientSecretHash(clientSecretHash);
+        tenant.addRole(admin);
+        return TenantSnapshot.compile(tenant, authorityRegistry, revision);
+    }
+}
@@ -0,0 +1,68 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.Taco;
+
+class DraftOrderStoreTests {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final DraftOrderStore store = new DraftOrderStore(30, 1, nanos::get);
+
+    @Test
+    void sessionHoldsOnlyTheDraftId() {
+        MockHttpSession session = new MockHttpSession();
+        store.addTaco(session, taco("first"));
+        store.addTaco(session, taco("second"));
+
+        assertEquals(List.of(DraftOrderStore.DRAFT_ATTRIBUTE), Collections.list(session.getAttributeNames()));
+        assertInstanceOf(String.class, session.getAttribute(DraftOrderStore.DRAFT_ATTRIBUTE));
+        Order draft = store.get(session);
+        assertEquals(List.of("first", "second"), draft.getTacos().stream().map(Taco::getName).toList());
+        assertEquals(List.of("FLTO", "SLSA"), draft.getTacos().get(0).getIngredients());
+        assertNull(draft.getCcNumber());
+    }
+
+    @Test
+    void sessionsDoNotShareDrafts() {
+        MockHttpSession alice = new MockHttpSession();
+        MockHttpSession bob = new MockHttpSession();
+        store.addTaco(alice, taco("alice"));
+
+        assertTrue(store.get(bob).getTacos().isEmpty());
+        assertEquals(1, store.get(alice).getTacos().size());
+    }
+
+    @Test
+    void draftIsRemovedOnceOrderedAndExpiresWhenIdle() {
+        MockHttpSession ordered = new MockHttpSession();
+        store.addTaco(ordered, taco("ordered"));
+        store.remove(ordered);
+        assertNull(ordered.getAttribute(DraftOrderStore.DRAFT_ATTRIBUTE));
+        assertTrue(store.get(ordered).getTacos().isEmpty());
+
+        MockHttpSession idle = new MockHttpSession();
+        store.addTaco(idle, taco("idle"));
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(31));
+        assertTrue(store.get(idle).getTacos().isEmpty());
+    }
+
+    private static Taco taco(String name) {
+        Taco taco = new Taco();
+        taco.setName(name);
+        taco.setIngredients(List.of("FLTO", "SLSA"));
+        return taco;
+    }
+}
@@ -0,0 +1,62 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.demo.web.application.dto.Ingredient;
+import com.demo.web.application.dto.Ingredient.Type;
+import com.demo.web.application.repository.IngredientRepository;
+
+class IngredientCatalogTests {
+
+    private final IngredientRepository repository = mock(IngredientRepository.class);
+
+    private final IngredientCatalog catalog = new IngredientCatalog(repository, 0);
+
+    @Test
+    void groupsByTypeOncePerLoad() {
+        when(repository.findAll()).thenReturn(List.of(
+                new Ingredient("GRBF", "Ground Beef", Type.PROTEIN),
+                new Ingredient("FLTO", "Flour Tortilla", Type.WRAP),
+                new Ingredient("CARN", "Carnitas", Type.PROTEIN)));
+        catalog.refresh();
+
+        assertEquals(List.of("CARN", "GRBF"), catalog.byType(Type.PROTEIN).stream().map(Ingredient::getId).toList());
+        assertTrue(catalog.byType(Type.SAUCE).isEmpty());
+        assertEquals("Flour Tortilla", catalog.get("FLTO").getName());
+
+        Map<String, Object> model = catalog.designModel();
+        assertEquals(List.of("wrap", "protein", "veggies", "cheese", "sauce"), List.copyOf(model.keySet()));
+        assertSame(catalog.byType(Type.PROTEIN), model.get("protein"));
+        // no per-request work: the same map until the catalog changes
+        assertSame(model, catalog.designModel());
+        assertThrows(UnsupportedOperationException.class, () -> catalog.byType(Type.WRAP).add(null));
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    void saveReloadsTheCatalog() {
+        Ingredient salsa = new Ingredient("SLSA", "Salsa", Type.SAUCE);
+        when(repository.findAll()).thenReturn(List.of()).thenReturn(List.of(salsa));
+        when(repository.save(salsa)).thenReturn(salsa);
+        catalog.refresh();
+        Map<String, Object> before = catalog.designModel();
+
+        catalog.save(salsa);
+
+        assertEquals(List.of(salsa), catalog.byType(Type.SAUCE));
+        assertEquals(1, catalog.size());
+        assertTrue(before != catalog.designModel());
+    }
+}
@@ -0,0 +1,224 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.Taco;
+import com.demo.web.application.dto.User;
+import com.demo.web.application.repository.OrderRepository;
+
+class OrderIngestionServiceTests {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final List<Order> written = new ArrayList<>();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void synchronousByDefault() {
+        OrderIngestionService ingestion = new OrderIngestionService(orderService, orderRepository,
+                OrderIngestionProperties.defaults());
+        Order order = order("a");
+
+        assertTrue(ingestion.submit(order, null));
+        verify(orderService).placeOrder(order, null);
+    }
+
+    @Test
+    void writeBehindAcknowledgesThenDrains() throws Exception {
+        recordWrites();
+        OrderIngestionService ingestion = writeBehind(10);
+        User user = new User();
+        user.setId(7L);
+
+        for (String name : List.of("a", "b", "c")) {
+            assertFalse(ingestion.submit(order(name), user));
+        }
+        verify(orderService, never()).placeOrder(any(), any());
+        assertEquals(3, ingestion.pending());
+
+        assertEquals(3, ingestion.drain());
+        verify(orderService, times(1)).placeOrders(anyList());
+        assertEquals(List.of("a", "b", "c"), written.stream().map(Order::getName).toList());
+        Order first = written.get(0);
+        assertEquals(7L, first.getUser().getId());
+        assertEquals(List.of("FLTO", "CHED"), first.getTacos().get(0).getIngredients());
+        assertEquals(0, ingestion.pending());
+        ingestion.stop();
+    }
+
+    @Test
+    void fullBatchIsDrainedWithoutWaitingForTheInterval() throws Exception {
+        recordWrites();
+        // flush interval is irrelevant here: run() is never called, so nothing is scheduled
+        OrderIngestionService ingestion = writeBehind(2);
+
+        ingestion.submit(order("a"), null);
+        ingestion.submit(order("b"), null);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ingestion.pending() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, ingestion.pending());
+        assertEquals(2, written.size());
+        ingestion.stop();
+    }
+
+    @Test
+    void failedDrainKeepsOrdersForTheNextAttempt() throws Exception {
+        OrderIngestionService ingestion = writeBehind(10);
+        ingestion.submit(order("a"), null);
+        doThrow(new DataAccessResourceFailureException("down")).when(orderService).placeOrders(anyList());
+
+        assertEquals(0, ingestion.drain());
+        assertEquals(1, ingestion.pending());
+        ingestion.stop();
+    }
+
+    @Test
+    void restartReplaysPendingOrdersAndSkipsOnesAlreadyWritten() throws Exception {
+        OrderIngestionService crashed = writeBehind(10);
+        crashed.submit(order("committed"), null);
+        crashed.submit(order("lost"), null);
+        crashed.stop();
+        // the first order's transaction committed, but the process died before the checkpoint
+        String committedKey;
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(dir.resolve("orders.wal"), 1, false)) {
+            committedKey = OrderRecords.decode(wal.read(1).get(0).payload()).getIngestKey();
+        }
+
+        recordWrites();
+        when(orderRepository.findExistingIngestKeys(anyCollection())).thenReturn(Set.of(committedKey));
+        OrderIngestionService restarted = writeBehind(10);
+        assertEquals(2, restarted.pending());
+
+        assertEquals(1, restarted.drain());
+        assertEquals(List.of("lost"), written.stream().map(Order::getName).toList());
+        assertEquals(0, restarted.pending());
+        restarted.stop();
+    }
+
+    @Test
+    void rejectedOrderIsDeadLetteredWithoutBlockingTheOthers() throws Exception {
+        when(orderService.placeOrders(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            if (orders.stream().anyMatch(order -> order.getName().equals("bad"))) {
+                throw new DataIntegrityViolationException("value too long for deliveryState");
+            }
+            written.addAll(orders);
+            return orders;
+        });
+        OrderIngestionService ingestion = writeBehind(10);
+        for (String name : List.of("a", "bad", "c")) {
+            ingestion.submit(order(name), null);
+        }
+
+        assertEquals(2, ingestion.drain());
+        assertEquals(List.of("a", "c"), written.stream().map(Order::getName).toList());
+        assertEquals(0, ingestion.pending());
+        ingestion.stop();
+
+        List<OrderDeadLetters.DeadLetter> dead = OrderDeadLetters.read(dir.resolve("orders.dead"));
+        assertEquals(1, dead.size());
+        assertEquals("bad", OrderRecords.decode(dead.get(0).payload()).getName());
+        assertTrue(dead.get(0).reason().contains("value too long"));
+    }
+
+    @Test
+    void retryAfterAnAmbiguousCommitSkipsOrdersAlreadyWritten() throws Exception {
+        OrderIngestionService ingestion = writeBehind(10);
+        ingestion.submit(order("a"), null);
+        ingestion.submit(order("b"), null);
+        // the connection drops during commit; the transaction went through anyway
+        List<String> attempted = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            orders.forEach(order -> attempted.add(order.getIngestKey()));
+            throw new DataAccessResourceFailureException("connection reset");
+        }).when(orderService).placeOrders(anyList());
+        assertEquals(0, ingestion.drain());
+        assertEquals(2, ingestion.pending());
+
+        when(orderRepository.findExistingIngestKeys(anyCollection())).thenReturn(Set.of(attempted.get(0)));
+        recordWrites();
+
+        assertEquals(1, ingestion.drain());
+        assertEquals(List.of("b"), written.stream().map(Order::getName).toList());
+        assertEquals(0, ingestion.pending());
+        ingestion.stop();
+    }
+
+    @Test
+    void cardNumberAndCvvAreNotLogged() throws Exception {
+        OrderIngestionService ingestion = writeBehind(10);
+        Order order = order("a");
+        order.setCcNumber("4111 1111 1111 1111");
+        order.setCcExpiration("12/30");
+        order.setCcCVV("123");
+        ingestion.submit(order, null);
+        ingestion.stop();
+
+        String file = new String(Files.readAllBytes(dir.resolve("orders.wal")), StandardCharsets.ISO_8859_1);
+        assertFalse(file.contains("4111 1111 1111 1111"));
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(dir.resolve("orders.wal"), 1, false)) {
+            Order logged = OrderRecords.decode(wal.read(1).get(0).payload());
+            assertEquals("1111", logged.getCcLast4());
+            assertEquals("12/30", logged.getCcExpiration());
+            assertNull(logged.getCcNumber());
+            assertNull(logged.getCcCVV());
+        }
+    }
+
+    private void recordWrites() {
+        doAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            written.addAll(orders);
+            return orders;
+        }).when(orderService).placeOrders(anyList());
+    }
+
+    private OrderIngestionService writeBehind(int batchSize) {
+        OrderIngestionProperties properties = new OrderIngestionProperties(true, dir.resolve("orders.wal"), 1,
+                batchSize, 200, false, dir.resolve("orders.dead"));
+        return new OrderIngestionService(orderService, orderRepository, properties);
+    }
+
+    private static Order order(String name) {
+        Order order = new Order();
+        order.setName(name);
+        Taco taco = new Taco();
+        taco.setName(name + "-taco");
+        taco.setIngredients(List.of("FLTO", "CHED"));
+        order.addTaco(taco);
+        return order;
+    }
+}
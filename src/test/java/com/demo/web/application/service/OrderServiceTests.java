@@ -0,0 +1,128 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demo.web.application.dto.Order;
+import com.demo.web.application.dto.Taco;
+import com.demo.web.application.dto.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * An order is written with one batched insert per table (order, tacos, ingredient links, order/taco
+ * links), not one statement per row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(OrderService.class)
+class OrderServiceTests {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persistAndFlush(new User("bob", "secret", "Bob", "Street", "City", "ST", "12345", "555"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // the pooled optimizer reads each sequence twice to set up its first block of ids; get that
+        // out of the way so the measured orders do not touch the sequences
+        placeAndFlush(order(1));
+        placeAndFlush(order(1));
+        statistics.clear();
+    }
+
+    @Test
+    void writesOrderWithOneBatchPerTable() {
+        Order saved = placeAndFlush(order(5));
+
+        // 1 order + 5 tacos, plus 15 ingredient links and 5 order/taco links = 26 rows
+        assertEquals(6, statistics.getEntityInsertCount());
+        assertEquals(4, statistics.getPrepareStatementCount(), "one batched insert per table");
+
+        entityManager.clear();
+        Order reloaded = entityManager.find(Order.class, saved.getId());
+        assertEquals(5, reloaded.getTacos().size());
+        assertEquals(List.of("FLTO", "GRBF", "CHED"), reloaded.getTacos().get(0).getIngredients());
+        assertEquals(user.getId(), reloaded.getUser().getId());
+        assertNotNull(reloaded.getPlacedAt());
+        assertEquals("1111", reloaded.getCcLast4());
+        assertNull(reloaded.getCcNumber());
+        assertNull(reloaded.getCcCVV());
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithTacos() {
+        placeAndFlush(order(2));
+        long small = statistics.getPrepareStatementCount();
+        statistics.clear();
+
+        placeAndFlush(order(20));
+
+        assertEquals(small, statistics.getPrepareStatementCount());
+        assertTrue(small <= 4, "statements per order: " + small);
+    }
+
+    @Test
+    void anIdOnTheOrderNeverOverwritesAnExistingOne() {
+        Order existing = placeAndFlush(order(1));
+        Order posted = order(1);
+        posted.setName("Mallory");
+        ReflectionTestUtils.setField(posted, "id", existing.getId());
+
+        Order saved = placeAndFlush(posted);
+
+        assertNotEquals(existing.getId(), saved.getId());
+        entityManager.clear();
+        assertEquals("Bob", entityManager.find(Order.class, existing.getId()).getName());
+    }
+
+    private Order placeAndFlush(Order order) {
+        Order saved = orderService.placeOrder(order, user);
+        entityManager.flush();
+        return saved;
+    }
+
+    private static Order order(int tacoCount) {
+        Order order = new Order();
+        order.setName("Bob");
+        order.setStreet("Street");
+        order.setCity("City");
+        order.setState("ST");
+        order.setZip("12345");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/30");
+        order.setCcCVV("123");
+        for (int i = 0; i < tacoCount; i++) {
+            Taco taco = new Taco();
+            taco.setName("Taco " + i);
+            taco.setIngredients(List.of("FLTO", "GRBF", "CHED"));
+            order.addTaco(taco);
+        }
+        return order;
+    }
+}
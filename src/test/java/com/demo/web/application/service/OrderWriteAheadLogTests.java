@@ -0,0 +1,110 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OrderWriteAheadLogTests {
+
+    private static final int CAPACITY = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void checkpointConsumesRecordsInOrder() throws Exception {
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(dir.resolve("orders.wal"), CAPACITY, true)) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i + 1, wal.append(bytes("order-" + i)));
+            }
+            List<OrderWriteAheadLog.Entry> first = wal.read(3);
+            assertEquals(List.of("order-0", "order-1", "order-2"), strings(first));
+            // reading alone does not consume
+            assertEquals(first.size(), wal.read(3).size());
+
+            wal.checkpoint(first.get(2));
+            assertEquals(2, wal.pending());
+            assertEquals(List.of("order-3", "order-4"), strings(wal.read(10)));
+        }
+    }
+
+    @Test
+    void reopenReplaysOnlyRecordsAfterTheCheckpoint() throws Exception {
+        Path file = dir.resolve("orders.wal");
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(file, CAPACITY, true)) {
+            wal.append(bytes("persisted"));
+            wal.append(bytes("pending-1"));
+            wal.append(bytes("pending-2"));
+            wal.checkpoint(wal.read(1).get(0));
+        }
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(file, CAPACITY, true)) {
+            assertEquals(2, wal.pending());
+            assertEquals(3, wal.recoveredThrough());
+            assertEquals(List.of("pending-1", "pending-2"), strings(wal.read(10)));
+            assertEquals(4, wal.append(bytes("new")));
+        }
+    }
+
+    @Test
+    void tornRecordEndsRecovery() throws Exception {
+        Path file = dir.resolve("orders.wal");
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(file, CAPACITY, true)) {
+            wal.append(bytes("complete"));
+            wal.append(bytes("torn"));
+        }
+        // flip a payload byte of the second record: 32 header + (16 + 8) first record + 16 record header
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(32 + 16 + 8 + 16);
+            raw.write('X');
+        }
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(file, CAPACITY, true)) {
+            assertEquals(List.of("complete"), strings(wal.read(10)));
+            // the torn slot is reused
+            wal.append(bytes("retry"));
+            assertEquals(List.of("complete", "retry"), strings(wal.read(10)));
+        }
+    }
+
+    @Test
+    void drainedLogRestartsAtTheFrontAndIgnoresOldRecords() throws Exception {
+        Path file = dir.resolve("orders.wal");
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(file, CAPACITY, true)) {
+            wal.append(bytes("old-1"));
+            wal.append(bytes("old-2"));
+            wal.checkpoint(wal.read(10).get(1));
+            assertEquals(0, wal.pending());
+            wal.append(bytes("new-1"));
+        }
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(file, CAPACITY, true)) {
+            // old-2 is still on disk after new-1 but has an older sequence
+            assertEquals(List.of("new-1"), strings(wal.read(10)));
+        }
+    }
+
+    @Test
+    void fullLogRejectsAppends() throws Exception {
+        try (OrderWriteAheadLog wal = new OrderWriteAheadLog(dir.resolve("orders.wal"), 128, false)) {
+            byte[] payload = new byte[40];
+            assertTrue(wal.append(payload) > 0);
+            assertEquals(-1, wal.append(payload));
+            wal.checkpoint(wal.read(1).get(0));
+            assertTrue(wal.append(payload) > 0);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<OrderWriteAheadLog.Entry> entries) {
+        return entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,243 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.repository.TenantRepository;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.service.invalidation.InProcessTenantInvalidationBus;
+
+class TenantCacheServiceTests {
+
+    private final TenantRepository repository = mock(TenantRepository.class);
+
+    @Test
+    void lookupIgnoresCaseAndPadding() {
+        when(repository.findAllWithRolesAndResources()).thenReturn(List.of(tenant("acme"), tenant("beta")));
+        TenantCacheService cache = cache(false);
+        cache.loadCache();
+
+        assertEquals("acme", cache.getSnapshotByCode("acme").getCode());
+        assertEquals("acme", cache.getSnapshotByCode(" ACME\t").getCode());
+        assertEquals("beta", cache.getSnapshotByCode("bEtA").getCode());
+        assertNull(cache.getSnapshotByCode("acm"));
+        assertNull(cache.getSnapshotByCode("acme2"));
+        assertNull(cache.getSnapshotByCode("   "));
+        // Non-ASCII input takes the normalizing path and still misses cleanly
+        assertNull(cache.getSnapshotByCode("ÁCME"));
+    }
+
+    @Test
+    void incrementalRefreshReloadsChangedTenantsAndDropsDeletedOnes() {
+        when(repository.findAllWithRolesAndResources()).thenReturn(List.of(tenant("acme"), tenant("beta")));
+        TenantCacheService cache = cache(false);
+        // Nothing published yet: full load
+        cache.refreshChanged();
+        assertEquals(2, cache.size());
+
+        Tenant acme = tenant("acme");
+        acme.addRole(new Role("ADMIN"));
+        when(repository.findChangedSince(any())).thenReturn(List.of(acme));
+        when(repository.findAllCodes()).thenReturn(List.of("acme"));
+        cache.refreshChanged();
+
+        assertNull(cache.getSnapshotByCode("beta"));
+        assertTrue(cache.getSnapshotByCode("acme").getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN")));
+        verify(repository, times(1)).findAllWithRolesAndResources();
+    }
+
+    @Test
+    void refreshMovesTheRevisionOfTheReloadedTenantsOnly() {
+        when(repository.findAllWithRolesAndResources()).thenReturn(List.of(tenant("acme"), tenant("beta")));
+        TenantCacheService cache = cache(false);
+        cache.loadCache();
+        long loaded = cache.getRevision("acme");
+        assertEquals(loaded, cache.getRevision("beta"));
+        assertEquals(loaded, cache.getSnapshotByCode("acme").getRevision());
+
+        when(repository.findByCodeIn(Set.of("beta"))).thenReturn(List.of(tenant("beta")));
+        cache.refreshTenants(List.of("Beta"));
+
+        assertEquals(loaded, cache.getRevision("acme"));
+        assertEquals(loaded, cache.getSnapshotByCode("acme").getRevision());
+        assertTrue(cache.getRevision("beta") > loaded);
+        long refreshed = cache.getRevision("beta");
+        assertEquals(refreshed, cache.getSnapshotByCode("beta").getRevision());
+
+        // A full load changes every tenant
+        cache.loadCache();
+        assertTrue(cache.getRevision("acme") > refreshed);
+        assertEquals(cache.getRevision("acme"), cache.getRevision("beta"));
+        assertEquals(cache.getRevision("acme"), cache.getSnapshotByCode("acme").getRevision());
+    }
+
+    @Test
+    void incrementalRefreshRunsOnSchedule() {
+        TenantCacheService cache = new TenantCacheService(repository, new AuthorityRegistry(),
+                new InProcessTenantInvalidationBus(), new TenantCacheProperties(false, 64, 30, 100_000, 0, null, 1000, 60, 1));
+        try {
+            cache.run(null);
+            verify(repository, timeout(5000)).findChangedSince(any());
+        } finally {
+            cache.stop();
+        }
+    }
+
+    @Test
+    void lazyModeQueriesOnlyForCodesThatMayExist() {
+        when(repository.findAllCodes()).thenReturn(List.of("acme", "beta"));
+        when(repository.findByCodeIn(Set.of("acme"))).thenReturn(List.of(tenant("acme")));
+        TenantCacheService cache = cache(true);
+        cache.loadCache();
+        verify(repository, never()).findAllWithRolesAndResources();
+
+        // Loaded once, then served from memory
+        assertNotNull(cache.getSnapshotByCode("ACME"));
+        assertNotNull(cache.getSnapshotByCode("acme"));
+        verify(repository, times(1)).findByCodeIn(Set.of("acme"));
+
+        // A flood of codes that were never created costs no query
+        for (int i = 0; i < 10_000; i++) {
+            assertNull(cache.getSnapshotByCode("random-" + i));
+        }
+        verify(repository, times(1)).findByCodeIn(anyCollection());
+
+        // Known code that has since been deleted: one query, then negative-cached
+        assertNull(cache.getSnapshotByCode("beta"));
+        assertNull(cache.getSnapshotByCode("beta"));
+        verify(repository, times(1)).findByCodeIn(Set.of("beta"));
+    }
+
+    @Test
+    void lazyModeLoadsTenantAnnouncedAfterStartup() {
+        when(repository.findAllCodes()).thenReturn(List.of("acme"));
+        TenantCacheService cache = cache(true);
+        cache.loadCache();
+        when(repository.findByCodeIn(Set.of("gamma"))).thenReturn(List.of(tenant("gamma")));
+
+        // Not in the code filter yet, so turned away without a query
+        assertNull(cache.getSnapshotByCode("gamma"));
+        verify(repository, never()).findByCodeIn(anyCollection());
+
+        cache.invalidate(List.of("gamma"));
+        assertNotNull(cache.getSnapshotByCode("gamma"));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findByCodeIn(Set.of("acme"))).thenAnswer(call -> {
+            release.await();
+            return List.of(tenant("acme"));
+        });
+        TenantCacheService cache = cache(true);
+
+        List<Future<TenantSnapshot>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> cache.getSnapshotByCode(" Acme")));
+            }
+            Thread.sleep(100);
+            release.countDown();
+        }
+        for (Future<TenantSnapshot> result : results) {
+            assertEquals("acme", result.get().getCode());
+        }
+        verify(repository, times(1)).findByCodeIn(anyCollection());
+    }
+
+    @Test
+    void lazyCacheStaysWithinMemoryBudget() {
+        // Each tenant weighs ~100 KB (display name), so a 1 MB budget holds about ten
+        when(repository.findByCodeIn(anyCollection())).thenAnswer(call -> {
+            String code = call.<Collection<String>>getArgument(0).iterator().next();
+            Tenant tenant = tenant(code);
+            tenant.setDisplayName("x".repeat(100_000));
+            return List.of(tenant);
+        });
+        TenantCacheService cache = new TenantCacheService(repository, new AuthorityRegistry(),
+                new InProcessTenantInvalidationBus(), new TenantCacheProperties(true, 64, 30, 100_000, 1, null, 1000, 60, 0));
+
+        for (int i = 0; i < 50; i++) {
+            assertNotNull(cache.getSnapshotByCode("tenant" + i));
+        }
+        await(() -> cache.size() <= 11);
+    }
+
+    @Test
+    void warmUpPreloadsHottestTenantsOfPreviousRun(@TempDir Path dir) {
+        Path warmupFile = dir.resolve("hot-tenants.txt");
+        when(repository.findByCodeIn(anyCollection())).thenAnswer(call -> call.<Collection<String>>getArgument(0)
+                .stream().map(TenantCacheServiceTests::tenant).toList());
+        TenantCacheProperties properties = TenantCacheProperties.defaults().withLazyLoad(true).withWarmupFile(warmupFile);
+
+        TenantCacheService previousRun = new TenantCacheService(repository, new AuthorityRegistry(),
+                new InProcessTenantInvalidationBus(), properties);
+        previousRun.getSnapshotByCode("acme");
+        previousRun.getSnapshotByCode("beta");
+        previousRun.saveHottest();
+
+        TenantCacheService cache = new TenantCacheService(repository, new AuthorityRegistry(),
+                new InProcessTenantInvalidationBus(), properties);
+        clearInvocations(repository);
+        cache.warmUp();
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getSnapshotByCode("acme"));
+        assertNotNull(cache.getSnapshotByCode("beta"));
+        // Both came from one chunked query; no per-tenant loads afterwards
+        verify(repository, times(1)).findByCodeIn(anyCollection());
+    }
+
+    private TenantCacheService cache(boolean lazyLoad) {
+        return new TenantCacheService(repository, new AuthorityRegistry(), new InProcessTenantInvalidationBus(),
+                TenantCacheProperties.defaults().withLazyLoad(lazyLoad));
+    }
+
+    /**
+     * Caffeine evicts asynchronously; polls briefly instead of asserting right away.
+     */
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private static Tenant tenant(String code) {
+        Tenant tenant = new Tenant(code, code);
+        tenant.addRole(new Role("USER"));
+        return tenant;
+    }
+}
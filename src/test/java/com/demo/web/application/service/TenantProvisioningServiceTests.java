@@ -0,0 +1,222 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.repository.RoleRepository;
+import com.demo.web.application.repository.TenantRepository;
+import com.demo.web.application.service.TenantProvisioningService.Result;
+import com.demo.web.application.service.TenantProvisioningService.RoleSpec;
+import com.demo.web.application.service.TenantProvisioningService.TenantSpec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Chunks commit on their own, so the tests run outside the test transaction and clean up after.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TenantProvisioningServiceTests {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private final TenantCacheService cache = mock(TenantCacheService.class);
+
+    @AfterEach
+    void cleanUp() {
+        for (String table : List.of("tenant_roles", "role_resources", "tenants", "roles", "resources")) {
+            jdbc.getJdbcTemplate().update("delete from " + table);
+        }
+    }
+
+    @Test
+    void ndjsonIsWrittenInChunksWithSharedRolesAndOneCacheInvalidation() throws IOException {
+        Role admin = new Role("ADMIN");
+        admin.addResource(new Resource("READ_ORDERS"));
+        roleRepository.save(admin);
+
+        Result result = service(2).provision(body("""
+                {"code": "T1", "displayName": "Tenant 1", "roles": ["ADMIN"], "requestsPerSecond": 5}
+                {"code": "t2", "roles": [{"name": "AUDITOR", "resources": ["READ_ORDERS", "READ_AUDIT"]}]}
+                {"code": "t3", "roles": ["ROLE_ADMIN", {"name": "AUDITOR", "resources": ["IGNORED"]}]}
+                {"code": "t1", "roles": ["ADMIN"]}
+                {"code": "bad code", "roles": ["ADMIN"]}
+                {"code": "t4", "roles": ["lower"]}
+                {"code": "t5", "roles": ["ADMIN"], "burstCapacity": -1}
+                """));
+
+        assertEquals(7, result.received());
+        assertEquals(3, result.created());
+        assertEquals(1, result.duplicates());
+        assertEquals(3, result.invalid());
+        assertEquals(3, result.errors().size());
+        assertEquals(1, result.rolesCreated());
+        assertEquals(1, result.resourcesCreated());
+        assertNull(result.error());
+
+        Map<String, Tenant> tenants = tenantRepository.findAllWithRolesAndResources().stream()
+                .collect(Collectors.toMap(Tenant::getCode, tenant -> tenant));
+        assertEquals(Set.of("t1", "t2", "t3"), tenants.keySet());
+        assertEquals("Tenant 1", tenants.get("t1").getDisplayName());
+        assertEquals(5, tenants.get("t1").getRequestsPerSecond());
+        assertNotNull(tenants.get("t1").getUpdatedAt());
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_AUDITOR", "READ_ORDERS", "READ_AUDIT"), authorities(tenants.get("t3")));
+        assertEquals(2, roleRepository.count());
+        verify(cache, times(1)).invalidate(List.of("t1", "t2", "t3"));
+    }
+
+    @Test
+    void existingTenantsAreSkippedAndMalformedInputStopsTheRun() throws IOException {
+        roleRepository.save(new Role("USER"));
+        tenantRepository.save(new Tenant("acme", "Acme Corp"));
+
+        Result result = service(10).provision(body("""
+                [{"code": "acme", "roles": ["USER"]}, {"code": "new", "roles": ["USER"]}, {"code": "next", "roles": [}]
+                """));
+
+        assertEquals(1, result.created());
+        assertEquals(1, result.existing());
+        assertTrue(result.error().startsWith("Malformed input after entry 2"));
+        assertEquals("Acme Corp", tenantRepository.findByCode("acme").orElseThrow().getDisplayName());
+        assertTrue(tenantRepository.findByCode("new").isPresent());
+        verify(cache).invalidate(List.of("new"));
+    }
+
+    @Test
+    void seedingAgainOnlyRestoresWhatIsMissing() {
+        List<TenantSpec> seed = List.of(new TenantSpec("acme", "Acme Corp",
+                List.of(new RoleSpec("ADMIN", List.of("READ_ORDERS")), RoleSpec.named("AUDITOR")), null, null, null));
+        assertEquals(1, service(10).provision(seed).created());
+
+        jdbc.getJdbcTemplate().update("delete from tenant_roles where role_id = (select id from roles where name = 'AUDITOR')");
+        jdbc.getJdbcTemplate().update("delete from roles where name = 'AUDITOR'");
+        Result again = service(10).provision(seed);
+
+        assertEquals(0, again.created());
+        assertEquals(1, again.existing());
+        assertEquals(1, again.rolesCreated());
+        assertTrue(roleRepository.findByName("AUDITOR").isPresent());
+        verify(cache, times(1)).invalidate(anyCollection());
+    }
+
+    @Test
+    void overlappingRunsCreateEachTenantAndRoleOnce() throws Exception {
+        // two services stand in for two nodes; nothing serializes them but the database
+        TenantProvisioningService first = service(25);
+        TenantProvisioningService second = service(25);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService runs = Executors.newFixedThreadPool(2);
+        try {
+            Future<Result> a = runs.submit(() -> {
+                start.await();
+                return first.provision(specs(0, 200));
+            });
+            Future<Result> b = runs.submit(() -> {
+                start.await();
+                return second.provision(specs(100, 300));
+            });
+            start.countDown();
+            Result resultA = a.get(30, TimeUnit.SECONDS);
+            Result resultB = b.get(30, TimeUnit.SECONDS);
+
+            assertNull(resultA.error());
+            assertNull(resultB.error());
+            assertEquals(300, resultA.created() + resultB.created());
+            assertEquals(100, resultA.existing() + resultB.existing());
+            assertEquals(1, resultA.rolesCreated() + resultB.rolesCreated());
+            assertEquals(1, resultA.resourcesCreated() + resultB.resourcesCreated());
+        } finally {
+            runs.shutdownNow();
+        }
+        assertEquals(300, tenantRepository.count());
+        assertEquals(1, roleRepository.count());
+        assertEquals(1, jdbc.getJdbcTemplate().queryForObject("select count(*) from role_resources", Integer.class));
+        assertEquals(300, jdbc.getJdbcTemplate().queryForObject("select count(*) from tenant_roles", Integer.class));
+    }
+
+    @Test
+    void clientSecretHashIsStoredAndTheTenantReloaded() {
+        TenantProvisioningService service = service(10);
+        assertFalse(service.setClientSecretHash("acme", "hash-1"));
+        verify(cache, never()).invalidate(anyCollection());
+
+        service.provision(List.of(new TenantSpec("acme", null, List.of(RoleSpec.named("USER")), null, null, null)));
+        clearInvocations(cache);
+        assertTrue(service.setClientSecretHash(" ACME", "hash-1"));
+
+        assertEquals("hash-1", jdbc.getJdbcTemplate().queryForObject(
+                "select client_secret_hash from tenants where code = 'acme'", String.class));
+        verify(cache).invalidate(List.of("acme"));
+    }
+
+    @Test
+    void nothingCreatedMeansNoInvalidation() throws IOException {
+        Result result = service(10).provision(body("[]"));
+
+        assertEquals(0, result.received());
+        verify(cache, never()).invalidate(anyCollection());
+    }
+
+    private TenantProvisioningService service(int chunkSize) {
+        return new TenantProvisioningService(jdbc, transactionManager, cache, new ObjectMapper(), chunkSize);
+    }
+
+    private static List<TenantSpec> specs(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> new TenantSpec("t" + i, null, List.of(new RoleSpec("SHARED", List.of("SHARED_READ"))),
+                        null, null, null))
+                .toList();
+    }
+
+    private static ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Set<String> authorities(Tenant tenant) {
+        return tenant.getAuthorities().stream().map(authority -> authority.getAuthority()).collect(Collectors.toSet());
+    }
+}
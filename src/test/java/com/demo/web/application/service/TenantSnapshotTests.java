@@ -0,0 +1,85 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.Tenant;
+import com.demo.web.application.security.AuthorityRegistry;
+import com.demo.web.application.security.InternedRole;
+
+class TenantSnapshotTests {
+
+    private static final String[] ROLE_NAMES = {"USER", "EDITOR", "ADMIN"};
+
+    @Test
+    void tenantsWithSameRolesShareOneRoleSet() {
+        AuthorityRegistry registry = new AuthorityRegistry();
+        TenantSnapshot acme = TenantSnapshot.compile(tenant(0, 2, 8), registry);
+        TenantSnapshot beta = TenantSnapshot.compile(tenant(1, 2, 8), registry);
+        TenantSnapshot gamma = TenantSnapshot.compile(tenant(2, 1, 8), registry);
+
+        assertSame(acme.getRoleSet(), beta.getRoleSet());
+        InternedRole user = gamma.getRoles().get(0);
+        assertTrue(acme.getRoles().stream().anyMatch(role -> role == user));
+        assertSame(acme.getAuthorities(), beta.getAuthorities());
+        // ROLE_USER, ROLE_EDITOR + 16 distinct resources
+        assertEquals(18, acme.getAuthorities().size());
+        assertEquals("tenant0", acme.toTenant().getCode());
+        assertEquals(2, acme.toTenant().getRoles().size());
+    }
+
+    /**
+     * Each synthetic tenant has its own Role/Resource instances and name strings, as entities loaded in
+     * separate persistence contexts do. The cache must not keep that graph per tenant.
+     */
+    @Test
+    void snapshotsRetainAFractionOfTheEntityGraph() {
+        int tenantCount = 10_000;
+        long baseline = usedHeapAfterGc();
+        List<Tenant> tenants = new ArrayList<>(tenantCount);
+        for (int i = 0; i < tenantCount; i++) {
+            tenants.add(tenant(i, 3, 8));
+        }
+        long entityBytes = usedHeapAfterGc() - baseline;
+
+        AuthorityRegistry registry = new AuthorityRegistry();
+        List<TenantSnapshot> snapshots = new ArrayList<>(tenantCount);
+        tenants.forEach(tenant -> snapshots.add(TenantSnapshot.compile(tenant, registry)));
+        tenants = null;
+        long snapshotBytes = usedHeapAfterGc() - baseline;
+
+        assertEquals(tenantCount, snapshots.size());
+        assertTrue(snapshotBytes * 10 < entityBytes,
+                "snapshots " + snapshotBytes / tenantCount + " B/tenant vs entities " + entityBytes / tenantCount + " B/tenant");
+    }
+
+    private static Tenant tenant(int index, int roleCount, int resourcesPerRole) {
+        Tenant tenant = new Tenant("tenant" + index, "Tenant " + index);
+        for (int r = 0; r < roleCount; r++) {
+            Role role = new Role(new String(ROLE_NAMES[r]));
+            for (int p = 0; p < resourcesPerRole; p++) {
+                role.addResource(new Resource(ROLE_NAMES[r] + "_RESOURCE_" + p));
+            }
+            tenant.addRole(role);
+        }
+        return tenant;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
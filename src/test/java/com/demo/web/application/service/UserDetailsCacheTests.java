@@ -0,0 +1,128 @@
+package com.demo.web.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.demo.web.application.dto.Resource;
+import com.demo.web.application.dto.Role;
+import com.demo.web.application.dto.User;
+import com.demo.web.application.repository.UserRepository;
+import com.demo.web.application.security.UserPrincipal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserDetailsCacheTests {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final UserDetailsCache cache = new UserDetailsCache(3, 300, nanos::get);
+    private final UserRepository repository = mock(UserRepository.class);
+    private final CustomUserDetailsService service = new CustomUserDetailsService(repository, cache);
+
+    @Test
+    void cachesAnImmutableSnapshotNotTheEntity() {
+        User alice = user("alice", "hash-1");
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(alice));
+
+        UserDetails first = service.loadUserByUsername("alice");
+        assertSame(first, service.loadUserByUsername("alice"));
+        verify(repository, times(1)).findByUsername("alice");
+
+        UserPrincipal principal = assertInstanceOf(UserPrincipal.class, first);
+        assertEquals(Set.of("ROLE_USER", "READ_ORDERS"), authorities(principal));
+        assertThrows(UnsupportedOperationException.class, () -> principal.getAuthorities().clear());
+        // Later changes to the entity do not leak into the cached snapshot
+        alice.addRole(new Role("ADMIN"));
+        alice.setPassword("changed");
+        assertEquals(Set.of("ROLE_USER", "READ_ORDERS"), authorities(principal));
+        assertEquals("hash-1", principal.getPassword());
+        assertFalse(principal.toString().contains("hash-1"));
+    }
+
+    @Test
+    void passwordChangeEvictsTheCachedUser() {
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(user("alice", "hash-1")));
+        UserDetails before = service.loadUserByUsername("alice");
+
+        User stored = user("alice", "hash-1");
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(stored));
+        UserDetails upgraded = service.updatePassword(before, "hash-2");
+
+        assertNull(cache.get("alice"));
+        assertEquals("hash-2", upgraded.getPassword());
+        assertEquals("hash-2", service.loadUserByUsername("alice").getPassword());
+        verify(repository).save(stored);
+    }
+
+    @Test
+    void entriesExpireAfterTheTtlAndTheCacheStaysBounded() {
+        cache.put(principal("alice"));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(299));
+        assertNotNull(cache.get("alice"));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertNull(cache.get("alice"));
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(principal("user" + i));
+        }
+        assertTrue(cache.size() <= 3, "size " + cache.size());
+    }
+
+    @Test
+    void publishesHitsMissesEvictionsAndSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.put(principal("alice"));
+        cache.get("alice");
+        cache.get("alice");
+        cache.get("bob");
+        for (int i = 0; i < 5; i++) {
+            cache.put(principal("user" + i));
+        }
+        cache.size();
+
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "userDetails").tag("result", "miss")
+                .functionCounter().count());
+        assertEquals(3.0, registry.get("cache.evictions").tag("cache", "userDetails").functionCounter().count());
+        assertEquals(3.0, registry.get("cache.size").tag("cache", "userDetails").gauge().value());
+    }
+
+    private static Set<String> authorities(UserDetails user) {
+        return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+
+    private static UserPrincipal principal(String username) {
+        return new UserPrincipal(1L, username, "hash", Set.of());
+    }
+
+    private static User user(String username, String password) {
+        Role role = new Role("USER");
+        role.addResource(new Resource("READ_ORDERS"));
+        User user = new User(username, password, "Alice", "Street", "City", "ST", "12345", "555");
+        user.setId(1L);
+        user.addRole(role);
+        return user;
+    }
+}
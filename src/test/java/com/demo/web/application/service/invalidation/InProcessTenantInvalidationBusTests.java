@@ -0,0 +1,29 @@
+package com.demo.web.application.service.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class InProcessTenantInvalidationBusTests {
+
+    @Test
+    void publishedCodesAreNormalizedIndependentlyOfTheDefaultLocale() {
+        InProcessTenantInvalidationBus bus = new InProcessTenantInvalidationBus();
+        AtomicReference<TenantInvalidationEvent> received = new AtomicReference<>();
+        bus.subscribe(received::set);
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            // Turkish lower-cases "I" to a dotless "ı"
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            bus.publish(List.of(" ISTANBUL ", "Izmir"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+        assertEquals(Set.of("istanbul", "izmir"), received.get().tenantCodes());
+    }
+}
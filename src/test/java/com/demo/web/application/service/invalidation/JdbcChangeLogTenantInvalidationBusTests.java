@@ -0,0 +1,105 @@
+package com.demo.web.application.service.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.demo.web.application.dto.TenantChangeLog;
+import com.demo.web.application.repository.TenantChangeLogRepository;
+
+/**
+ * Two buses on one database stand in for two nodes; polls are driven by the test (the scheduled
+ * poller is never started, except where startup itself is tested).
+ */
+@DataJpaTest
+class JdbcChangeLogTenantInvalidationBusTests {
+
+    @Autowired
+    private TenantChangeLogRepository repository;
+
+    private final List<JdbcChangeLogTenantInvalidationBus> buses = new ArrayList<>();
+
+    @AfterEach
+    void stopBuses() {
+        buses.forEach(JdbcChangeLogTenantInvalidationBus::stop);
+    }
+
+    @Test
+    void eventsReachOtherNodesOnceAndNotThePublisherTwice() {
+        JdbcChangeLogTenantInvalidationBus publisher = bus();
+        JdbcChangeLogTenantInvalidationBus peer = bus();
+        List<TenantInvalidationEvent> atPublisher = new ArrayList<>();
+        List<TenantInvalidationEvent> atPeer = new ArrayList<>();
+        publisher.subscribe(atPublisher::add);
+        peer.subscribe(atPeer::add);
+
+        publisher.publish(List.of(" ACME ", "beta"));
+        publisher.publish(List.of());
+        peer.poll();
+        peer.poll();
+        publisher.poll();
+
+        assertEquals(2, atPeer.size());
+        assertEquals(Set.of("acme", "beta"), atPeer.get(0).tenantCodes());
+        assertEquals(publisher.getNodeId(), atPeer.get(0).origin());
+        assertTrue(atPeer.get(1).isFullRefresh());
+        // Delivered locally on publish; the publisher's own rows are skipped when polled
+        assertEquals(2, atPublisher.size());
+    }
+
+    @Test
+    void largeEventsAreSplitIntoRowsThatFitTheColumn() {
+        JdbcChangeLogTenantInvalidationBus publisher = bus();
+        JdbcChangeLogTenantInvalidationBus peer = bus();
+        Set<String> received = new HashSet<>();
+        peer.subscribe(event -> received.addAll(event.tenantCodes()));
+        Set<String> codes = IntStream.range(0, 1000).mapToObj(i -> "tenant-" + i).collect(Collectors.toSet());
+
+        publisher.publish(codes);
+        peer.poll();
+
+        assertTrue(repository.count() > 1);
+        repository.findAll().forEach(row -> assertTrue(row.getTenantCodes().length() <= 4000));
+        assertEquals(codes, received);
+    }
+
+    @Test
+    void startupSkipsEarlierEventsAndOldRowsArePurged() {
+        TenantChangeLog old = new TenantChangeLog("other-node", "acme");
+        old.setCreatedAt(Instant.now().minusSeconds(7200));
+        repository.save(old);
+
+        JdbcChangeLogTenantInvalidationBus late = bus();
+        late.start();
+        List<TenantInvalidationEvent> received = new ArrayList<>();
+        late.subscribe(received::add);
+        late.poll();
+        assertTrue(received.isEmpty());
+
+        repository.save(new TenantChangeLog("other-node", "beta"));
+        late.poll();
+        assertEquals(1, received.size());
+        assertEquals(Set.of("beta"), received.get(0).tenantCodes());
+
+        assertEquals(1, repository.deleteOlderThan(Instant.now().minusSeconds(3600)));
+        assertEquals(1, repository.count());
+    }
+
+    private JdbcChangeLogTenantInvalidationBus bus() {
+        JdbcChangeLogTenantInvalidationBus bus = new JdbcChangeLogTenantInvalidationBus(repository, 60_000, 60);
+        buses.add(bus);
+        return bus;
+    }
+}
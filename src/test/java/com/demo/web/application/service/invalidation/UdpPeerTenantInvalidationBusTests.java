@@ -0,0 +1,123 @@
+package com.demo.web.application.service.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class UdpPeerTenantInvalidationBusTests {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    @Test
+    void deliversEventToPeerOnLocalhost() throws Exception {
+        int senderPort = freePort();
+        UdpPeerTenantInvalidationBus receiver = bus(0, "127.0.0.1:" + senderPort, SECRET);
+        UdpPeerTenantInvalidationBus sender = bus(senderPort, "127.0.0.1:" + receiver.getPort(), SECRET);
+        try {
+            BlockingQueue<TenantInvalidationEvent> received = new LinkedBlockingQueue<>();
+            BlockingQueue<TenantInvalidationEvent> local = new LinkedBlockingQueue<>();
+            receiver.subscribe(received::add);
+            sender.subscribe(local::add);
+
+            sender.publish(List.of(" ACME ", "beta"));
+
+            TenantInvalidationEvent event = received.poll(2, TimeUnit.SECONDS);
+            assertNotNull(event);
+            assertEquals(sender.getNodeId(), event.origin());
+            assertEquals(Set.of("acme", "beta"), event.tenantCodes());
+            // Publisher is notified locally, exactly once
+            assertNotNull(local.poll(1, TimeUnit.SECONDS));
+            assertTrue(local.isEmpty());
+        } finally {
+            sender.stop();
+            receiver.stop();
+        }
+    }
+
+    @Test
+    void dropsDatagramsFromNonPeersAndWithoutTheSharedKey() throws Exception {
+        int senderPort = freePort();
+        UdpPeerTenantInvalidationBus receiver = bus(0, "127.0.0.1:" + senderPort, SECRET);
+        UdpPeerTenantInvalidationBus strangerReceiver = bus(0, "127.0.0.2:" + senderPort, SECRET);
+        UdpPeerTenantInvalidationBus forger = bus(0, "127.0.0.1:" + receiver.getPort(),
+                Base64.getEncoder().encodeToString("another key, not the shared one".getBytes()));
+        UdpPeerTenantInvalidationBus sender = bus(senderPort,
+                "127.0.0.1:" + receiver.getPort() + ",127.0.0.1:" + strangerReceiver.getPort(), SECRET);
+        try {
+            BlockingQueue<TenantInvalidationEvent> received = new LinkedBlockingQueue<>();
+            BlockingQueue<TenantInvalidationEvent> receivedByStranger = new LinkedBlockingQueue<>();
+            receiver.subscribe(received::add);
+            strangerReceiver.subscribe(receivedByStranger::add);
+
+            // A full reload request signed with the wrong key, then a genuine event
+            forger.publish(List.of());
+            sender.publish(List.of("acme"));
+
+            TenantInvalidationEvent event = received.poll(2, TimeUnit.SECONDS);
+            assertNotNull(event);
+            assertEquals(Set.of("acme"), event.tenantCodes());
+            // 127.0.0.1 is not a peer of strangerReceiver
+            assertNull(receivedByStranger.poll(200, TimeUnit.MILLISECONDS));
+            assertTrue(received.isEmpty());
+        } finally {
+            sender.stop();
+            forger.stop();
+            strangerReceiver.stop();
+            receiver.stop();
+        }
+    }
+
+    @Test
+    void splitsLargeEventsAndRoundTrips() {
+        Set<String> codes = IntStream.range(0, 5000).mapToObj(i -> "tenant-" + i).collect(Collectors.toSet());
+        List<byte[]> payloads = UdpPeerTenantInvalidationBus.encode(new TenantInvalidationEvent("node", codes), 1000);
+
+        assertTrue(payloads.size() > 1);
+        Set<String> decoded = payloads.stream()
+                .map(payload -> UdpPeerTenantInvalidationBus.decode(new String(payload), 1000))
+                .flatMap(event -> event.tenantCodes().stream())
+                .collect(Collectors.toSet());
+        assertEquals(codes, decoded);
+    }
+
+    @Test
+    void emptyCodesMeanFullRefreshAndStaleDatagramsAreRejected() {
+        String message = new String(UdpPeerTenantInvalidationBus.encode(
+                new TenantInvalidationEvent("node", Set.of()), 1000).get(0));
+
+        TenantInvalidationEvent event = UdpPeerTenantInvalidationBus.decode(message, 1000);
+        assertTrue(event.isFullRefresh());
+        assertEquals("node", event.origin());
+        assertNull(UdpPeerTenantInvalidationBus.decode(message, 1001 + UdpPeerTenantInvalidationBus.MAX_AGE_MILLIS));
+    }
+
+    @Test
+    void secretIsRequired() {
+        assertThrows(IllegalStateException.class, () -> bus(0, "", ""));
+    }
+
+    private static UdpPeerTenantInvalidationBus bus(int port, String peers, String secret) throws IOException {
+        return new UdpPeerTenantInvalidationBus(port, "127.0.0.1", peers, secret);
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}